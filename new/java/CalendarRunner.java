@@ -1,36 +1,558 @@
+import calendar.BatchRunner;
 import calendar.InputFactory;
+import calendar.controller.Checkpoint;
 import calendar.controller.InterfaceController;
+import calendar.controller.LexerBenchmark;
 import calendar.controller.MultiCalendarController;
 import calendar.controller.guicontroller.GuiCalendarController;
+import calendar.controller.server.BinaryCommandServer;
+import calendar.controller.server.CommandServer;
+import calendar.controller.server.ConvergenceCheck;
+import calendar.controller.server.HttpBenchmark;
+import calendar.controller.server.HttpQueryApi;
+import calendar.controller.server.LoadTest;
+import calendar.controller.server.ReplicationFollower;
+import calendar.controller.server.ReplicationLog;
+import calendar.controller.server.ShardRouter;
+import calendar.controller.server.ShardedCommandServer;
 import calendar.model.CalendarModelsImpl;
+import calendar.model.ChangeFeedBenchmark;
+import calendar.model.InterfaceCalendar;
 import calendar.model.InterfaceCalendarModels;
+import calendar.model.InterfaceEvent;
+import calendar.model.ShardedCalendarModels;
+import calendar.model.SharedCalendarModels;
+import calendar.model.reminder.InterfaceReminderListener;
+import calendar.model.reminder.Reminder;
+import calendar.model.reminder.ReminderHarness;
+import calendar.model.reminder.ReminderScheduler;
 import calendar.view.gui.MainView;
+import calendar.view.simple.BufferedOutputSink;
 import calendar.view.simple.InterfaceView;
 import calendar.view.simple.SimpleView;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Program runner for the Calendar Application.
  * Supports GUI, interactive, and headless modes.
  */
 public class CalendarRunner {
+  private static final String DEFAULT_SERVER_PORT = "7070";
+  private static final long LAG_REPORT_MILLIS = 5_000;
 
   /**
    * Main method that handles command line arguments and runs the application.
    * Usage: java CalendarRunner --mode interactive
    * java CalendarRunner --mode headless commands.txt
+   * java CalendarRunner --mode headless commands.txt --pipelined
+   * java CalendarRunner --mode headless commands.txt --partitioned
+   * java CalendarRunner --mode headless commands.txt --checkpoint
+   * java CalendarRunner --mode headless commands.txt --resume
+   * java CalendarRunner --mode headless commands.txt --follow
+   * java CalendarRunner --mode batch scripts/ [--out results/] [--threads 8]
+   * java CalendarRunner --mode server [port | unix:socketFile] [--http httpPort]
+   *     [--binary (port | unix:socketFile)] [--replicate (port | unix:socketFile)]
+   *     [--reminders minutesBefore]
+   * java CalendarRunner --mode server [port | unix:socketFile] --shards n
+   * java CalendarRunner --mode follower (leaderPort | unix:leaderSocket) (port | unix:socketFile)
+   * java CalendarRunner --mode router (port | unix:socketFile) shardAddress...
+   * java CalendarRunner --mode httpbench httpPort calendarName [clients] [requests]
+   * java CalendarRunner --mode changebench [series] [occurrences] [rounds]
+   * java CalendarRunner --mode lexbench [lines]
+   * java CalendarRunner --mode reminders commands.txt [minutesBefore] [edits.txt]
+   * java CalendarRunner --mode loadtest (port | unix:socketFile) [clients] [requests]
+   * java CalendarRunner --mode convergence (port | unix:socketFile) replicationAddress
+   *     [--binary (port | unix:socketFile)] [clients] [writes]
+   * Headless output is buffered and written in large blocks instead of once per command.
    *
    * @param args command line arguments
    */
   public static void main(String[] args) {
     InterfaceCalendarModels models = new CalendarModelsImpl();
-    InterfaceView view = new SimpleView(System.out);
     InterfaceController controller;
     if (args.length == 0) {
       controller = new GuiCalendarController(models, new MainView());
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("batch")) {
+      BatchRunner.Summary summary = BatchRunner.fromArgs(args).run();
+      System.out.println(summary);
+      if (summary.hasFailures()) {
+        System.exit(1);
+      }
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("server")) {
+      runServer(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("router")) {
+      runRouter(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("follower")) {
+      runFollower(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("loadtest")) {
+      runLoadTest(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("convergence")) {
+      runConvergenceCheck(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("httpbench")) {
+      runHttpBenchmark(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("changebench")) {
+      runChangeFeedBenchmark(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("lexbench")) {
+      runLexerBenchmark(args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("reminders")) {
+      runReminderHarness(models, args);
+      return;
+    } else if (args.length >= 2 && args[1].equalsIgnoreCase("headless")) {
+      runHeadless(models, args);
+      return;
     } else {
       Readable input = InputFactory.getInput(args);
-      controller = new MultiCalendarController(models, input, view);
+      controller = new MultiCalendarController(models, input, new SimpleView(System.out));
     }
     controller.run();
   }
+
+  /**
+   * Runs a headless script, writing the results through a buffered sink. The sink is
+   * flushed before an error escapes, so the output stays ahead of the stack trace.
+   */
+  private static void runHeadless(InterfaceCalendarModels models, String[] args) {
+    Readable input = InputFactory.getInput(args);
+    System.out.flush();
+    BufferedOutputSink sink = new BufferedOutputSink(
+        new FileOutputStream(FileDescriptor.out), Charset.defaultCharset());
+    InterfaceView view = new SimpleView(sink);
+    MultiCalendarController controller = new MultiCalendarController(models, input, view);
+    try {
+      boolean resume = InputFactory.hasOption(args, "--resume");
+      if (resume || InputFactory.hasOption(args, "--checkpoint")) {
+        if (args[2].equals("-")) {
+          throw new IllegalArgumentException("Checkpoints need an input file, not standard input.");
+        }
+        controller.useCheckpoint(
+            new Checkpoint(Paths.get(args[2] + ".checkpoint"), Checkpoint.DEFAULT_INTERVAL));
+        if (resume) {
+          long skipped = controller.resumeFromCheckpoint();
+          System.err.println("Resuming after line " + skipped + " of " + args[2]);
+        }
+      }
+      if (InputFactory.hasOption(args, "--partitioned")) {
+        controller.runPartitioned(Runtime.getRuntime().availableProcessors());
+      } else if (InputFactory.hasOption(args, "--pipelined")) {
+        controller.runPipelined();
+      } else {
+        controller.run();
+      }
+    } finally {
+      try {
+        sink.close();
+      } catch (IOException e) {
+        System.err.println("Could not write output: " + e.getMessage());
+      }
+      if (input instanceof Closeable) {
+        try {
+          ((Closeable) input).close();
+        } catch (IOException e) {
+          System.err.println("Could not close input: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Serves command sessions on a local port or Unix domain socket until the process ends.
+   */
+  private static void runServer(String[] args) {
+    String address = DEFAULT_SERVER_PORT;
+    Integer httpPort = null;
+    String binaryAddress = null;
+    String replicationAddress = null;
+    Integer shards = null;
+    Long reminderMinutes = null;
+    for (int i = 2; i < args.length; i++) {
+      if (args[i].equals("--http") && i + 1 < args.length) {
+        try {
+          httpPort = Integer.parseInt(args[++i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("HTTP port must be an integer.");
+        }
+      } else if (args[i].equals("--binary") && i + 1 < args.length) {
+        binaryAddress = args[++i];
+      } else if (args[i].equals("--replicate") && i + 1 < args.length) {
+        replicationAddress = args[++i];
+      } else if (args[i].equals("--reminders") && i + 1 < args.length) {
+        try {
+          reminderMinutes = Long.parseLong(args[++i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Minutes before the start must be an integer.");
+        }
+      } else if (args[i].equals("--shards") && i + 1 < args.length) {
+        try {
+          shards = Integer.parseInt(args[++i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Number of shards must be an integer.");
+        }
+      } else if (i == 2) {
+        address = args[i];
+      } else {
+        throw new IllegalArgumentException("Unknown server option: " + args[i]);
+      }
+    }
+
+    if (shards != null) {
+      if (httpPort != null || binaryAddress != null || replicationAddress != null
+          || reminderMinutes != null) {
+        throw new IllegalArgumentException(
+            "--shards cannot be combined with --http, --binary, --replicate or --reminders.");
+      }
+      runShardedServer(address, shards);
+      return;
+    }
+
+    if (httpPort != null && System.getProperty("sun.net.httpserver.nodelay") == null) {
+      // Chunked HTTP responses otherwise stall on delayed ACKs. The JDK server reads this
+      // property once, when the first server starts.
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+    SharedCalendarModels models = new SharedCalendarModels();
+    try (CommandServer server = new CommandServer(models, CommandServer.parseAddress(address));
+         HttpQueryApi http = httpPort == null ? null : new HttpQueryApi(models, httpPort);
+         BinaryCommandServer binary = binaryAddress == null ? null
+             : new BinaryCommandServer(models, CommandServer.parseAddress(binaryAddress));
+         ReplicationLog replication = replicationAddress == null ? null
+             : new ReplicationLog(models, CommandServer.parseAddress(replicationAddress));
+         ReminderScheduler reminders = reminderMinutes == null ? null
+             : startReminders(models, Duration.ofMinutes(reminderMinutes))) {
+      System.out.println("Listening on " + server.getAddress());
+      if (replication != null) {
+        server.replicateTo(replication);
+        if (binary != null) {
+          binary.replicateTo(replication);
+        }
+        startDaemon("calendar-replication-log", replication::serve);
+        System.out.println("Replication log on " + replication.getAddress());
+      }
+      if (http != null) {
+        System.out.println("HTTP API on http://127.0.0.1:" + http.getPort() + "/calendars");
+      }
+      if (binary != null) {
+        System.out.println("Binary protocol on " + binary.getAddress());
+        startDaemon("calendar-binary-server", binary::serve);
+      }
+      if (reminders != null) {
+        System.out.println("Reminders " + reminderMinutes + " minutes before every event");
+      }
+      server.serve();
+    } catch (IOException e) {
+      throw new IllegalStateException("Server failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Starts printing a reminder ahead of every event of the served calendars, including the
+   * ones created while the server runs.
+   */
+  private static ReminderScheduler startReminders(SharedCalendarModels models,
+                                                  Duration leadTime) {
+    Lock readLock = models.getCalendarLock().readLock();
+    ReminderScheduler reminders = new ReminderScheduler(leadTime,
+        ReminderScheduler.DEFAULT_TICK, Clock.systemUTC(), new InterfaceReminderListener() {
+          @Override
+          public void remind(Reminder reminder) {
+            String message;
+            readLock.lock();
+            try {
+              message = reminder.toString();
+            } finally {
+              readLock.unlock();
+            }
+            System.out.println(message);
+          }
+
+          @Override
+          public void reminderFailed(Reminder reminder, RuntimeException cause) {
+            System.err.println("Reminder failed: " + cause.getMessage());
+          }
+        });
+    reminders.setReadLock(readLock);
+    reminders.watchAll(models);
+    reminders.start();
+    return reminders;
+  }
+
+  /**
+   * Serves command sessions on calendars pinned to single-threaded shards.
+   */
+  private static void runShardedServer(String address, int shards) {
+    try (ShardedCommandServer server = new ShardedCommandServer(
+        new ShardedCalendarModels(shards), CommandServer.parseAddress(address))) {
+      System.out.println("Listening on " + server.getAddress() + " with " + shards + " shards");
+      server.serve();
+    } catch (IOException e) {
+      throw new IllegalStateException("Server failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Follows the replication log of a leader server and serves read-only sessions on the
+   * replicated calendars, printing the replication lag every few seconds while it changes.
+   */
+  private static void runFollower(String[] args) {
+    if (args.length != 4) {
+      throw new IllegalArgumentException(
+          "Follower mode takes the leader's replication address and an address to serve on.");
+    }
+    SharedCalendarModels models = new SharedCalendarModels();
+    try (ReplicationFollower follower =
+             new ReplicationFollower(models, CommandServer.parseAddress(args[2]));
+         CommandServer server = new CommandServer(models, CommandServer.parseAddress(args[3]))) {
+      server.setReadOnly();
+      startDaemon("calendar-read-only-server", server::serve);
+      System.out.println("Following " + args[2] + ", serving reads on " + server.getAddress());
+
+      Thread lagReporter = new Thread(() -> {
+        String previous = "";
+        while (!Thread.currentThread().isInterrupted()) {
+          String status = follower.getStatus();
+          if (!status.equals(previous)) {
+            System.out.println(status);
+            previous = status;
+          }
+          try {
+            Thread.sleep(LAG_REPORT_MILLIS);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      }, "calendar-replication-lag");
+      lagReporter.setDaemon(true);
+      lagReporter.start();
+
+      follower.run();
+      System.out.println("Leader went away. " + follower.getStatus());
+    } catch (IOException e) {
+      throw new IllegalStateException("Follower failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Routes command sessions to the shard servers that own their calendars until the process
+   * ends. The shards are started separately with --mode server.
+   */
+  private static void runRouter(String[] args) {
+    if (args.length < 4) {
+      throw new IllegalArgumentException(
+          "Router mode takes an address to serve on and the addresses of the shards.");
+    }
+    List<SocketAddress> shards = new ArrayList<>();
+    for (int i = 3; i < args.length; i++) {
+      shards.add(CommandServer.parseAddress(args[i]));
+    }
+    try (ShardRouter router = new ShardRouter(CommandServer.parseAddress(args[2]), shards)) {
+      System.out.println("Routing on " + router.getAddress() + " to " + shards.size()
+          + " shards");
+      router.serve();
+    } catch (IOException e) {
+      throw new IllegalStateException("Router failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Runs a server loop on a daemon thread, so it ends with the process.
+   */
+  private static void startDaemon(String name, ServerLoop loop) {
+    Thread thread = new Thread(() -> {
+      try {
+        loop.serve();
+      } catch (IOException e) {
+        System.err.println(name + " failed: " + e.getMessage());
+      }
+    }, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Accept loop of a server.
+   */
+  private interface ServerLoop {
+    void serve() throws IOException;
+  }
+
+  /**
+   * Runs a load test against a running server and prints its report.
+   */
+  private static void runLoadTest(String[] args) {
+    if (args.length < 3 || args.length > 5) {
+      throw new IllegalArgumentException(
+          "Load test mode takes an address, and optionally clients and requests per client.");
+    }
+    try {
+      int clients = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+      int requests = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+      System.out.println(
+          new LoadTest(CommandServer.parseAddress(args[2]), clients, requests).run());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Clients and requests must be integers.");
+    } catch (IOException e) {
+      throw new IllegalStateException("Load test failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes to a running leader server and checks that followers of its replication log end
+   * up with the same calendars. Exits with status 1 if any calendar differs.
+   */
+  private static void runConvergenceCheck(String[] args) {
+    if (args.length < 4) {
+      throw new IllegalArgumentException("Convergence mode takes the leader's address and "
+          + "replication address, and optionally --binary, clients and writes per client.");
+    }
+    List<String> rest = new ArrayList<>(List.of(args).subList(4, args.length));
+    SocketAddress binary = null;
+    int binaryOption = rest.indexOf("--binary");
+    if (binaryOption >= 0 && binaryOption + 1 < rest.size()) {
+      binary = CommandServer.parseAddress(rest.remove(binaryOption + 1));
+      rest.remove(binaryOption);
+    }
+    if (rest.size() > 2) {
+      throw new IllegalArgumentException("Unknown convergence option: " + rest.get(0));
+    }
+    try {
+      int clients = rest.size() > 0 ? Integer.parseInt(rest.get(0)) : 4;
+      int writes = rest.size() > 1 ? Integer.parseInt(rest.get(1)) : 2_000;
+      ConvergenceCheck check = new ConvergenceCheck(CommandServer.parseAddress(args[2]),
+          binary, CommandServer.parseAddress(args[3]), clients, writes, 42);
+      System.out.println(check.run());
+      if (check.getDifferingCalendars() > 0) {
+        System.exit(1);
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Clients and writes must be integers.");
+    } catch (IOException e) {
+      throw new IllegalStateException("Convergence check failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Runs a benchmark against the HTTP API of a running server and prints its report.
+   */
+  private static void runHttpBenchmark(String[] args) {
+    if (args.length < 4 || args.length > 6) {
+      throw new IllegalArgumentException("HTTP benchmark mode takes a port and a calendar, "
+          + "and optionally clients and requests per client.");
+    }
+    try {
+      int port = Integer.parseInt(args[2]);
+      int clients = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+      int requests = args.length > 5 ? Integer.parseInt(args[5]) : 3_000;
+      System.out.println(new HttpBenchmark(port, args[3], clients, requests).run());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Port, clients and requests must be integers.");
+    } catch (IOException e) {
+      throw new IllegalStateException("HTTP benchmark failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Compares polling a month of a calendar with subscribing to its changes and prints the
+   * report.
+   */
+  private static void runChangeFeedBenchmark(String[] args) {
+    if (args.length > 5) {
+      throw new IllegalArgumentException("Change benchmark mode optionally takes series, "
+          + "occurrences and rounds.");
+    }
+    try {
+      int series = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+      int occurrences = args.length > 3 ? Integer.parseInt(args[3]) : 365;
+      int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 1_000;
+      System.out.println(new ChangeFeedBenchmark(series, occurrences, rounds).run());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Series, occurrences and rounds must be integers.");
+    }
+  }
+
+  /**
+   * Compares the command lexer with the previous tokenizing and prints the report.
+   */
+  private static void runLexerBenchmark(String[] args) {
+    if (args.length > 3) {
+      throw new IllegalArgumentException("Lexer benchmark mode optionally takes lines.");
+    }
+    try {
+      int lines = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+      System.out.println(new LexerBenchmark(lines, 42).run());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Lines must be an integer.");
+    }
+  }
+
+  /**
+   * Builds calendars from a script, then runs reminders for them on a simulated clock from
+   * the first reminder to the last start, applying the edits script halfway, and prints the
+   * report of the harness.
+   */
+  private static void runReminderHarness(InterfaceCalendarModels models, String[] args) {
+    if (args.length < 3 || args.length > 5) {
+      throw new IllegalArgumentException("Reminders mode takes a command file, and optionally "
+          + "minutes before the start and an edits file.");
+    }
+    Duration leadTime;
+    try {
+      leadTime = Duration.ofMinutes(args.length > 3 ? Long.parseLong(args[3]) : 15);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Minutes before the start must be an integer.");
+    }
+    runQuietly(models, args[2]);
+
+    Instant first = null;
+    Instant last = null;
+    for (String name : models.getCalendarNames()) {
+      InterfaceCalendar calendar = models.get(name);
+      for (InterfaceEvent event : calendar.filter(event -> true)) {
+        Instant start = event.getStartDateTime()
+            .atZone(calendar.getTimeZone().toZoneId()).toInstant();
+        first = first == null || start.isBefore(first) ? start : first;
+        last = last == null || start.isAfter(last) ? start : last;
+      }
+    }
+    if (first == null) {
+      throw new IllegalArgumentException("The command file creates no events.");
+    }
+
+    Instant from = first.minus(leadTime).minus(Duration.ofMinutes(1));
+    ReminderHarness harness = new ReminderHarness(models, leadTime,
+        ReminderScheduler.DEFAULT_TICK, Duration.ofMinutes(1));
+    if (args.length > 4) {
+      Instant halfway = from.plus(Duration.between(from, last).dividedBy(2));
+      harness.editAt(halfway, () -> runQuietly(models, args[4]));
+    }
+    System.out.println(harness.run(from, last));
+  }
+
+  /**
+   * Runs a command file against the calendars, discarding its output.
+   */
+  private static void runQuietly(InterfaceCalendarModels models, String fileName) {
+    Readable input = InputFactory.getInput(new String[] {"--mode", "headless", fileName});
+    new MultiCalendarController(models, input, new SimpleView(Writer.nullWriter())).run();
+  }
 }
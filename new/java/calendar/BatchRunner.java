@@ -0,0 +1,295 @@
+package calendar;
+
+import calendar.controller.MultiCalendarController;
+import calendar.model.CalendarModelsImpl;
+import calendar.view.simple.BufferedOutputSink;
+import calendar.view.simple.InterfaceView;
+import calendar.view.simple.SimpleView;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent headless scripts in one JVM, each against its own calendars.
+ * Expected args are: --mode batch (script | directory)... [--out directory] [--threads n]
+ * A directory stands for every .txt and .txt.gz file directly inside it. The output of a
+ * script is written to a file named after it with .out appended, next to the script or in
+ * the --out directory, and scripts that would write the same output file are rejected.
+ * Scripts run on a pool with one thread per core by default.
+ */
+public class BatchRunner {
+  private static final String OUTPUT_SUFFIX = ".out";
+
+  private final List<File> scripts;
+  private final File outputDirectory;
+  private final int threads;
+
+  /**
+   * Initializes a runner for the given scripts.
+   *
+   * @param scripts         Command files to run.
+   * @param outputDirectory Directory for the output files, or null to write next to scripts.
+   * @param threads         Number of scripts to run at the same time.
+   * @throws IllegalArgumentException if two scripts would write the same output file.
+   */
+  public BatchRunner(List<File> scripts, File outputDirectory, int threads) {
+    if (scripts.isEmpty()) {
+      throw new IllegalArgumentException("Batch mode requires at least one script.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive.");
+    }
+    this.scripts = List.copyOf(scripts);
+    this.outputDirectory = outputDirectory;
+    this.threads = threads;
+
+    Map<File, File> writers = new HashMap<>();
+    for (File script : this.scripts) {
+      File previous = writers.putIfAbsent(outputFile(script).getAbsoluteFile(), script);
+      if (previous != null) {
+        throw new IllegalArgumentException("Scripts " + previous + " and " + script
+            + " would both write to " + outputFile(script) + ".");
+      }
+    }
+  }
+
+  /**
+   * Creates a runner from main method arguments.
+   *
+   * @param args Arguments passed to main file, starting with --mode batch.
+   * @return Runner for the scripts named in the arguments.
+   */
+  public static BatchRunner fromArgs(String[] args) {
+    List<File> scripts = new ArrayList<>();
+    File outputDirectory = null;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 2; i < args.length; i++) {
+      switch (args[i]) {
+        case "--out":
+          outputDirectory = new File(optionValue(args, i++));
+          if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create output directory: "
+                + outputDirectory);
+          }
+          break;
+        case "--threads":
+          try {
+            threads = Integer.parseInt(optionValue(args, i++));
+          } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number of threads must be an integer.");
+          }
+          break;
+        default:
+          addScripts(new File(args[i]), scripts);
+      }
+    }
+    return new BatchRunner(scripts, outputDirectory, threads);
+  }
+
+  /**
+   * Runs every script and waits for all of them to finish.
+   *
+   * @return Summary of the run.
+   */
+  public Summary run() {
+    long startNanos = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, scripts.size()));
+    List<Future<ScriptResult>> futures = new ArrayList<>();
+    try {
+      for (File script : scripts) {
+        futures.add(executor.submit(() -> runScript(script)));
+      }
+
+      List<ScriptResult> results = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          results.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          results.add(new ScriptResult(scripts.get(i), 0, 0, e.getCause().toString()));
+        }
+      }
+      return new Summary(results, System.nanoTime() - startNanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch run was interrupted.", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs one script with its own calendars and output file.
+   */
+  private ScriptResult runScript(File script) {
+    CountingView view = null;
+    try (OutputStream stream = new FileOutputStream(outputFile(script))) {
+      BufferedOutputSink sink = new BufferedOutputSink(stream, Charset.defaultCharset(),
+          BufferedOutputSink.DEFAULT_CAPACITY, 0);
+      view = new CountingView(new SimpleView(sink));
+      try {
+        Readable input = InputFactory.openHeadlessInput(script.getPath());
+        try {
+          new MultiCalendarController(new CalendarModelsImpl(), input, view).run();
+        } finally {
+          if (input instanceof Closeable) {
+            ((Closeable) input).close();
+          }
+        }
+      } finally {
+        // The output written before a failure is kept.
+        sink.close();
+      }
+      return new ScriptResult(script, view.messages, view.errors, null);
+    } catch (IOException | RuntimeException e) {
+      int messages = view == null ? 0 : view.messages;
+      int errors = view == null ? 0 : view.errors;
+      return new ScriptResult(script, messages, errors, String.valueOf(e.getMessage()));
+    }
+  }
+
+  /**
+   * Gets the file the output of a script is written to.
+   */
+  private File outputFile(File script) {
+    return new File(outputDirectory == null ? script.getParentFile() : outputDirectory,
+        script.getName() + OUTPUT_SUFFIX);
+  }
+
+  private static void addScripts(File file, List<File> scripts) {
+    if (file.isFile()) {
+      scripts.add(file);
+      return;
+    }
+    File[] children = file.listFiles((dir, name) -> name.endsWith(".txt")
+        || name.endsWith(".txt.gz"));
+    if (children == null) {
+      throw new IllegalArgumentException("Script does not exist: " + file);
+    }
+    Arrays.sort(children);
+    for (File child : children) {
+      if (child.isFile()) {
+        scripts.add(child);
+      }
+    }
+  }
+
+  private static String optionValue(String[] args, int index) {
+    if (index + 1 >= args.length) {
+      throw new IllegalArgumentException("Missing value for option: " + args[index]);
+    }
+    return args[index + 1];
+  }
+
+  /**
+   * View that counts the messages of a script, and how many of them report an error.
+   */
+  private static class CountingView implements InterfaceView {
+    private final InterfaceView delegate;
+    private int messages;
+    private int errors;
+
+    private CountingView(InterfaceView delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void renderMessage(String message) {
+      messages++;
+      if (message != null
+          && (message.startsWith("Error") || message.startsWith("Invalid command"))) {
+        errors++;
+      }
+      delegate.renderMessage(message);
+    }
+
+    @Override
+    public void flush() {
+      delegate.flush();
+    }
+  }
+
+  /**
+   * Outcome of a single script.
+   */
+  public static class ScriptResult {
+    private final File script;
+    private final int commands;
+    private final int commandErrors;
+    private final String failure;
+
+    private ScriptResult(File script, int commands, int commandErrors, String failure) {
+      this.script = script;
+      this.commands = commands;
+      this.commandErrors = commandErrors;
+      this.failure = failure;
+    }
+
+    /**
+     * Whether the script could not be run to the end.
+     *
+     * @return True if the script failed, false if otherwise.
+     */
+    public boolean failed() {
+      return failure != null;
+    }
+  }
+
+  /**
+   * Throughput and errors of a batch run.
+   */
+  public static class Summary {
+    private final List<ScriptResult> results;
+    private final long elapsedNanos;
+
+    private Summary(List<ScriptResult> results, long elapsedNanos) {
+      this.results = results;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Whether any script failed.
+     *
+     * @return True if at least one script failed, false if otherwise.
+     */
+    public boolean hasFailures() {
+      return results.stream().anyMatch(ScriptResult::failed);
+    }
+
+    @Override
+    public String toString() {
+      long commands = 0;
+      long commandErrors = 0;
+      StringBuilder failures = new StringBuilder();
+      for (ScriptResult result : results) {
+        commands += result.commands;
+        commandErrors += result.commandErrors;
+        if (result.failed()) {
+          failures.append(System.lineSeparator()).append("Failed: ")
+              .append(result.script).append(": ").append(result.failure);
+        }
+      }
+      double seconds = Math.max(elapsedNanos, 1) / 1e9;
+      long failed = results.stream().filter(ScriptResult::failed).count();
+
+      return String.format(Locale.ROOT,
+          "Ran %d scripts (%d commands) in %.3f s: %.1f scripts/s, %.0f commands/s.%n"
+              + "%d command errors, %d failed scripts.",
+          results.size(), commands, seconds, results.size() / seconds, commands / seconds,
+          commandErrors, failed) + failures;
+    }
+  }
+}
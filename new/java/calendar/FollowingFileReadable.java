@@ -0,0 +1,141 @@
+package calendar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Readable that follows a file other programs append commands to, like tail -f.
+ * The file is read with positional reads from where the last read stopped, so appended
+ * commands are read without reading the file again. At the end of the file, reads wait for
+ * the directory watcher to report a change, or for the poll interval to pass on file systems
+ * the watcher does not cover. A file that is truncated is read again from its start, and when
+ * the file is replaced, e.g. by log rotation, the rest of the old file is read before the new
+ * one. Reads never report the end of input; they only stop when the thread is interrupted.
+ */
+public class FollowingFileReadable implements Readable, Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final long POLL_INTERVAL_MILLIS = 250;
+
+  private final Path path;
+  private final ByteBuffer bytes;
+  private final CharsetDecoder decoder;
+  private final WatchService watcher;
+  private FileChannel channel;
+  private Object fileKey;
+  private long position;
+
+  /**
+   * Opens the file and starts reading at its beginning.
+   *
+   * @param path File to follow.
+   * @throws IOException if the file cannot be opened.
+   */
+  public FollowingFileReadable(Path path) throws IOException {
+    this.path = path.toAbsolutePath();
+    this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    this.bytes.flip();
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.watcher = FileSystems.getDefault().newWatchService();
+    this.path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+    open();
+  }
+
+  @Override
+  public int read(CharBuffer cb) throws IOException {
+    if (!cb.hasRemaining()) {
+      return 0;
+    }
+    int start = cb.position();
+    while (cb.position() == start) {
+      decoder.decode(bytes, cb, false);
+      if (cb.position() > start) {
+        break;
+      }
+
+      bytes.compact();
+      int read = channel.read(bytes, position);
+      bytes.flip();
+      if (read > 0) {
+        position += read;
+      } else if (!switchFiles()) {
+        awaitChange();
+      }
+    }
+    return cb.position() - start;
+  }
+
+  /**
+   * Checks whether the file was truncated or replaced once the current one is read up to its
+   * end, and continues with the current contents of the path if so.
+   *
+   * @return True if reading continues elsewhere, false if there is nothing new to read yet.
+   */
+  private boolean switchFiles() throws IOException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+
+    if (!Objects.equals(attributes.fileKey(), fileKey)) {
+      channel.close();
+      open();
+      return true;
+    }
+    if (attributes.size() < position) {
+      position = 0;
+      bytes.clear();
+      bytes.flip();
+      decoder.reset();
+      return true;
+    }
+    return false;
+  }
+
+  private void awaitChange() throws IOException {
+    try {
+      WatchKey key = watcher.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+      if (key != null) {
+        key.pollEvents();
+        key.reset();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Stopped following " + path);
+    }
+  }
+
+  private void open() throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    position = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    watcher.close();
+    channel.close();
+  }
+}
@@ -2,19 +2,38 @@ package calendar;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Represents a function to translate main method arguments into a suitable readable object.
  * Checks to make that the input is one of two types of running modes: interactive or headless.
  */
 public class InputFactory {
+  private static final Set<String> HEADLESS_OPTIONS =
+      Set.of("--pipelined", "--partitioned", "--checkpoint", "--resume", "--follow");
+  private static final String STANDARD_INPUT = "-";
+  private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
   /**
    * Turns arguments into suitable readable object for Controller.
    * Makes sure that arguments are valid for running one of two modes.
-   * Expected args are: --mode interactive or --mode headless fileName
+   * Expected args are: --mode interactive or --mode headless fileName [options]
+   * where fileName is "-" to read commands piped into standard input, and files ending in
+   * .gz are decompressed while they are read. Command files are decoded as UTF-8.
+   * The headless options are:
+   * --pipelined  read, execute and print commands on separate threads
+   * --partitioned  run the commands of different calendars concurrently
+   * --checkpoint  write a checkpoint of all calendars to fileName.checkpoint every 100000 lines
+   * --resume  restore the last checkpoint and skip the lines applied before it
+   * --follow  keep reading commands appended to the file until an exit command
+   * The checkpoint options cannot be combined with --pipelined, --partitioned or --follow.
    *
    * @param args Arguments passed to main file.
    * @return Readable object o parse commands from.
@@ -38,21 +57,92 @@ public class InputFactory {
         return new InputStreamReader(System.in);
 
       case "headless":
-        if (args.length != 3) {
+        if (args.length < 3) {
           throw new IllegalArgumentException("Headless mode requires an input file.");
         }
-        File file = new File(args[2]);
-        if (!file.exists() || !file.isFile()) {
-          throw new IllegalArgumentException("Input file does not exist: " + args[2]);
+        for (int i = 3; i < args.length; i++) {
+          if (!HEADLESS_OPTIONS.contains(args[i])) {
+            throw new IllegalArgumentException("Unknown headless option: " + args[i]);
+          }
+        }
+        if ((hasOption(args, "--checkpoint") || hasOption(args, "--resume"))
+            && (hasOption(args, "--pipelined") || hasOption(args, "--partitioned"))) {
+          throw new IllegalArgumentException(
+              "Checkpoints can only be used when commands run one at a time.");
         }
-        try {
-          return new BufferedReader(new FileReader(file));
-        } catch (IOException e) {
-          throw new IllegalArgumentException("Could not open input file: " + args[2], e);
+        if (hasOption(args, "--follow")) {
+          return openFollowedInput(args);
         }
+        return openHeadlessInput(args[2]);
 
       default:
         throw new IllegalArgumentException("Unknown mode: " + mode);
     }
   }
+
+  /**
+   * Opens the command source of headless mode. Regular files are memory-mapped and decoded in
+   * bulk, while compressed files and standard input are read through large buffers.
+   */
+  static Readable openHeadlessInput(String fileName) {
+    if (fileName.equals(STANDARD_INPUT)) {
+      return new BufferedReader(new InputStreamReader(
+          new FileInputStream(FileDescriptor.in), StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+    }
+
+    File file = new File(fileName);
+    if (!file.exists() || !file.isFile()) {
+      throw new IllegalArgumentException("Input file does not exist: " + fileName);
+    }
+    try {
+      if (fileName.toLowerCase().endsWith(".gz")) {
+        return new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file.toPath()), STREAM_BUFFER_SIZE),
+            StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+      }
+      return new MappedFileReadable(file.toPath());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not open input file: " + fileName, e);
+    }
+  }
+
+  /**
+   * Opens a command file that keeps growing while commands are applied. Only plain files can
+   * be followed, and a followed file has no fixed line numbers for checkpoints to refer to.
+   */
+  private static Readable openFollowedInput(String[] args) {
+    String fileName = args[2];
+    if (fileName.equals(STANDARD_INPUT) || fileName.toLowerCase().endsWith(".gz")) {
+      throw new IllegalArgumentException("Only uncompressed files can be followed.");
+    }
+    if (hasOption(args, "--checkpoint") || hasOption(args, "--resume")) {
+      throw new IllegalArgumentException("Checkpoints cannot be used with --follow.");
+    }
+
+    File file = new File(fileName);
+    if (!file.exists() || !file.isFile()) {
+      throw new IllegalArgumentException("Input file does not exist: " + fileName);
+    }
+    try {
+      return new FollowingFileReadable(file.toPath());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not open input file: " + fileName, e);
+    }
+  }
+
+  /**
+   * Checks whether an option was passed after the input file in headless mode.
+   *
+   * @param args   Arguments passed to main file.
+   * @param option Option to look for, e.g. --pipelined.
+   * @return True if the option was given, false if otherwise.
+   */
+  public static boolean hasOption(String[] args, String option) {
+    for (int i = 3; i < args.length; i++) {
+      if (args[i].equals(option)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
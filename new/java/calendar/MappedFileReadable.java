@@ -0,0 +1,93 @@
+package calendar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Readable over a memory-mapped file that decodes UTF-8 in bulk straight into the reader's
+ * buffer. The file is mapped in windows, so files larger than 2 GB can be read as well.
+ */
+public class MappedFileReadable implements Readable, Closeable {
+  private static final long WINDOW_SIZE = 64L << 20;
+
+  private final FileChannel channel;
+  private final long size;
+  private final CharsetDecoder decoder;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private boolean finished;
+
+  /**
+   * Opens the file for reading.
+   *
+   * @param path File to read.
+   * @throws IOException if the file cannot be opened.
+   */
+  public MappedFileReadable(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.window = null;
+    this.windowStart = 0;
+    this.finished = false;
+  }
+
+  @Override
+  public int read(CharBuffer cb) throws IOException {
+    if (finished) {
+      return -1;
+    }
+    int start = cb.position();
+
+    while (cb.hasRemaining()) {
+      if (window == null || !window.hasRemaining()) {
+        long next = window == null ? 0 : windowStart + window.position();
+        if (next >= size) {
+          decoder.decode(ByteBuffer.allocate(0), cb, true);
+          if (decoder.flush(cb).isOverflow()) {
+            break;
+          }
+          finished = true;
+          break;
+        }
+        mapFrom(next);
+      }
+
+      boolean lastWindow = windowStart + window.limit() == size;
+      CoderResult result = decoder.decode(window, cb, lastWindow);
+      if (result.isOverflow()) {
+        break;
+      }
+      if (window.hasRemaining() && !lastWindow) {
+        // A multi-byte character is split across windows, so map again from its first byte.
+        mapFrom(windowStart + window.position());
+      }
+    }
+
+    int read = cb.position() - start;
+    return read == 0 && finished ? -1 : read;
+  }
+
+  private void mapFrom(long offset) throws IOException {
+    windowStart = offset;
+    window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+        Math.min(WINDOW_SIZE, size - offset));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
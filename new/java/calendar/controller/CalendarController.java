@@ -2,6 +2,7 @@ package calendar.controller;
 
 import calendar.controller.commands.CommandCreateEvent;
 import calendar.controller.commands.CommandExport;
+import calendar.controller.commands.CommandImport;
 import calendar.controller.commands.CommandPrint;
 import calendar.controller.commands.CommandShowStatus;
 import calendar.controller.commands.InterfaceCommand;
@@ -15,18 +16,32 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Base controller for handling generic calendar commands.
  * Supports compound commands like "create calendar" vs "create event".
  */
 public class CalendarController implements InterfaceController {
+  private static final Set<String> CALENDAR_COMMANDS =
+      Set.of("create calendar", "use calendar", "edit calendar");
+  protected static final String EXIT_MESSAGE = "Exited calendar.";
+  protected static final String NO_EXIT_MESSAGE = "Error: No exit command provided.";
+  private static final int PIPELINE_CAPACITY = 1024;
+  private static final List<String> END_OF_INPUT = new ArrayList<>();
+  private static final String END_OF_OUTPUT = new String("");
+
   protected final InterfaceCalendar model; // May be null in multi-calendar mode
   protected final Readable inputStream;
   protected final InterfaceView view;
   protected final Map<String, Function<InterfaceCalendar, InterfaceCommand>> commands;
+  private final CommandLexer lexer;
+  private long linesToSkip;
 
   /**
    * Initializes a new controller.
@@ -41,6 +56,7 @@ public class CalendarController implements InterfaceController {
     this.view = Objects.requireNonNull(view);
 
     this.commands = new HashMap<>();
+    this.lexer = new CommandLexer();
     initializeDefaultCommands();
   }
 
@@ -55,132 +71,229 @@ public class CalendarController implements InterfaceController {
     commands.put("edit series", (InterfaceCalendar cal) -> new CommandEditSeries(cal));
     commands.put("print", (InterfaceCalendar cal) -> new CommandPrint(cal));
     commands.put("export", (InterfaceCalendar cal) -> new CommandExport(cal));
+    commands.put("import", (InterfaceCalendar cal) -> new CommandImport(cal));
     commands.put("show", (InterfaceCalendar cal) -> new CommandShowStatus(cal));
   }
 
   @Override
   public void run() {
-    Scanner scanner = new Scanner(this.inputStream);
+    CommandTrie commandTrie = compileCommands();
+    LineReader lineReader = new LineReader(this.inputStream);
+    long lineNumber = 0;
 
-    while (scanner.hasNextLine()) {
-      String line = scanner.nextLine().trim();
-      if (line.isEmpty()) {
+    for (String line = lineReader.readLine(); line != null; line = lineReader.readLine()) {
+      lineNumber++;
+      line = line.trim();
+      if (lineNumber <= linesToSkip || line.isEmpty()) {
         continue;
       }
 
-      line = normalizeWhitespace(line);
-      List<String> tokens = tokenize(line);
-
-      TokenReader tokenReader = new TokenReader(tokens);
-      String commandKey = determineCommandKey(tokenReader);
+      List<String> tokens = lexer.tokenize(line);
 
-      if (commandKey.equals("exit")) {
-        view.renderMessage("Exited calendar.");
+      if (isExit(tokens)) {
+        view.renderMessage(EXIT_MESSAGE);
+        view.flush();
+        runFinished();
         return;
       }
+      view.renderMessage(apply(commandTrie, tokens));
+      lineApplied(lineNumber);
+    }
 
-      InterfaceCalendar currentModel = getActiveCalendar();
-      if (currentModel == null && commands.containsKey(commandKey)) {
-        if (!commandKey.equals("create calendar") && !commandKey.equals("use calendar")
-            && !commandKey.equals("edit calendar")) {
-          view.renderMessage("Error: Calendar not selected. Use 'use calendar' command.");
-          continue;
-        }
+    view.renderMessage(NO_EXIT_MESSAGE);
+    view.flush();
+    runFinished();
+  }
+
+  /**
+   * Runs the commands like {@link #run()}, but reads and tokenizes lines on one thread,
+   * applies them to the model in order on the calling thread, and renders the results on a
+   * third thread. The stages are connected by bounded queues, so a slow stage makes the
+   * others wait instead of buffering the whole script. The output is the same as run().
+   * If reading or tokenizing the input fails, the commands read before are still applied
+   * and rendered, and the failure is then rethrown on the calling thread.
+   */
+  public void runPipelined() {
+    CommandTrie commandTrie = compileCommands();
+    BlockingQueue<List<String>> parsed = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+    BlockingQueue<String> rendered = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+    AtomicReference<RuntimeException> readFailure = new AtomicReference<>();
+    AtomicReference<RuntimeException> renderFailure = new AtomicReference<>();
+
+    Thread reader = new Thread(() -> readLines(parsed, readFailure), "calendar-reader");
+    reader.setDaemon(true);
+    Thread renderer = new Thread(() -> renderLines(rendered, renderFailure), "calendar-renderer");
+
+    reader.start();
+    renderer.start();
+    try {
+      List<String> tokens = parsed.take();
+      while (tokens != END_OF_INPUT && !isExit(tokens)) {
+        String result = apply(commandTrie, tokens);
+        rendered.put(result == null ? "" : result);
+        tokens = parsed.take();
       }
+      if (tokens != END_OF_INPUT || readFailure.get() == null) {
+        rendered.put(tokens == END_OF_INPUT ? NO_EXIT_MESSAGE : EXIT_MESSAGE);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      reader.interrupt();
+      finishRendering(renderer, rendered);
+      view.flush();
+    }
 
-      Function<InterfaceCalendar, InterfaceCommand> commandConstructor = commands.get(commandKey);
+    if (readFailure.get() != null) {
+      throw readFailure.get();
+    }
+    if (renderFailure.get() != null) {
+      throw renderFailure.get();
+    }
+  }
 
-      if (commandConstructor == null) {
-        view.renderMessage("Invalid command: " + commandKey);
-        continue;
+  // ===================== Pipeline Stages =====================
+
+  private void readLines(BlockingQueue<List<String>> parsed,
+                         AtomicReference<RuntimeException> readFailure) {
+    CommandLexer readerLexer = new CommandLexer();
+    LineReader lineReader = new LineReader(this.inputStream);
+    try {
+      try {
+        for (String line = lineReader.readLine(); line != null; line = lineReader.readLine()) {
+          line = line.trim();
+          if (!line.isEmpty()) {
+            parsed.put(new ArrayList<>(readerLexer.tokenize(line)));
+          }
+        }
+      } catch (RuntimeException e) {
+        readFailure.set(e);
+      } finally {
+        // The apply stage waits for this marker, so it is queued however reading ended.
+        parsed.put(END_OF_INPUT);
+      }
+    } catch (InterruptedException e) {
+      // The apply stage stopped reading, e.g. after an exit command.
+    }
+  }
+
+  private void renderLines(BlockingQueue<String> rendered,
+                           AtomicReference<RuntimeException> renderFailure) {
+    try {
+      String message = rendered.take();
+      while (message != END_OF_OUTPUT) {
+        if (renderFailure.get() == null) {
+          try {
+            view.renderMessage(message);
+          } catch (RuntimeException e) {
+            renderFailure.set(e);
+          }
+        }
+        message = rendered.take();
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
+  private void finishRendering(Thread renderer, BlockingQueue<String> rendered) {
+    boolean interrupted = false;
+    while (true) {
       try {
-        InterfaceCommand commandToRun = commandConstructor.apply(currentModel);
-        String result = commandToRun.execute(tokenReader);
-        view.renderMessage(result);
-      } catch (Exception e) {
-        view.renderMessage("Error: " + e.getMessage());
+        rendered.put(END_OF_OUTPUT);
+        renderer.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
       }
     }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
-    view.renderMessage("Error: No exit command provided.");
+  // ===================== Run Hooks =====================
+
+  /**
+   * Makes {@link #run()} skip the first lines of the input, e.g. the lines that were applied
+   * before a checkpoint was taken.
+   *
+   * @param lines Number of input lines to skip.
+   */
+  protected void skipLines(long lines) {
+    this.linesToSkip = lines;
   }
 
-  // ===================== Helper Methods =====================
+  /**
+   * Called by {@link #run()} after a command line was applied and its result rendered.
+   *
+   * @param lineNumber Number of the line in the input, counting every line from 1.
+   */
+  protected void lineApplied(long lineNumber) {
+  }
 
   /**
-   * Determines the appropriate command key based on tokenized user input.
-   * Handles compound commands such as:
-   * - "create event"
-   * - "edit events"
-   * - "copy events on"
-   * - "use calendar"
+   * Called by {@link #run()} once it reached an exit command or the end of the input.
    */
-  private String determineCommandKey(TokenReader tokenReader) {
+  protected void runFinished() {
+  }
 
+  // ===================== Helper Methods =====================
+
+  protected boolean isExit(List<String> tokens) {
+    return !tokens.isEmpty() && tokens.get(0).equals("exit");
+  }
+
+  /**
+   * Dispatches and executes a single tokenized command line.
+   *
+   * @return Message to render for the command.
+   */
+  protected String apply(CommandTrie commandTrie, List<String> tokens) {
+    TokenReader tokenReader = new TokenReader(tokens);
     String commandWord = tokenReader.next();
-    String commandKey = commandWord;
-
-    if (tokenReader.hasNext()
-        && (commandWord.equals("create")
-        || commandWord.equals("edit")
-        || commandWord.equals("use"))) {
-      String possibleSub = tokenReader.next();
-      String combinedKey = commandWord + " " + possibleSub;
-      if (commands.containsKey(combinedKey)) {
-        commandKey = combinedKey;
-      }
-    }
 
-    // Handle compound "copy ..." commands (copy event(s) on/between)
-    if (tokenReader.hasNext() && commandWord.equals("copy")) {
-      String possibleSub = tokenReader.next().toLowerCase();
-      String combinedKey = commandWord + " " + possibleSub;
+    CommandTrie.CompiledCommand command = commandTrie.match(commandWord, tokenReader);
 
-      if (tokenReader.hasNext() && possibleSub.equals("events")) {
-        String thirdToken = tokenReader.next().toLowerCase();
-        if (thirdToken.equals("on") || thirdToken.equals("between")) {
-          combinedKey = commandWord + " " + possibleSub + " " + thirdToken;
-        }
-      }
-      if (commands.containsKey(combinedKey)) {
-        commandKey = combinedKey;
-      }
+    if (command == null) {
+      return "Invalid command: " + commandWord;
     }
-    return commandKey;
-  }
 
+    InterfaceCalendar currentModel = getActiveCalendar();
+    if (currentModel == null && command.requiresCalendar()) {
+      return "Error: Calendar not selected. Use 'use calendar' command.";
+    }
 
-  private String normalizeWhitespace(String input) {
-    return input.trim().replaceAll("\\s+", " ");
+    return execute(() -> command.commandFor(currentModel), tokenReader);
   }
 
   /**
-   * Splits a command line into tokens, keeping quoted strings intact.
-   * Example: create "Lunch Meeting" at "Main Office"
+   * Executes a command on the remaining tokens of its line.
+   *
+   * @return Message to render for the command, or an error message if it failed.
    */
-  private List<String> tokenize(String line) {
-    List<String> tokens = new ArrayList<>();
-    Scanner tokenScanner = new Scanner(line);
-    tokenScanner.useDelimiter("\"");
-    boolean insideQuotes = false;
-
-    while (tokenScanner.hasNext()) {
-      String part = tokenScanner.next();
-      if (insideQuotes) {
-        tokens.add(part.trim());
-      } else {
-        String[] words = part.trim().split("\\s+");
-        for (String word : words) {
-          if (!word.isEmpty()) {
-            tokens.add(word);
-          }
-        }
-      }
-      insideQuotes = !insideQuotes;
+  protected static String execute(Supplier<InterfaceCommand> command, TokenReader tokenReader) {
+    try {
+      return command.get().execute(tokenReader);
+    } catch (Exception e) {
+      return "Error: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Builds the command grammar trie from the registered commands. Compound commands such as
+   * "create event", "edit events" or "copy events on" become paths in the trie, and the words
+   * after "copy" are matched regardless of case.
+   */
+  protected CommandTrie compileCommands() {
+    CommandTrie commandTrie = new CommandTrie();
+    for (Map.Entry<String, Function<InterfaceCalendar, InterfaceCommand>> entry
+        : commands.entrySet()) {
+      commandTrie.register(entry.getKey(), entry.getValue(),
+          !CALENDAR_COMMANDS.contains(entry.getKey()));
     }
-    return tokens;
+    commandTrie.ignoreCaseAfter("copy");
+    return commandTrie;
   }
 
   // ===================== Active Calendar Access =====================
@@ -0,0 +1,100 @@
+package calendar.controller;
+
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.ModelsSnapshot;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Checkpoint file of a headless run: the number of input lines that were applied, followed
+ * by a snapshot of all calendars at that point. The file is replaced atomically, so a run
+ * that stops while writing a checkpoint still leaves the previous one intact.
+ */
+public class Checkpoint {
+  public static final long DEFAULT_INTERVAL = 100_000;
+  private static final String LINE_PREFIX = "line ";
+
+  private final Path file;
+  private final long interval;
+
+  /**
+   * Initializes a checkpoint that is written every given number of input lines.
+   *
+   * @param file     File to write the checkpoint to.
+   * @param interval Number of input lines between checkpoints.
+   */
+  public Checkpoint(Path file, long interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("Checkpoint interval must be positive.");
+    }
+    this.file = file;
+    this.interval = interval;
+  }
+
+  /**
+   * Gets the number of input lines between checkpoints.
+   *
+   * @return Checkpoint interval in lines.
+   */
+  public long getInterval() {
+    return interval;
+  }
+
+  /**
+   * Writes the calendars and the number of applied input lines.
+   *
+   * @param lines  Number of input lines applied so far.
+   * @param models Calendars to snapshot.
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  public void save(long lines, InterfaceCalendarModels models) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      writer.write(LINE_PREFIX + lines + "\n");
+      ModelsSnapshot.write(models, writer);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the last checkpoint into empty calendars.
+   *
+   * @param models Calendars to restore the snapshot into.
+   * @return Number of input lines applied before the checkpoint, or 0 if there is none.
+   * @throws IOException if the checkpoint cannot be read.
+   */
+  public long restore(InterfaceCalendarModels models) throws IOException {
+    if (!Files.exists(file)) {
+      return 0;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String header = reader.readLine();
+      if (header == null || !header.startsWith(LINE_PREFIX)) {
+        throw new IllegalArgumentException("Not a checkpoint file: " + file);
+      }
+      long lines;
+      try {
+        lines = Long.parseLong(header.substring(LINE_PREFIX.length()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Corrupt checkpoint file: " + file);
+      }
+      ModelsSnapshot.read(reader, models);
+      return lines;
+    }
+  }
+
+  /**
+   * Removes the checkpoint, e.g. once the run it belongs to finished.
+   *
+   * @throws IOException if the checkpoint cannot be removed.
+   */
+  public void delete() throws IOException {
+    Files.deleteIfExists(file);
+  }
+}
@@ -0,0 +1,136 @@
+package calendar.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass lexer that splits a command line into tokens, keeping quoted strings intact.
+ * Example: create "Lunch Meeting" at "Main Office"
+ * Text outside of quotes is split on whitespace. Text inside quotes becomes one token, trimmed
+ * and with every run of whitespace collapsed into a single space.
+ * The token list is reused between lines, so it is only valid until the next call to tokenize.
+ */
+public class CommandLexer {
+  private final List<String> tokens;
+  private final StringBuilder quoted;
+
+  /**
+   * Initializes a lexer with an empty token buffer.
+   */
+  public CommandLexer() {
+    this.tokens = new ArrayList<>();
+    this.quoted = new StringBuilder();
+  }
+
+  /**
+   * Splits a command line into tokens.
+   *
+   * @param line Command line without its line terminator.
+   * @return The tokens of the line, in a list that is reused by the next call.
+   */
+  public List<String> tokenize(String line) {
+    tokens.clear();
+    // Like String.trim, which the line went through before, so quotes next to the ends of
+    // the line are found after skipping leading and trailing whitespace and control chars.
+    int lineStart = trimStart(line, 0, line.length());
+    int lineEnd = trimEnd(line, lineStart, line.length());
+    int segmentStart = lineStart;
+    boolean insideQuotes = false;
+
+    for (int i = lineStart; i <= lineEnd; i++) {
+      if (i < lineEnd && line.charAt(i) != '"') {
+        continue;
+      }
+      // A quote at the very start or end of the line does not open an empty segment.
+      boolean empty = i == segmentStart;
+      if (!(empty && (segmentStart == lineStart || i == lineEnd))) {
+        if (insideQuotes) {
+          addQuoted(line, segmentStart, i);
+        } else {
+          addWords(line, segmentStart, i);
+        }
+        insideQuotes = !insideQuotes;
+      }
+      segmentStart = i + 1;
+    }
+    return tokens;
+  }
+
+  /**
+   * Adds every whitespace-separated word between start and end.
+   */
+  private void addWords(String line, int start, int end) {
+    start = trimStart(line, start, end);
+    end = trimEnd(line, start, end);
+
+    int wordStart = -1;
+    for (int i = start; i <= end; i++) {
+      boolean separator = i == end || isWhitespace(line.charAt(i));
+      if (separator && wordStart >= 0) {
+        tokens.add(line.substring(wordStart, i));
+        wordStart = -1;
+      } else if (!separator && wordStart < 0) {
+        wordStart = i;
+      }
+    }
+  }
+
+  /**
+   * Adds the quoted text between start and end as a single token.
+   */
+  private void addQuoted(String line, int start, int end) {
+    start = trimStart(line, start, end);
+    end = trimEnd(line, start, end);
+
+    boolean needsCollapsing = false;
+    for (int i = start; i < end; i++) {
+      char c = line.charAt(i);
+      if (isWhitespace(c) && (c != ' ' || isWhitespace(line.charAt(i + 1)))) {
+        needsCollapsing = true;
+        break;
+      }
+    }
+
+    if (!needsCollapsing) {
+      tokens.add(line.substring(start, end));
+      return;
+    }
+
+    quoted.setLength(0);
+    boolean previousWhitespace = false;
+    for (int i = start; i < end; i++) {
+      char c = line.charAt(i);
+      if (isWhitespace(c)) {
+        if (!previousWhitespace) {
+          quoted.append(' ');
+        }
+        previousWhitespace = true;
+      } else {
+        quoted.append(c);
+        previousWhitespace = false;
+      }
+    }
+    tokens.add(quoted.toString());
+  }
+
+  private int trimStart(String line, int start, int end) {
+    while (start < end && line.charAt(start) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  private int trimEnd(String line, int start, int end) {
+    while (end > start && line.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Matches the characters of the regular expression class \s.
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+}
@@ -0,0 +1,156 @@
+package calendar.controller;
+
+import calendar.controller.commands.InterfaceCommand;
+import calendar.model.InterfaceCalendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Grammar trie of the registered commands, built once before the controller starts reading.
+ * Each word of a compound command such as "copy events on" is one level of the trie, so a
+ * command line is dispatched by walking its tokens once, without building candidate keys.
+ */
+public class CommandTrie {
+  private final Node root;
+
+  /**
+   * Initializes an empty trie.
+   */
+  public CommandTrie() {
+    this.root = new Node();
+  }
+
+  /**
+   * Registers a command under its space-separated key, e.g. "create event".
+   *
+   * @param key              Words that select the command.
+   * @param factory          Creates the command for the active calendar.
+   * @param requiresCalendar Whether the command can only run once a calendar is active.
+   */
+  public void register(String key, Function<InterfaceCalendar, InterfaceCommand> factory,
+                       boolean requiresCalendar) {
+    Node node = root;
+    for (String word : key.split(" ")) {
+      node = node.children.computeIfAbsent(word, w -> new Node());
+    }
+    node.command = new CompiledCommand(key, factory, requiresCalendar);
+  }
+
+  /**
+   * Makes the words after the given first word match regardless of case, e.g. "copy EVENTS on".
+   *
+   * @param firstWord First word of the commands whose remaining words ignore case.
+   */
+  public void ignoreCaseAfter(String firstWord) {
+    Node node = root.children.get(firstWord);
+    if (node != null) {
+      node.ignoreCaseBelow();
+    }
+  }
+
+  /**
+   * Finds the command selected by the first word and as many of the following tokens as
+   * match the trie. The matched tokens are consumed from the reader.
+   *
+   * @param firstWord   First token of the command line, already read.
+   * @param tokenReader Reader positioned right after the first word.
+   * @return The selected command, or null if the tokens do not select a registered command.
+   */
+  public CompiledCommand match(String firstWord, TokenReader tokenReader) {
+    Node node = root.children.get(firstWord);
+    if (node == null) {
+      return null;
+    }
+
+    while (!node.children.isEmpty() && tokenReader.hasNext()) {
+      String token = tokenReader.peek();
+      Node child = node.children.get(node.ignoreCase ? token.toLowerCase() : token);
+      if (child == null) {
+        break;
+      }
+      tokenReader.next();
+      node = child;
+    }
+    return node.command;
+  }
+
+  /**
+   * A registered command. The command object is reused for as long as the active calendar
+   * stays the same, since commands only hold the calendar they were created for.
+   */
+  public static class CompiledCommand {
+    private final String key;
+    private final Function<InterfaceCalendar, InterfaceCommand> factory;
+    private final boolean requiresCalendar;
+    private InterfaceCalendar cachedCalendar;
+    private InterfaceCommand cachedCommand;
+
+    private CompiledCommand(String key, Function<InterfaceCalendar, InterfaceCommand> factory,
+                            boolean requiresCalendar) {
+      this.key = key;
+      this.factory = factory;
+      this.requiresCalendar = requiresCalendar;
+    }
+
+    /**
+     * Gets the words the command was registered under.
+     *
+     * @return Key of the command, e.g. "create event".
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Whether the command can only run once a calendar is active.
+     *
+     * @return True if the command needs an active calendar, false if otherwise.
+     */
+    public boolean requiresCalendar() {
+      return requiresCalendar;
+    }
+
+    /**
+     * Gets the command for the given active calendar, creating it only if the active
+     * calendar changed since the last time.
+     *
+     * @param calendar The active calendar, may be null.
+     * @return The command to execute.
+     */
+    public InterfaceCommand commandFor(InterfaceCalendar calendar) {
+      if (cachedCommand == null || cachedCalendar != calendar) {
+        cachedCommand = factory.apply(calendar);
+        cachedCalendar = calendar;
+      }
+      return cachedCommand;
+    }
+
+    /**
+     * Creates a new command for the given calendar without touching the cached one, so it
+     * can be used from threads other than the controller's.
+     *
+     * @param calendar The calendar the command runs against, may be null.
+     * @return A new command to execute.
+     */
+    public InterfaceCommand newCommand(InterfaceCalendar calendar) {
+      return factory.apply(calendar);
+    }
+  }
+
+  /**
+   * A word of a command.
+   */
+  private static class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private CompiledCommand command;
+    private boolean ignoreCase;
+
+    private void ignoreCaseBelow() {
+      ignoreCase = true;
+      for (Node child : children.values()) {
+        child.ignoreCaseBelow();
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package calendar.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Benchmark of {@link CommandLexer} against the tokenizing the controller did before it: a
+ * String.trim and replaceAll("\\s+", " ") of the line, then a Scanner split on quotes and a
+ * split("\\s+") of every unquoted segment. Both run over the same typical command lines.
+ * Before timing, both tokenize a set of random lines made of quotes, whitespace, control
+ * characters and words, and the report counts the lines on which their tokens differ.
+ */
+public class LexerBenchmark {
+  private static final String[] TYPICAL_LINES = {
+      "create event \"Team Meeting\" from 2025-01-06T09:00 to 2025-01-06T10:00",
+      "create event Standup from 2025-01-06T08:30 to 2025-01-06T08:45 repeats MWF for 5 times",
+      "edit event location \"Team   Meeting\" from 2025-01-06T09:00 to 2025-01-06T10:00"
+          + " with \"Room 1\"",
+      "edit series subject Standup from 2025-01-08T08:30 with Sync",
+      "print events from 2025-01-05T00:00 to 2025-01-20T00:00",
+      "show status on 2025-01-06T09:30",
+      "copy events between 2025-01-06 and 2025-01-10 --target home to 2025-02-03",
+      "use calendar --name work",
+  };
+  private static final String FUZZ_ALPHABET = "ab\" \"\t\u000B\f\r\u0001 ";
+  private static final int FUZZ_LINES = 200_000;
+
+  private final int lines;
+  private final long seed;
+
+  /**
+   * Initializes a benchmark.
+   *
+   * @param lines Number of lines each tokenizer runs over.
+   * @param seed  Seed of the random lines both tokenizers are compared on.
+   */
+  public LexerBenchmark(int lines, long seed) {
+    if (lines < 1) {
+      throw new IllegalArgumentException("Number of lines must be positive.");
+    }
+    this.lines = lines;
+    this.seed = seed;
+  }
+
+  /**
+   * Compares both tokenizers on random lines, then times them.
+   *
+   * @return Report of the mismatches found and the time per line of both tokenizers.
+   */
+  public String run() {
+    CommandLexer lexer = new CommandLexer();
+    Random random = new Random(seed);
+    int mismatches = 0;
+    String firstMismatch = null;
+    for (int i = 0; i < FUZZ_LINES; i++) {
+      String line = randomLine(random);
+      if (!lexer.tokenize(line).equals(legacyTokenize(line))) {
+        mismatches++;
+        if (firstMismatch == null) {
+          firstMismatch = line;
+        }
+      }
+    }
+
+    // The first pass warms both up, the second is reported.
+    long legacyNanos = 0;
+    long lexerNanos = 0;
+    long tokens = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < lines; i++) {
+        tokens += legacyTokenize(TYPICAL_LINES[i % TYPICAL_LINES.length]).size();
+      }
+      legacyNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < lines; i++) {
+        tokens += lexer.tokenize(TYPICAL_LINES[i % TYPICAL_LINES.length]).size();
+      }
+      lexerNanos = System.nanoTime() - start;
+    }
+
+    String report = String.format(Locale.ROOT,
+        "%d random lines compared: %d mismatches.%n"
+            + "Previous tokenizing: %.3f s, %.3f us per line.%n"
+            + "CommandLexer: %.3f s, %.3f us per line (%d tokens in total).",
+        FUZZ_LINES, mismatches,
+        legacyNanos / 1e9, legacyNanos / 1e3 / lines,
+        lexerNanos / 1e9, lexerNanos / 1e3 / lines, tokens);
+    if (firstMismatch != null) {
+      report += String.format("%nFirst mismatch: %s", escape(firstMismatch));
+    }
+    return report;
+  }
+
+  private static String randomLine(Random random) {
+    StringBuilder line = new StringBuilder();
+    int length = random.nextInt(16);
+    for (int i = 0; i < length; i++) {
+      line.append(FUZZ_ALPHABET.charAt(random.nextInt(FUZZ_ALPHABET.length())));
+    }
+    return line.toString();
+  }
+
+  private static String escape(String line) {
+    StringBuilder escaped = new StringBuilder("\"");
+    for (char c : line.toCharArray()) {
+      if (c < ' ') {
+        escaped.append(String.format("\\u%04X", (int) c));
+      } else {
+        escaped.append(c);
+      }
+    }
+    return escaped.append('"').toString();
+  }
+
+  /**
+   * The tokenizing of the controller before CommandLexer, kept as it was.
+   */
+  private static List<String> legacyTokenize(String line) {
+    line = line.trim().replaceAll("\\s+", " ");
+    List<String> tokens = new ArrayList<>();
+    Scanner tokenScanner = new Scanner(line);
+    tokenScanner.useDelimiter("\"");
+    boolean insideQuotes = false;
+
+    while (tokenScanner.hasNext()) {
+      String part = tokenScanner.next();
+      if (insideQuotes) {
+        tokens.add(part.trim());
+      } else {
+        String[] words = part.trim().split("\\s+");
+        for (String word : words) {
+          if (!word.isEmpty()) {
+            tokens.add(word);
+          }
+        }
+      }
+      insideQuotes = !insideQuotes;
+    }
+    return tokens;
+  }
+}
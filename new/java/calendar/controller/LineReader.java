@@ -0,0 +1,92 @@
+package calendar.controller;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Reads lines from a Readable through a large buffer without regular expressions.
+ * Lines end at the same separators as Scanner.nextLine: \r\n, \n, \r, \u2028, \u2029 and
+ * \u0085. Like Scanner, an IOException from the source is treated as the end of input.
+ */
+public class LineReader {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Readable source;
+  private final CharBuffer buffer;
+  private final StringBuilder line;
+  private boolean endOfInput;
+  private boolean skipLineFeed;
+
+  /**
+   * Initializes the reader over a source of characters.
+   *
+   * @param source Source to read lines from.
+   */
+  public LineReader(Readable source) {
+    this.source = source;
+    this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+    this.buffer.flip();
+    this.line = new StringBuilder();
+    this.endOfInput = false;
+    this.skipLineFeed = false;
+  }
+
+  /**
+   * Reads the next line, without its line separator.
+   *
+   * @return The next line, or null if there are no more lines.
+   */
+  public String readLine() {
+    line.setLength(0);
+    boolean readAny = false;
+
+    while (true) {
+      if (!buffer.hasRemaining() && !fill()) {
+        return readAny ? line.toString() : null;
+      }
+
+      if (skipLineFeed) {
+        skipLineFeed = false;
+        if (buffer.get(buffer.position()) == '\n') {
+          buffer.get();
+          continue;
+        }
+      }
+
+      int start = buffer.position();
+      int limit = buffer.limit();
+      for (int i = start; i < limit; i++) {
+        char c = buffer.get(i);
+        if (c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+          line.append(buffer, 0, i - start);
+          buffer.position(i + 1);
+          skipLineFeed = c == '\r';
+          return line.toString();
+        }
+      }
+      line.append(buffer, 0, limit - start);
+      buffer.position(limit);
+      readAny = true;
+    }
+  }
+
+  private boolean fill() {
+    if (endOfInput) {
+      return false;
+    }
+    buffer.clear();
+    try {
+      int read = 0;
+      while (read == 0) {
+        read = source.read(buffer);
+      }
+      if (read < 0) {
+        endOfInput = true;
+      }
+    } catch (IOException e) {
+      endOfInput = true;
+    }
+    buffer.flip();
+    return buffer.hasRemaining();
+  }
+}
@@ -2,6 +2,8 @@ package calendar.controller;
 
 import calendar.controller.commands.CommandCreateCalendar;
 import calendar.controller.commands.CommandEditCalendar;
+import calendar.controller.commands.CommandExportBusy;
+import calendar.controller.commands.CommandPrintOverlay;
 import calendar.controller.commands.CommandUseCalendar;
 import calendar.controller.commands.copy.CommandCopyEvent;
 import calendar.controller.commands.copy.CommandCopyEventsBetween;
@@ -9,13 +11,35 @@ import calendar.controller.commands.copy.CommandCopyEventsOn;
 import calendar.model.InterfaceCalendar;
 import calendar.model.InterfaceCalendarModels;
 import calendar.view.simple.InterfaceView;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Controller that extends CalendarController to support multiple calendars.
  */
 public class MultiCalendarController extends CalendarController {
+  /**
+   * Commands that read or replace more than the active calendar.
+   */
+  protected static final Set<String> CROSS_CALENDAR_COMMANDS =
+      Set.of("edit calendar", "copy event", "copy events on", "copy events between",
+          "export busy", "print overlay");
+  private static final int MAX_PENDING_RESULTS = 4096;
   private final InterfaceCalendarModels models;
+  private Checkpoint checkpoint;
+  private long lastCheckpointLine;
 
   /**
    * Constructor for MultiCalendarController.
@@ -39,6 +63,10 @@ public class MultiCalendarController extends CalendarController {
         (InterfaceCalendar activeCal) -> new CommandCopyEventsOn(models, activeCal));
     commands.put("copy events between",
         (InterfaceCalendar activeCal) -> new CommandCopyEventsBetween(models, activeCal));
+    commands.put("export busy",
+        (InterfaceCalendar activeCal) -> new CommandExportBusy(models, activeCal));
+    commands.put("print overlay",
+        (InterfaceCalendar activeCal) -> new CommandPrintOverlay(models, activeCal));
   }
 
   @Override
@@ -46,6 +74,146 @@ public class MultiCalendarController extends CalendarController {
     super.run();
   }
 
+  /**
+   * Makes {@link #run()} write a checkpoint of all calendars every checkpoint interval.
+   * The checkpoint is removed once the run finishes.
+   *
+   * @param checkpoint Checkpoint to write.
+   */
+  public void useCheckpoint(Checkpoint checkpoint) {
+    this.checkpoint = Objects.requireNonNull(checkpoint);
+  }
+
+  /**
+   * Restores the calendars from the checkpoint and makes {@link #run()} skip the input
+   * lines that were applied before it was written. Must be called before any command ran.
+   *
+   * @return Number of input lines that will be skipped, 0 if there was no checkpoint.
+   */
+  public long resumeFromCheckpoint() {
+    if (checkpoint == null) {
+      throw new IllegalStateException("No checkpoint to resume from.");
+    }
+    try {
+      lastCheckpointLine = checkpoint.restore(models);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read checkpoint: " + e.getMessage(), e);
+    }
+    skipLines(lastCheckpointLine);
+    return lastCheckpointLine;
+  }
+
+  @Override
+  protected void lineApplied(long lineNumber) {
+    if (checkpoint == null || lineNumber - lastCheckpointLine < checkpoint.getInterval()) {
+      return;
+    }
+    view.flush();
+    try {
+      checkpoint.save(lineNumber, models);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write checkpoint: " + e.getMessage(), e);
+    }
+    lastCheckpointLine = lineNumber;
+  }
+
+  @Override
+  protected void runFinished() {
+    if (checkpoint == null) {
+      return;
+    }
+    try {
+      checkpoint.delete();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not remove checkpoint: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Runs the commands like {@link #run()}, but runs the commands of different calendars
+   * concurrently. Each calendar has its own lane in which its commands run in script order.
+   * Calendar commands such as "use calendar" run right away on the calling thread, while
+   * "edit calendar" and the copy commands wait for every lane to finish first, since they
+   * replace or read more than one calendar. Results are rendered in script order.
+   * Commands of different calendars must not export to or import from the same file.
+   *
+   * @param threads Number of threads that run the commands of the lanes.
+   */
+  public void runPartitioned(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive.");
+    }
+    CommandTrie commandTrie = compileCommands();
+    CommandLexer partitionLexer = new CommandLexer();
+    LineReader lineReader = new LineReader(this.inputStream);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    Map<InterfaceCalendar, CompletableFuture<String>> lanes = new IdentityHashMap<>();
+    Deque<Future<String>> pending = new ArrayDeque<>();
+    boolean exited = false;
+
+    try {
+      for (String line = lineReader.readLine(); line != null; line = lineReader.readLine()) {
+        line = line.trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        List<String> tokens = partitionLexer.tokenize(line);
+        if (isExit(tokens)) {
+          exited = true;
+          break;
+        }
+
+        TokenReader tokenReader = new TokenReader(new ArrayList<>(tokens));
+        CommandTrie.CompiledCommand command = commandTrie.match(tokenReader.next(), tokenReader);
+        InterfaceCalendar calendar = getActiveCalendar();
+
+        if (command != null && calendar != null && command.requiresCalendar()
+            && !CROSS_CALENDAR_COMMANDS.contains(command.getKey())) {
+          CompletableFuture<String> lane = lanes.get(calendar);
+          CompletableFuture<String> result = lane == null
+              ? CompletableFuture.supplyAsync(
+                  () -> execute(() -> command.newCommand(calendar), tokenReader), executor)
+              : lane.thenApplyAsync(
+                  previous -> execute(() -> command.newCommand(calendar), tokenReader), executor);
+          lanes.put(calendar, result);
+          pending.add(result);
+          renderCompleted(pending, MAX_PENDING_RESULTS);
+          continue;
+        }
+
+        if (command != null && CROSS_CALENDAR_COMMANDS.contains(command.getKey())) {
+          renderCompleted(pending, 0);
+          lanes.clear();
+        }
+        pending.add(CompletableFuture.completedFuture(apply(commandTrie, tokens)));
+        renderCompleted(pending, MAX_PENDING_RESULTS);
+      }
+
+      renderCompleted(pending, 0);
+      view.renderMessage(exited ? EXIT_MESSAGE : NO_EXIT_MESSAGE);
+      view.flush();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Renders the finished results at the head of the queue, in order. Waits for the head
+   * result while more than maxPending results are queued.
+   */
+  private void renderCompleted(Deque<Future<String>> pending, int maxPending) {
+    while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > maxPending)) {
+      try {
+        view.renderMessage(pending.poll().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for a command.", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Command failed.", e.getCause());
+      }
+    }
+  }
+
   @Override
   public InterfaceCalendar getActiveCalendar() {
     return models.getActiveCalendar();
@@ -2,16 +2,26 @@ package calendar.controller.commands;
 
 import calendar.controller.TokenReader;
 import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.export.ExportFormatBinary;
 import calendar.model.export.ExportFormatCsv;
 import calendar.model.export.ExportFormatiCal;
+import calendar.model.export.InterfaceExportFormat;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
  * Handles when user commands an export of the calendar.
- *
+ * - export cal fileName
+ * - export cal fileName --since version
+ * The file ending picks the format: .csv, .ical, or .bin for the compact binary format.
+ * The second form only exports events changed after the given version and writes a
+ * fileName.manifest file recording the new version and the events that no longer exist.
  */
 public class CommandExport extends AbstractCommand implements InterfaceCommand {
   private InterfaceCalendar calendar;
@@ -30,9 +40,11 @@ public class CommandExport extends AbstractCommand implements InterfaceCommand {
 
     checkKeyword(tokenReader, "cal", "Missing calendar argument.");
     String fileName = getValue(tokenReader, "Missing filename argument.");
+    Long since = parseSince(tokenReader);
 
-    if (!(fileName.endsWith(".csv") || fileName.endsWith(".ical"))) {
-      throw new IllegalArgumentException("Missing csv or ical file ending.");
+    boolean binary = fileName.endsWith(".bin");
+    if (!(fileName.endsWith(".csv") || fileName.endsWith(".ical") || binary)) {
+      throw new IllegalArgumentException("Missing csv, ical or bin file ending.");
     } else if (fileName.endsWith(".ical")) {
       fileName = fileName.replace(".ical", ".ics");
     }
@@ -44,22 +56,86 @@ public class CommandExport extends AbstractCommand implements InterfaceCommand {
       }
     }
 
-    try (PrintWriter writer = new PrintWriter(file)) {
-      if (fileName.endsWith(".csv")) {
-        writeEvents(writer, calendar.export(new ExportFormatCsv()));
-      } else {
-        writeEvents(writer,
-            calendar.export((new ExportFormatiCal(calendar.getName(), calendar.getTimeZone()))));
-      }
+    InterfaceExportFormat format;
+    if (fileName.endsWith(".csv")) {
+      format = new ExportFormatCsv();
+    } else if (binary) {
+      format = new ExportFormatBinary();
+    } else {
+      format = new ExportFormatiCal(calendar.getName(), calendar.getTimeZone());
+    }
+
+    if (since != null) {
+      return exportSince(file, format, since, binary);
+    }
+
+    try (PrintWriter writer = openWriter(file, binary)) {
+      writeEvents(writer, calendar.export(format), binary);
       return "Calendar exported to: " + file.getAbsolutePath();
     } catch (RuntimeException | FileNotFoundException e) {
       throw new IllegalArgumentException("Failed to export calendar.");
     }
   }
 
-  private void writeEvents(PrintWriter writer, List<String> events) {
+  private Long parseSince(TokenReader tokenReader) {
+    if (!tokenReader.hasNext()) {
+      return null;
+    }
+    checkKeyword(tokenReader, "--since", "Expected --since tag after filename.");
+    String version = getValue(tokenReader, "Missing version after --since.");
+    try {
+      long since = Long.parseLong(version);
+      if (since < 0) {
+        throw new IllegalArgumentException("Version must not be negative.");
+      }
+      return since;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid version: " + version);
+    }
+  }
+
+  private String exportSince(File file, InterfaceExportFormat format, long since,
+                             boolean binary) {
+    long version = calendar.getVersion();
+    File manifest = new File(file.getPath() + ".manifest");
+
+    try (PrintWriter writer = openWriter(file, binary);
+         PrintWriter manifestWriter = new PrintWriter(manifest)) {
+      writeEvents(writer, calendar.exportSince(format, since), binary);
+
+      manifestWriter.println("version=" + version);
+      manifestWriter.println("since=" + since);
+      for (InterfaceEvent removed : calendar.removedSince(since)) {
+        manifestWriter.println("removed=" + ExportFormatCsv.quote(removed.getSubject())
+            + "," + removed.getStartDateTime()
+            + "," + removed.getEndDateTime());
+      }
+      return "Calendar changes since version " + since + " exported to: "
+          + file.getAbsolutePath() + " (version " + version + ")";
+    } catch (RuntimeException | FileNotFoundException e) {
+      throw new IllegalArgumentException("Failed to export calendar.");
+    }
+  }
+
+  /**
+   * Opens the export file. Binary formats hold one byte per char, so they are written with
+   * ISO-8859-1.
+   */
+  private PrintWriter openWriter(File file, boolean binary) throws FileNotFoundException {
+    if (binary) {
+      return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file),
+          StandardCharsets.ISO_8859_1));
+    }
+    return new PrintWriter(file);
+  }
+
+  private void writeEvents(PrintWriter writer, List<String> events, boolean binary) {
     for (String event : events) {
-      writer.println(event);
+      if (binary) {
+        writer.print(event);
+      } else {
+        writer.println(event);
+      }
     }
   }
 }
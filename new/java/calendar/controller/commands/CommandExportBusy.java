@@ -0,0 +1,100 @@
+package calendar.controller.commands;
+
+import calendar.controller.TokenReader;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.export.ExportFreeBusy;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles when user commands an export of busy time, without any details of the events.
+ * - export busy fileName
+ * - export busy fileName from dateStringTtimeString to dateStringTtimeString
+ * - export busy fileName [from ... to ...] --calendars calendarName...
+ * The file must end in .ical or .ics. Without --calendars, the busy time of the active
+ * calendar is exported; the window is read in the time zone of the active calendar.
+ */
+public class CommandExportBusy extends AbstractCommand implements InterfaceCommand {
+  private final InterfaceCalendarModels models;
+  private final InterfaceCalendar calendar;
+
+  /**
+   * Constructor for CommandExportBusy.
+   *
+   * @param models   InterfaceCalendarModels
+   * @param calendar InterfaceCalendar that is active
+   */
+  public CommandExportBusy(InterfaceCalendarModels models, InterfaceCalendar calendar) {
+    this.models = models;
+    this.calendar = calendar;
+  }
+
+  @Override
+  public String execute(TokenReader tokenReader) {
+    String fileName = getValue(tokenReader, "Missing filename argument.");
+    if (fileName.endsWith(".ical")) {
+      fileName = fileName.replace(".ical", ".ics");
+    } else if (!fileName.endsWith(".ics")) {
+      throw new IllegalArgumentException("Missing ical or ics file ending.");
+    }
+
+    Instant from = null;
+    Instant to = null;
+    if (tokenReader.hasNext() && tokenReader.peek().equals("from")) {
+      tokenReader.next();
+      ZoneId zone = calendar.getTimeZone().toZoneId();
+      LocalDateTime start = getDateTime(tokenReader, "Expected start date after 'from'.");
+      checkKeyword(tokenReader, "to", "Expected 'to' keyword.");
+      LocalDateTime end = getDateTime(tokenReader, "Expected end date after 'to'.");
+      if (!end.isAfter(start)) {
+        throw new IllegalArgumentException("End must be after start.");
+      }
+      from = start.atZone(zone).toInstant();
+      to = end.atZone(zone).toInstant();
+    }
+
+    List<InterfaceCalendar> calendars = new ArrayList<>();
+    if (tokenReader.hasNext()) {
+      checkKeyword(tokenReader, "--calendars", "Expected --calendars tag.");
+      while (tokenReader.hasNext()) {
+        String name = tokenReader.next();
+        if (!models.getCalendarNames().contains(name)) {
+          throw new IllegalArgumentException("Calendar '" + name + "' does not exist.");
+        }
+        calendars.add(models.get(name));
+      }
+      if (calendars.isEmpty()) {
+        throw new IllegalArgumentException("Expected calendar names after --calendars.");
+      }
+    } else {
+      calendars.add(calendar);
+    }
+
+    File file = new File(fileName);
+    File parentDir = file.getParentFile();
+    if (parentDir != null && !parentDir.exists()) {
+      if (!parentDir.mkdirs()) {
+        throw new IllegalArgumentException("Failed to create parent directory.");
+      }
+    }
+
+    List<String> lines = new ExportFreeBusy(calendars).export(from, to);
+    try (PrintWriter writer = new PrintWriter(file)) {
+      for (String line : lines) {
+        writer.println(line);
+      }
+      int intervals = (int) lines.stream().filter(line -> line.startsWith("FREEBUSY")).count();
+      return "Busy time exported to: " + file.getAbsolutePath() + " (" + intervals
+          + " intervals)";
+    } catch (RuntimeException | FileNotFoundException e) {
+      throw new IllegalArgumentException("Failed to export busy time.");
+    }
+  }
+}
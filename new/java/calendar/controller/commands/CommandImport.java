@@ -0,0 +1,78 @@
+package calendar.controller.commands;
+
+import calendar.controller.TokenReader;
+import calendar.model.InterfaceCalendar;
+import calendar.model.importer.ImportFormatBinary;
+import calendar.model.importer.ImportFormatiCal;
+import calendar.model.importer.InterfaceImportFormat;
+import calendar.model.importer.ParallelImportCsv;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Handles when user commands an import of a csv or ical file into the calendar.
+ * - import cal fileName
+ * CSV files are split into chunks that are parsed in parallel, and iCal and binary (.bin)
+ * files are streamed, so files larger than memory can be imported.
+ */
+public class CommandImport extends AbstractCommand implements InterfaceCommand {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private final InterfaceCalendar calendar;
+
+  /**
+   * Constructor for CommandImport.
+   *
+   * @param calendar InterfaceCalendar
+   */
+  public CommandImport(InterfaceCalendar calendar) {
+    this.calendar = calendar;
+  }
+
+  @Override
+  public String execute(TokenReader tokenReader) {
+    checkKeyword(tokenReader, "cal", "Missing calendar argument.");
+    String fileName = getValue(tokenReader, "Missing filename argument.");
+
+    boolean isCsv = fileName.endsWith(".csv");
+    boolean isBinary = fileName.endsWith(".bin");
+    if (!isCsv && !isBinary && !fileName.endsWith(".ics") && !fileName.endsWith(".ical")) {
+      throw new IllegalArgumentException("Missing csv, ical or bin file ending.");
+    }
+
+    Path path = Paths.get(fileName);
+    if (!Files.isRegularFile(path)) {
+      throw new IllegalArgumentException("Import file does not exist: " + fileName);
+    }
+
+    try {
+      int imported;
+      if (isCsv) {
+        imported = new ParallelImportCsv().importFile(path, calendar);
+      } else if (isBinary) {
+        imported = importStream(path, new ImportFormatBinary(), StandardCharsets.ISO_8859_1);
+      } else {
+        imported = importStream(path, new ImportFormatiCal(), StandardCharsets.UTF_8);
+      }
+      return "Imported " + imported + " events into calendar '" + calendar.getName()
+          + "' from: " + path.toAbsolutePath();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to import calendar.");
+    }
+  }
+
+  private int importStream(Path path, InterfaceImportFormat format, Charset charset)
+      throws IOException {
+    try (BufferedReader reader = new BufferedReader(Channels.newReader(
+        FileChannel.open(path, StandardOpenOption.READ), charset), BUFFER_SIZE)) {
+      return format.importInto(reader, calendar);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package calendar.controller.commands;
+
+import calendar.controller.TokenReader;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.TimelineEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Prints the events of several calendars together, in order of start and in the time zone
+ * of the active calendar, each marked with the calendar it is in.
+ * - print overlay on dateString [--calendars calendarName...]
+ * - print overlay from dateStringTtimeString to dateStringTtimeString [--calendars ...]
+ * Without --calendars, every calendar is printed.
+ */
+public class CommandPrintOverlay extends AbstractCommand {
+  private final InterfaceCalendarModels models;
+  private final InterfaceCalendar calendar;
+
+  /**
+   * Constructor for CommandPrintOverlay.
+   *
+   * @param models   InterfaceCalendarModels
+   * @param calendar InterfaceCalendar that is active
+   */
+  public CommandPrintOverlay(InterfaceCalendarModels models, InterfaceCalendar calendar) {
+    this.models = models;
+    this.calendar = calendar;
+  }
+
+  @Override
+  public String execute(TokenReader tokenReader) {
+    String query = getValue(tokenReader,
+        "Usage: print overlay [on <date>] | [from <start> to <end>] [--calendars <names>]");
+
+    String printMessage;
+    LocalDateTime from;
+    LocalDateTime to;
+    if (query.equals("on")) {
+      String input = getValue(tokenReader, "Missing date after 'on'.");
+      LocalDate date = LocalDate.parse(input);
+      printMessage = query + " " + input;
+      from = date.atStartOfDay();
+      to = date.atTime(LocalTime.MAX);
+    } else if (query.equals("from")) {
+      from = getDateTime(tokenReader, "Missing start or end date-time for 'from'...'to'.");
+      checkKeyword(tokenReader, "to", "Invalid print command format.");
+      to = getDateTime(tokenReader, "Missing start or end date-time for 'from'...'to'.");
+      printMessage = query + " " + from + " to " + to;
+    } else {
+      throw new IllegalArgumentException("Invalid print command format.");
+    }
+
+    List<String> names = new ArrayList<>();
+    if (tokenReader.hasNext()) {
+      checkKeyword(tokenReader, "--calendars", "Expected --calendars tag.");
+      while (tokenReader.hasNext()) {
+        String name = tokenReader.next();
+        if (!models.getCalendarNames().contains(name)) {
+          throw new IllegalArgumentException("Calendar '" + name + "' does not exist.");
+        }
+        names.add(name);
+      }
+      if (names.isEmpty()) {
+        throw new IllegalArgumentException("Expected calendar names after --calendars.");
+      }
+    } else {
+      names.addAll(new TreeSet<>(models.getCalendarNames()));
+    }
+
+    ZoneId zone = calendar.getTimeZone().toZoneId();
+    Iterator<TimelineEvent> timeline = models.timeline(names, from, to, zone);
+    if (!timeline.hasNext()) {
+      return "No events found.";
+    }
+
+    StringBuilder result = new StringBuilder();
+    result.append("Printing ").append(printMessage).append(" in ").append(zone.getId())
+        .append("...").append(System.lineSeparator());
+    while (timeline.hasNext()) {
+      result.append(timeline.next()).append(System.lineSeparator());
+    }
+    return result.toString().trim();
+  }
+}
@@ -11,7 +11,7 @@ import calendar.model.InterfaceSeries;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -110,7 +110,7 @@ public abstract class AbstractCopyCommand extends AbstractCommand {
 
     long daysDifference = DAYS.between(sourceDate, targetDate);
 
-    Map<InterfaceSeries, List<InterfaceEvent>> seriesMap = new HashMap<>();
+    Map<InterfaceSeries, List<InterfaceEvent>> seriesMap = new LinkedHashMap<>();
     List<InterfaceEvent> standaloneEvents = new ArrayList<>();
 
     for (InterfaceEvent event : filteredEvents) {
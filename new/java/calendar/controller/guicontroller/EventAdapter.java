@@ -22,6 +22,15 @@ public class EventAdapter implements InterfaceViewEvent {
     this.repeats = repeats;
   }
 
+  /**
+   * Gets the event this adapter reads from.
+   *
+   * @return The adapted event model.
+   */
+  InterfaceEvent getModelEvent() {
+    return modelEvent;
+  }
+
   @Override
   public String getSubject() {
     return modelEvent.getSubject();
@@ -1,10 +1,12 @@
 package calendar.controller.guicontroller;
 
 import calendar.controller.InterfaceController;
+import calendar.model.CalendarChange;
 import calendar.model.CalendarModel;
 import calendar.model.EventRequest;
 import calendar.model.InterfaceCalendar;
 import calendar.model.InterfaceCalendarModels;
+import calendar.model.InterfaceChangeListener;
 import calendar.model.InterfaceEvent;
 import calendar.model.InterfaceSeries;
 import calendar.model.filter.FilterByDate;
@@ -17,24 +19,38 @@ import calendar.view.gui.eventdialog.EventFormData;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.stream.Collectors;
 
 /**
  * Controller for the GUI calendar application.
  * Coordinates interactions between the model and view components.
+ * The events of the month grid are kept between renders. Changes the active calendar reports
+ * are applied to them, so after an edit only the days the edit touched are re-rendered.
  */
 public class GuiCalendarController implements Features, InterfaceController {
+  private static final Comparator<InterfaceViewEvent> DAY_ORDER = Comparator
+      .comparing(InterfaceViewEvent::getStartDateTime)
+      .thenComparing(InterfaceViewEvent::getEndDateTime)
+      .thenComparing(InterfaceViewEvent::getSubject);
+
   private final InterfaceCalendarModels models;
   private final InterfaceGuiView view;
   private final List<String> calendarNames;
+  private final List<CalendarChange> pendingChanges;
+  private final InterfaceChangeListener changeListener;
 
   private int currentYear;
   private int currentMonth;
   private LocalDate currentDayView;
+  private InterfaceCalendar watchedCalendar;
+  private Map<LocalDate, List<InterfaceViewEvent>> monthEvents;
 
   /**
    * Initializes controller for multi-calendar model using GUI view along with creating a
@@ -50,6 +66,9 @@ public class GuiCalendarController implements Features, InterfaceController {
     this.currentYear = LocalDate.now().getYear();
     this.currentMonth = LocalDate.now().getMonthValue();
     this.currentDayView = null;
+    this.pendingChanges = new ArrayList<>();
+    this.changeListener = (calendar, changes) -> pendingChanges.addAll(changes);
+    this.monthEvents = new HashMap<>();
 
     initializeDefaultCalendar();
     this.view.addFeatures(this);
@@ -158,8 +177,10 @@ public class GuiCalendarController implements Features, InterfaceController {
         }
       });
 
-      refreshCurrentView();
+      refreshChangedDays();
     } catch (IllegalArgumentException e) {
+      // Steps that succeeded before the error stay in the calendar.
+      refreshChangedDays();
       view.showErrorDialog("Error Creating Event", e.getMessage());
     }
   }
@@ -227,8 +248,14 @@ public class GuiCalendarController implements Features, InterfaceController {
         updateEventFields(finalRequest, updatedInfo, activeCalendar, EditScope.SINGLE);
       }
 
-      refreshMonthView();
+      if (currentDayView != null) {
+        refreshMonthView();
+      } else {
+        refreshChangedDays();
+      }
     } catch (IllegalArgumentException e) {
+      // Steps that succeeded before the error stay in the calendar.
+      refreshChangedDays();
       view.showErrorDialog("Error Editing Events", e.getMessage());
     }
   }
@@ -255,8 +282,10 @@ public class GuiCalendarController implements Features, InterfaceController {
           break;
       }
 
-      refreshCurrentView();
+      refreshChangedDays();
     } catch (IllegalArgumentException e) {
+      // Steps that succeeded before the error stay in the calendar.
+      refreshChangedDays();
       view.showErrorDialog("Error Editing Event", e.getMessage());
     }
   }
@@ -445,7 +474,7 @@ public class GuiCalendarController implements Features, InterfaceController {
    */
   private void refreshMonthView() {
     currentDayView = null; // Clear day view state
-    Map<LocalDate, List<InterfaceViewEvent>> monthEvents = loadEventsForMonth();
+    reloadMonthEvents();
     view.renderMonth(currentYear, currentMonth, getActiveCalendarName(),
         getActiveCalendarTimezone().getID(), monthEvents);
   }
@@ -456,7 +485,178 @@ public class GuiCalendarController implements Features, InterfaceController {
   private void refreshDayView() {
     List<InterfaceEvent> modelEvents = getEventsOnDay(currentDayView);
     List<InterfaceViewEvent> viewEvents = convertToViewEvents(modelEvents);
-    view.renderDay(currentDayView, viewEvents, loadEventsForMonth());
+    reloadMonthEvents();
+    view.renderDay(currentDayView, viewEvents, monthEvents);
+  }
+
+  /**
+   * Re-renders only the days touched by the changes the active calendar reported since the
+   * last render, updating the kept month events instead of filtering the calendar again.
+   */
+  private void refreshChangedDays() {
+    Set<LocalDate> changedDays = applyPendingChanges();
+    if (changedDays.isEmpty()) {
+      return;
+    }
+
+    Map<LocalDate, List<InterfaceViewEvent>> days = new HashMap<>();
+    for (LocalDate date : changedDays) {
+      days.put(date, monthEvents.getOrDefault(date, new ArrayList<>()));
+    }
+    view.renderDays(days);
+
+    if (currentDayView != null && changedDays.contains(currentDayView)) {
+      List<InterfaceEvent> dayEvents = new ArrayList<>();
+      for (InterfaceViewEvent viewEvent : days.get(currentDayView)) {
+        dayEvents.add(((EventAdapter) viewEvent).getModelEvent());
+      }
+      view.renderDayEvents(currentDayView, convertToViewEvents(dayEvents));
+    }
+  }
+
+  /**
+   * Moves the events of the pending changes to the days they now cover.
+   *
+   * @return Days of the month grid whose events changed.
+   */
+  private Set<LocalDate> applyPendingChanges() {
+    LocalDate startDate = getFirstShownDate();
+    LocalDate endDate = startDate.plusDays(41);
+    Set<LocalDate> changedDays = new HashSet<>();
+    List<String> touchedSubjects = new ArrayList<>();
+    List<LocalDateTime> touchedStarts = new ArrayList<>();
+
+    for (CalendarChange change : pendingChanges) {
+      InterfaceEvent event = change.getEvent();
+      touchedSubjects.add(change.getNewSubject());
+      touchedStarts.add(change.getNewStart());
+      if (change.getKind() == CalendarChange.Kind.MODIFIED) {
+        touchedSubjects.add(change.getOldSubject());
+        touchedStarts.add(change.getOldStart());
+        for (LocalDate date : shownDates(change.getOldStart(), change.getOldEnd(),
+            startDate, endDate)) {
+          List<InterfaceViewEvent> dayEvents = monthEvents.get(date);
+          if (dayEvents != null) {
+            dayEvents.removeIf(v -> ((EventAdapter) v).getModelEvent() == event);
+          }
+          changedDays.add(date);
+        }
+      }
+
+      List<LocalDate> newDates = shownDates(change.getNewStart(), change.getNewEnd(),
+          startDate, endDate);
+      if (newDates.isEmpty()) {
+        continue;
+      }
+      boolean isRepeating = getActiveCalendar().findSeriesForEvent(
+          event.getSubject(), event.getStartDateTime()) != null;
+      for (LocalDate date : newDates) {
+        monthEvents.computeIfAbsent(date, k -> new ArrayList<>())
+            .add(new EventAdapter(event, isRepeating));
+        changedDays.add(date);
+      }
+    }
+    pendingChanges.clear();
+
+    // Whether an event repeats is looked up by subject and start, so events sharing those
+    // with a changed event may have started or stopped repeating.
+    for (int i = 0; i < touchedSubjects.size(); i++) {
+      updateRepeats(touchedSubjects.get(i), touchedStarts.get(i), startDate, endDate,
+          changedDays);
+    }
+
+    for (LocalDate date : changedDays) {
+      List<InterfaceViewEvent> dayEvents = monthEvents.get(date);
+      if (dayEvents != null) {
+        dayEvents.sort(DAY_ORDER);
+      }
+    }
+    return changedDays;
+  }
+
+  /**
+   * Updates the shown events with the given subject and start whose repeating state is out
+   * of date, on every day they cover.
+   */
+  private void updateRepeats(String subject, LocalDateTime start, LocalDate startDate,
+                             LocalDate endDate, Set<LocalDate> changedDays) {
+    // Events that start before the grid are shown from its first day on.
+    LocalDate firstDate = start.toLocalDate().isBefore(startDate)
+        ? startDate : start.toLocalDate();
+    List<InterfaceViewEvent> startDayEvents = monthEvents.get(firstDate);
+    if (startDayEvents == null) {
+      return;
+    }
+
+    boolean isRepeating = getActiveCalendar().findSeriesForEvent(subject, start) != null;
+    List<InterfaceEvent> outdated = new ArrayList<>();
+    for (InterfaceViewEvent viewEvent : startDayEvents) {
+      if (viewEvent.repeats() != isRepeating && viewEvent.getSubject().equals(subject)
+          && viewEvent.getStartDateTime().equals(start)) {
+        outdated.add(((EventAdapter) viewEvent).getModelEvent());
+      }
+    }
+
+    for (InterfaceEvent event : outdated) {
+      for (LocalDate date : shownDates(event.getStartDateTime(), event.getEndDateTime(),
+          startDate, endDate)) {
+        List<InterfaceViewEvent> dayEvents = monthEvents.get(date);
+        for (int i = 0; i < dayEvents.size(); i++) {
+          if (((EventAdapter) dayEvents.get(i)).getModelEvent() == event) {
+            dayEvents.set(i, new EventAdapter(event, isRepeating));
+          }
+        }
+        changedDays.add(date);
+      }
+    }
+  }
+
+  /**
+   * Gets the dates of the month grid that a span covers.
+   */
+  private List<LocalDate> shownDates(LocalDateTime start, LocalDateTime end,
+                                     LocalDate startDate, LocalDate endDate) {
+    LocalDate currentDate = start.toLocalDate().isBefore(startDate)
+        ? startDate : start.toLocalDate();
+    LocalDate lastDate = end.toLocalDate().isAfter(endDate) ? endDate : end.toLocalDate();
+
+    List<LocalDate> dates = new ArrayList<>();
+    while (!currentDate.isAfter(lastDate)) {
+      dates.add(currentDate);
+      currentDate = currentDate.plusDays(1);
+    }
+    return dates;
+  }
+
+  /**
+   * Loads the events of the month grid from the active calendar, dropping pending changes
+   * since the loaded events already contain them.
+   */
+  private void reloadMonthEvents() {
+    watchActiveCalendar();
+    pendingChanges.clear();
+    monthEvents = loadEventsForMonth();
+  }
+
+  /**
+   * Moves the change listener to the active calendar if it changed.
+   */
+  private void watchActiveCalendar() {
+    InterfaceCalendar activeCalendar = models.getActiveCalendar();
+    if (activeCalendar == watchedCalendar) {
+      return;
+    }
+    if (watchedCalendar != null) {
+      watchedCalendar.removeChangeListener(changeListener);
+    }
+    activeCalendar.addChangeListener(changeListener);
+    watchedCalendar = activeCalendar;
+  }
+
+  private LocalDate getFirstShownDate() {
+    LocalDate firstOfMonth = LocalDate.of(currentYear, currentMonth, 1);
+    int firstDayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7;
+    return firstOfMonth.minusDays(firstDayOfWeek);
   }
 
   /**
@@ -479,9 +679,7 @@ public class GuiCalendarController implements Features, InterfaceController {
   private Map<LocalDate, List<InterfaceViewEvent>> loadEventsForMonth() {
     InterfaceCalendar activeCalendar = models.getActiveCalendar();
 
-    LocalDate firstOfMonth = LocalDate.of(currentYear, currentMonth, 1);
-    int firstDayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7;
-    LocalDate startDate = firstOfMonth.minusDays(firstDayOfWeek);
+    LocalDate startDate = getFirstShownDate();
     LocalDate endDate = startDate.plusDays(41);
 
     List<InterfaceEvent> events = activeCalendar.filter(new FilterByDateRange(startDate, endDate));
@@ -507,6 +705,10 @@ public class GuiCalendarController implements Features, InterfaceController {
       }
     }
 
+    // Series edits change events in place, so the calendar's own order can be stale.
+    for (List<InterfaceViewEvent> dayEvents : eventsMap.values()) {
+      dayEvents.sort(DAY_ORDER);
+    }
     return eventsMap;
   }
 
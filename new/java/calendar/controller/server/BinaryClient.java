@@ -0,0 +1,94 @@
+package calendar.controller.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client of a BinaryCommandServer session. Requests can be sent one at a time, or pipelined:
+ * a batch of requests is written in one go and the responses are read back afterwards, so a
+ * batch costs a round-trip per PIPELINE_WINDOW requests instead of one per request.
+ */
+public class BinaryClient implements Closeable {
+  public static final int PIPELINE_WINDOW = 256;
+  private static final int BUFFER_SIZE = 64 << 10;
+  private final SocketChannel channel;
+  private final DataInputStream in;
+  private final OutputStream out;
+  private final BinaryCodec.Encoder encoder;
+  private final BinaryCodec.Decoder decoder;
+
+  /**
+   * Opens a session on the server.
+   *
+   * @param address Address the server listens on.
+   * @throws IOException if the server cannot be reached.
+   */
+  public BinaryClient(SocketAddress address) throws IOException {
+    this.channel = CommandServer.connect(address);
+    this.in = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+    this.out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    this.encoder = new BinaryCodec.Encoder();
+    this.decoder = new BinaryCodec.Decoder();
+  }
+
+  /**
+   * Sends a request and waits for its response.
+   *
+   * @param request Request to send.
+   * @return Response of the server.
+   * @throws IOException if the server cannot be reached or closed the session.
+   */
+  public BinaryResponse send(BinaryRequest request) throws IOException {
+    request.encode(encoder);
+    encoder.writeFrame(out);
+    out.flush();
+    return readResponse();
+  }
+
+  /**
+   * Sends requests without waiting for each response. At most PIPELINE_WINDOW requests are
+   * written before their responses are read, so neither side blocks on a full socket buffer.
+   *
+   * @param requests Requests to send, executed by the server in order.
+   * @return Responses of the server, in the order of the requests.
+   * @throws IOException if the server cannot be reached or closed the session.
+   */
+  public List<BinaryResponse> pipeline(List<BinaryRequest> requests) throws IOException {
+    List<BinaryResponse> responses = new ArrayList<>(requests.size());
+    for (int start = 0; start < requests.size(); start += PIPELINE_WINDOW) {
+      int end = Math.min(start + PIPELINE_WINDOW, requests.size());
+      for (int i = start; i < end; i++) {
+        requests.get(i).encode(encoder);
+        encoder.writeFrame(out);
+      }
+      out.flush();
+      for (int i = start; i < end; i++) {
+        responses.add(readResponse());
+      }
+    }
+    return responses;
+  }
+
+  private BinaryResponse readResponse() throws IOException {
+    if (!decoder.readFrame(in)) {
+      throw new EOFException("Server closed the session.");
+    }
+    return BinaryResponse.decode(decoder);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,225 @@
+package calendar.controller.server;
+
+import calendar.model.export.ExportFormatBinary;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Framing and field encoding of the binary command protocol.
+ * Every frame is a 4-byte big-endian payload length followed by the payload. Inside a
+ * payload, integers are varints, date-times are zigzag varints of epoch minutes, and strings
+ * are interned the same way as in ExportFormatBinary: 0 introduces a new string (varint
+ * length and UTF-8 bytes) and n refers to the (n - 1)-th string introduced earlier on the same
+ * connection and direction. The first MAX_DICTIONARY_SIZE strings are interned.
+ */
+public class BinaryCodec {
+  public static final int MAX_FRAME_SIZE = 16 << 20;
+  public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  private BinaryCodec() {
+  }
+
+  /**
+   * Writes the fields of frames. One encoder is used per connection and direction.
+   */
+  public static class Encoder {
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private byte[] buffer = new byte[256];
+    private int length;
+
+    /**
+     * Appends a byte.
+     *
+     * @param value Byte to append, only the low 8 bits are used.
+     */
+    public void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Appends a non-negative integer as a varint.
+     *
+     * @param value Value to append.
+     */
+    public void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      writeByte((int) value);
+    }
+
+    /**
+     * Appends a date-time as zigzag-encoded epoch minutes.
+     *
+     * @param dateTime Date-time to append, seconds are dropped.
+     */
+    public void writeDateTime(LocalDateTime dateTime) {
+      long minute = ExportFormatBinary.toEpochMinute(dateTime);
+      writeVarLong((minute << 1) ^ (minute >> 63));
+    }
+
+    /**
+     * Appends an interned string.
+     *
+     * @param value String to append.
+     */
+    public void writeString(String value) {
+      Integer index = dictionary.get(value);
+      if (index != null) {
+        writeVarLong(index + 1);
+        return;
+      }
+      if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+        dictionary.put(value, dictionary.size());
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(0);
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, length, bytes.length);
+      length += bytes.length;
+    }
+
+    /**
+     * Writes the appended fields as one frame and starts the next frame.
+     *
+     * @param out Stream to write the frame to; it is not flushed.
+     * @throws IOException if the frame cannot be written.
+     */
+    public void writeFrame(OutputStream out) throws IOException {
+      out.write(length >>> 24);
+      out.write(length >>> 16);
+      out.write(length >>> 8);
+      out.write(length);
+      out.write(buffer, 0, length);
+      length = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (length + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+      }
+    }
+  }
+
+  /**
+   * Reads the fields of frames. One decoder is used per connection and direction.
+   */
+  public static class Decoder {
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] frame = new byte[256];
+    private int length;
+    private int position;
+
+    /**
+     * Reads the next frame.
+     *
+     * @param in Stream to read from.
+     * @return True if a frame was read, false if the stream ended between frames.
+     * @throws IOException if the stream ends inside a frame or cannot be read.
+     */
+    public boolean readFrame(DataInputStream in) throws IOException {
+      int first = in.read();
+      if (first < 0) {
+        return false;
+      }
+      length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8)
+          | in.readUnsignedByte();
+      if (length < 0 || length > MAX_FRAME_SIZE) {
+        throw new IOException("Invalid frame length: " + length);
+      }
+      if (length > frame.length) {
+        frame = new byte[Math.max(length, frame.length * 2)];
+      }
+      in.readFully(frame, 0, length);
+      position = 0;
+      return true;
+    }
+
+    /**
+     * Reads a byte of the current frame.
+     *
+     * @return Unsigned byte value.
+     * @throws IOException if the frame has no more bytes.
+     */
+    public int readByte() throws IOException {
+      if (position >= length) {
+        throw new EOFException("Frame ended unexpectedly.");
+      }
+      return frame[position++] & 0xFF;
+    }
+
+    /**
+     * Reads a varint.
+     *
+     * @return Value read.
+     * @throws IOException if the frame ended inside the value.
+     */
+    public long readVarLong() throws IOException {
+      long value = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    /**
+     * Reads a date-time written by {@link Encoder#writeDateTime(LocalDateTime)}.
+     *
+     * @return Date-time read.
+     * @throws IOException       if the frame ended inside the value.
+     * @throws DateTimeException if the value is outside the range of LocalDateTime.
+     */
+    public LocalDateTime readDateTime() throws IOException {
+      long zigzag = readVarLong();
+      long minute = (zigzag >>> 1) ^ -(zigzag & 1);
+      if (minute > Long.MAX_VALUE / 60 || minute < Long.MIN_VALUE / 60) {
+        throw new DateTimeException("Date-time out of range: " + minute + " epoch minutes.");
+      }
+      return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Reads an interned string.
+     *
+     * @return String read.
+     * @throws IOException if the frame ended inside the value or refers to an unknown string.
+     */
+    public String readString() throws IOException {
+      long index = readVarLong();
+      if (index > 0) {
+        if (index > dictionary.size()) {
+          throw new IOException("Unknown string reference: " + index);
+        }
+        return dictionary.get((int) index - 1);
+      }
+      int size = (int) readVarLong();
+      if (size < 0 || size > length - position) {
+        throw new EOFException("Frame ended unexpectedly.");
+      }
+      String value = new String(frame, position, size, StandardCharsets.UTF_8);
+      position += size;
+      if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+        dictionary.add(value);
+      }
+      return value;
+    }
+  }
+}
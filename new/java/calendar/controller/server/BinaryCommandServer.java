@@ -0,0 +1,47 @@
+package calendar.controller.server;
+
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.SharedCalendarModels;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Server of the binary protocol. It accepts connections like CommandServer, but every session
+ * exchanges BinaryRequest and BinaryResponse frames instead of command lines. Requests that
+ * change the calendars are replicated like the commands of CommandServer's sessions.
+ */
+public class BinaryCommandServer extends CommandServer {
+
+  /**
+   * Starts listening on the given address.
+   *
+   * @param models  Calendars shared by all sessions.
+   * @param address Address to listen on, see {@link CommandServer#parseAddress(String)}.
+   * @throws IOException if the address cannot be bound.
+   */
+  public BinaryCommandServer(SharedCalendarModels models, SocketAddress address)
+      throws IOException {
+    super(models, address);
+  }
+
+  @Override
+  protected void runSession(SocketChannel channel) {
+    try (channel) {
+      InterfaceCalendarModels sessionModels = getModels().newSession();
+      ReadWriteLock calendarLock = getModels().getCalendarLock();
+      // The controller reads no input and renders nothing; requests are run on it one by one.
+      SessionController controller = new SessionController(sessionModels, Reader.nullReader(),
+          new SessionView(Writer.nullWriter()), calendarLock);
+      BinarySession session = new BinarySession(sessionModels, controller, calendarLock);
+      runController(sessionModels, controller, () ->
+          session.run(Channels.newInputStream(channel), Channels.newOutputStream(channel)));
+    } catch (IOException e) {
+      // The client disconnected; the session ends with it.
+    }
+  }
+}
@@ -0,0 +1,358 @@
+package calendar.controller.server;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pre-parsed command of the binary protocol. Instead of a command line, a request carries
+ * an opcode and the already typed fields of the command, so the server neither reads nor
+ * tokenizes lines. Every request that changes the calendars stands for a command line, and
+ * the server runs it as the tokens of that line, see {@link #toTokens()}.
+ * Layout inside a frame: the opcode byte, then the fields of the opcode in the order of the
+ * factory method's parameters.
+ */
+public class BinaryRequest {
+  public static final int USE_CALENDAR = 1;
+  public static final int CREATE_CALENDAR = 2;
+  public static final int CREATE_EVENT = 3;
+  public static final int CREATE_SERIES = 4;
+  public static final int EDIT_EVENT = 5;
+  public static final int EDIT_EVENTS = 6;
+  public static final int EDIT_SERIES = 7;
+  public static final int EVENTS_BETWEEN = 8;
+  public static final int BUSY_AT = 9;
+  public static final int CREATE_ALL_DAY_EVENT = 10;
+
+  private final int opcode;
+  private final String name;
+  private final String subject;
+  private final LocalDateTime start;
+  private final LocalDateTime end;
+  private final String property;
+  private final String value;
+  private final String pattern;
+  private final String termination;
+
+  private BinaryRequest(int opcode, String name, String subject, LocalDateTime start,
+                        LocalDateTime end, String property, String value, String pattern,
+                        String termination) {
+    this.opcode = opcode;
+    this.name = name;
+    this.subject = subject;
+    this.start = start;
+    this.end = end;
+    this.property = property;
+    this.value = value;
+    this.pattern = pattern;
+    this.termination = termination;
+  }
+
+  /**
+   * Request that selects the active calendar of the session.
+   *
+   * @param name Name of the calendar.
+   * @return The request.
+   */
+  public static BinaryRequest useCalendar(String name) {
+    return new BinaryRequest(USE_CALENDAR, name, null, null, null, null, null, null, null);
+  }
+
+  /**
+   * Request that creates a calendar.
+   *
+   * @param name     Name of the calendar.
+   * @param timeZone Time zone id, e.g. America/New_York.
+   * @return The request.
+   */
+  public static BinaryRequest createCalendar(String name, String timeZone) {
+    return new BinaryRequest(CREATE_CALENDAR, name, null, null, null, null, timeZone, null,
+        null);
+  }
+
+  /**
+   * Request that creates a single event in the active calendar.
+   *
+   * @param subject Subject of the event.
+   * @param start   Start of the event.
+   * @param end     End of the event.
+   * @return The request.
+   */
+  public static BinaryRequest createEvent(String subject, LocalDateTime start,
+                                          LocalDateTime end) {
+    return new BinaryRequest(CREATE_EVENT, null, subject, start, end, null, null, null, null);
+  }
+
+  /**
+   * Request that creates an all-day event, like "create event ... on".
+   *
+   * @param subject Subject of the event.
+   * @param date    Day of the event.
+   * @return The request.
+   */
+  public static BinaryRequest createAllDayEvent(String subject, LocalDate date) {
+    return new BinaryRequest(CREATE_ALL_DAY_EVENT, null, subject, date.atStartOfDay(), null,
+        null, null, null, null);
+  }
+
+  /**
+   * Request that creates a recurring event in the active calendar.
+   *
+   * @param subject     Subject of the events.
+   * @param start       Start of the first event.
+   * @param end         End of the first event.
+   * @param pattern     Weekdays the event repeats on, e.g. MWF.
+   * @param termination Number of occurrences or the last date, as in "repeats ... for/until".
+   * @return The request.
+   */
+  public static BinaryRequest createSeries(String subject, LocalDateTime start,
+                                           LocalDateTime end, String pattern,
+                                           String termination) {
+    return new BinaryRequest(CREATE_SERIES, null, subject, start, end, null, null, pattern,
+        termination);
+  }
+
+  /**
+   * Request that edits a property of a single event.
+   *
+   * @param property Property to edit, e.g. location.
+   * @param subject  Subject of the event.
+   * @param start    Start of the event.
+   * @param end      End of the event.
+   * @param value    New value of the property.
+   * @return The request.
+   */
+  public static BinaryRequest editEvent(String property, String subject, LocalDateTime start,
+                                        LocalDateTime end, String value) {
+    return new BinaryRequest(EDIT_EVENT, null, subject, start, end, property, value, null,
+        null);
+  }
+
+  /**
+   * Request that edits a property of an event and the following events of its series.
+   *
+   * @param property Property to edit, e.g. location.
+   * @param subject  Subject of the event.
+   * @param start    Start of the first event to edit.
+   * @param value    New value of the property.
+   * @return The request.
+   */
+  public static BinaryRequest editEvents(String property, String subject, LocalDateTime start,
+                                         String value) {
+    return new BinaryRequest(EDIT_EVENTS, null, subject, start, null, property, value, null,
+        null);
+  }
+
+  /**
+   * Request that edits a property of every event of a series.
+   *
+   * @param property Property to edit, e.g. location.
+   * @param subject  Subject of the event.
+   * @param start    Start of any event of the series.
+   * @param value    New value of the property.
+   * @return The request.
+   */
+  public static BinaryRequest editSeries(String property, String subject, LocalDateTime start,
+                                         String value) {
+    return new BinaryRequest(EDIT_SERIES, null, subject, start, null, property, value, null,
+        null);
+  }
+
+  /**
+   * Request for the events of the active calendar that overlap an interval.
+   *
+   * @param start Inclusive start of the interval.
+   * @param end   Inclusive end of the interval.
+   * @return The request, answered with an EVENTS response.
+   */
+  public static BinaryRequest eventsBetween(LocalDateTime start, LocalDateTime end) {
+    return new BinaryRequest(EVENTS_BETWEEN, null, null, start, end, null, null, null, null);
+  }
+
+  /**
+   * Request for whether the active calendar is busy at a time.
+   *
+   * @param dateTime Time to check.
+   * @return The request, answered with a BUSY or FREE response.
+   */
+  public static BinaryRequest busyAt(LocalDateTime dateTime) {
+    return new BinaryRequest(BUSY_AT, null, null, dateTime, null, null, null, null, null);
+  }
+
+  /**
+   * Gets the opcode of the request.
+   *
+   * @return One of the opcode constants.
+   */
+  public int getOpcode() {
+    return opcode;
+  }
+
+  /**
+   * Gets the calendar name of a calendar request.
+   *
+   * @return Calendar name, or null for event requests.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the time zone id of a create calendar request.
+   *
+   * @return Time zone id.
+   */
+  public String getTimeZone() {
+    return value;
+  }
+
+  /**
+   * Gets the start of the request.
+   *
+   * @return Start date-time, or the time of a busy request.
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the end of the request.
+   *
+   * @return End date-time, or null if the opcode has none.
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Gets the tokens of the command line a request that changes the calendars stands for.
+   *
+   * @return Tokens of the command line.
+   * @throws IllegalStateException if the request is a query.
+   */
+  public List<String> toTokens() {
+    switch (opcode) {
+      case USE_CALENDAR:
+        return List.of("use", "calendar", "--name", name);
+      case CREATE_CALENDAR:
+        return List.of("create", "calendar", "--name", name, "--timezone", value);
+      case CREATE_EVENT:
+        return List.of("create", "event", subject, "from", start.toString(), "to",
+            end.toString());
+      case CREATE_ALL_DAY_EVENT:
+        return List.of("create", "event", subject, "on", start.toLocalDate().toString());
+      case CREATE_SERIES:
+        List<String> tokens = new ArrayList<>(List.of("create", "event", subject, "from",
+            start.toString(), "to", end.toString(), "repeats", pattern));
+        if (!termination.isEmpty() && termination.chars().allMatch(Character::isDigit)) {
+          tokens.addAll(List.of("for", termination, "times"));
+        } else {
+          tokens.addAll(List.of("until", termination));
+        }
+        return tokens;
+      case EDIT_EVENT:
+        return List.of("edit", "event", property, subject, "from", start.toString(), "to",
+            end.toString(), "with", value);
+      case EDIT_EVENTS:
+      case EDIT_SERIES:
+        return List.of("edit", opcode == EDIT_EVENTS ? "events" : "series", property, subject,
+            "from", start.toString(), "with", value);
+      default:
+        throw new IllegalStateException("Request " + opcode + " has no command line.");
+    }
+  }
+
+  /**
+   * Writes the request as the fields of a frame.
+   *
+   * @param encoder Encoder of the connection.
+   */
+  public void encode(BinaryCodec.Encoder encoder) {
+    encoder.writeByte(opcode);
+    switch (opcode) {
+      case USE_CALENDAR:
+        encoder.writeString(name);
+        break;
+      case CREATE_CALENDAR:
+        encoder.writeString(name);
+        encoder.writeString(value);
+        break;
+      case CREATE_ALL_DAY_EVENT:
+        encoder.writeString(subject);
+        encoder.writeDateTime(start);
+        break;
+      case CREATE_EVENT:
+      case CREATE_SERIES:
+        encoder.writeString(subject);
+        encoder.writeDateTime(start);
+        encoder.writeDateTime(end);
+        if (opcode == CREATE_SERIES) {
+          encoder.writeString(pattern);
+          encoder.writeString(termination);
+        }
+        break;
+      case EDIT_EVENT:
+      case EDIT_EVENTS:
+      case EDIT_SERIES:
+        encoder.writeString(property);
+        encoder.writeString(subject);
+        encoder.writeDateTime(start);
+        if (opcode == EDIT_EVENT) {
+          encoder.writeDateTime(end);
+        }
+        encoder.writeString(value);
+        break;
+      case EVENTS_BETWEEN:
+        encoder.writeDateTime(start);
+        encoder.writeDateTime(end);
+        break;
+      case BUSY_AT:
+        encoder.writeDateTime(start);
+        break;
+      default:
+        throw new IllegalStateException("Unknown opcode: " + opcode);
+    }
+  }
+
+  /**
+   * Reads a request from the fields of the current frame.
+   *
+   * @param decoder Decoder of the connection, positioned at the start of a frame.
+   * @return The request.
+   * @throws IOException if the frame is not a valid request.
+   */
+  public static BinaryRequest decode(BinaryCodec.Decoder decoder) throws IOException {
+    int opcode = decoder.readByte();
+    switch (opcode) {
+      case USE_CALENDAR:
+        return useCalendar(decoder.readString());
+      case CREATE_CALENDAR:
+        return createCalendar(decoder.readString(), decoder.readString());
+      case CREATE_EVENT:
+        return createEvent(decoder.readString(), decoder.readDateTime(),
+            decoder.readDateTime());
+      case CREATE_ALL_DAY_EVENT:
+        return createAllDayEvent(decoder.readString(), decoder.readDateTime().toLocalDate());
+      case CREATE_SERIES:
+        return createSeries(decoder.readString(), decoder.readDateTime(),
+            decoder.readDateTime(), decoder.readString(), decoder.readString());
+      case EDIT_EVENT:
+        return editEvent(decoder.readString(), decoder.readString(), decoder.readDateTime(),
+            decoder.readDateTime(), decoder.readString());
+      case EDIT_EVENTS:
+        return editEvents(decoder.readString(), decoder.readString(), decoder.readDateTime(),
+            decoder.readString());
+      case EDIT_SERIES:
+        return editSeries(decoder.readString(), decoder.readString(), decoder.readDateTime(),
+            decoder.readString());
+      case EVENTS_BETWEEN:
+        return eventsBetween(decoder.readDateTime(), decoder.readDateTime());
+      case BUSY_AT:
+        return busyAt(decoder.readDateTime());
+      default:
+        throw new IOException("Unknown opcode: " + opcode);
+    }
+  }
+}
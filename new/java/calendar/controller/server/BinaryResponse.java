@@ -0,0 +1,215 @@
+package calendar.controller.server;
+
+import calendar.model.EventStatus;
+import calendar.model.InterfaceEvent;
+import calendar.model.SingleEvent;
+import calendar.model.export.ExportFormatBinary;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Response of the binary protocol to one request. Responses are sent in request order.
+ * Layout inside a frame: the status byte, then
+ * - OK and ERROR: the message
+ * - EVENTS: the time zone id of the calendar, the number of events as a varint and per event
+ *   the ExportFormatBinary flags (private, has description, has location), subject, start,
+ *   end, and the description and location if flagged
+ * - BUSY and FREE: nothing.
+ */
+public class BinaryResponse {
+  public static final int OK = 0;
+  public static final int ERROR = 1;
+  public static final int EVENTS = 2;
+  public static final int BUSY = 3;
+  public static final int FREE = 4;
+
+  private final int status;
+  private final String message;
+  private final TimeZone timeZone;
+  private final List<InterfaceEvent> events;
+
+  private BinaryResponse(int status, String message, TimeZone timeZone,
+                         List<InterfaceEvent> events) {
+    this.status = status;
+    this.message = message;
+    this.timeZone = timeZone;
+    this.events = events;
+  }
+
+  /**
+   * Response of a request that succeeded.
+   *
+   * @param message Confirmation message, the same as the text protocol's.
+   * @return The response.
+   */
+  public static BinaryResponse ok(String message) {
+    return new BinaryResponse(OK, message, null, Collections.emptyList());
+  }
+
+  /**
+   * Response of a request that failed.
+   *
+   * @param message Error message, or null if the failure has none.
+   * @return The response.
+   */
+  public static BinaryResponse error(String message) {
+    return new BinaryResponse(ERROR, message == null ? "Request failed." : message, null,
+        Collections.emptyList());
+  }
+
+  /**
+   * Response that lists events.
+   *
+   * @param timeZone Time zone of the calendar the events belong to.
+   * @param events   Events to list.
+   * @return The response.
+   */
+  public static BinaryResponse events(TimeZone timeZone, List<InterfaceEvent> events) {
+    return new BinaryResponse(EVENTS, null, timeZone, events);
+  }
+
+  /**
+   * Response of a busy request.
+   *
+   * @param busy Whether the calendar is busy.
+   * @return The response.
+   */
+  public static BinaryResponse busy(boolean busy) {
+    return new BinaryResponse(busy ? BUSY : FREE, null, null, Collections.emptyList());
+  }
+
+  /**
+   * Gets the status of the response.
+   *
+   * @return One of the status constants.
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * Gets the message of an OK or ERROR response.
+   *
+   * @return The message, or null for other statuses.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * Gets the events of an EVENTS response.
+   *
+   * @return The events, empty for other statuses.
+   */
+  public List<InterfaceEvent> getEvents() {
+    return events;
+  }
+
+  /**
+   * Writes the response as the fields of a frame.
+   *
+   * @param encoder Encoder of the connection.
+   */
+  public void encode(BinaryCodec.Encoder encoder) {
+    encoder.writeByte(status);
+    if (status == OK || status == ERROR) {
+      encoder.writeString(message);
+    } else if (status == EVENTS) {
+      encoder.writeString(timeZone.getID());
+      encoder.writeVarLong(events.size());
+      for (InterfaceEvent event : events) {
+        encodeEvent(encoder, event);
+      }
+    }
+  }
+
+  private static void encodeEvent(BinaryCodec.Encoder encoder, InterfaceEvent event) {
+    int flags = 0;
+    if (event.getStatus() == EventStatus.PRIVATE) {
+      flags |= ExportFormatBinary.FLAG_PRIVATE;
+    }
+    if (!event.getDescription().isEmpty()) {
+      flags |= ExportFormatBinary.FLAG_DESCRIPTION;
+    }
+    if (!event.getLocation().isEmpty()) {
+      flags |= ExportFormatBinary.FLAG_LOCATION;
+    }
+    encoder.writeByte(flags);
+    encoder.writeString(event.getSubject());
+    encoder.writeDateTime(event.getStartDateTime());
+    encoder.writeDateTime(event.getEndDateTime());
+    if ((flags & ExportFormatBinary.FLAG_DESCRIPTION) != 0) {
+      encoder.writeString(event.getDescription());
+    }
+    if ((flags & ExportFormatBinary.FLAG_LOCATION) != 0) {
+      encoder.writeString(event.getLocation());
+    }
+  }
+
+  /**
+   * Reads a response from the fields of the current frame.
+   *
+   * @param decoder Decoder of the connection, positioned at the start of a frame.
+   * @return The response.
+   * @throws IOException if the frame is not a valid response.
+   */
+  public static BinaryResponse decode(BinaryCodec.Decoder decoder) throws IOException {
+    int status = decoder.readByte();
+    switch (status) {
+      case OK:
+        return ok(decoder.readString());
+      case ERROR:
+        return error(decoder.readString());
+      case EVENTS:
+        TimeZone timeZone = TimeZone.getTimeZone(decoder.readString());
+        int count = (int) decoder.readVarLong();
+        List<InterfaceEvent> events = new ArrayList<>(Math.min(count, 4096));
+        for (int i = 0; i < count; i++) {
+          events.add(decodeEvent(decoder, timeZone));
+        }
+        return events(timeZone, events);
+      case BUSY:
+      case FREE:
+        return busy(status == BUSY);
+      default:
+        throw new IOException("Unknown response status: " + status);
+    }
+  }
+
+  private static InterfaceEvent decodeEvent(BinaryCodec.Decoder decoder, TimeZone timeZone)
+      throws IOException {
+    int flags = decoder.readByte();
+    InterfaceEvent event = new SingleEvent.SingleEventBuilder()
+        .setSubject(decoder.readString())
+        .setStart(decoder.readDateTime())
+        .setEnd(decoder.readDateTime())
+        .setTimeZone(timeZone)
+        .build();
+    if ((flags & ExportFormatBinary.FLAG_DESCRIPTION) != 0) {
+      event.setProperty("description", decoder.readString());
+    }
+    if ((flags & ExportFormatBinary.FLAG_LOCATION) != 0) {
+      event.setProperty("location", decoder.readString());
+    }
+    if ((flags & ExportFormatBinary.FLAG_PRIVATE) != 0) {
+      event.setProperty("status", "PRIVATE");
+    }
+    return event;
+  }
+
+  @Override
+  public String toString() {
+    switch (status) {
+      case OK:
+      case ERROR:
+        return message;
+      case EVENTS:
+        return events.size() + " events";
+      default:
+        return status == BUSY ? "Busy" : "Available";
+    }
+  }
+}
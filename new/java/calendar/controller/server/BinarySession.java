@@ -0,0 +1,100 @@
+package calendar.controller.server;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.filter.FilterByDateTime;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Session of the binary protocol. Requests are executed in order and their responses are
+ * buffered until no further request is waiting in the input, so a client that pipelines many
+ * requests gets their responses back in a few writes. Requests that change the calendars run
+ * as their command lines on the SessionController of the session, which takes the write lock
+ * and logs them for replication like the commands of a text session. Queries answer with
+ * events instead of text, so they read the active calendar directly under the read lock.
+ */
+class BinarySession {
+  private static final int BUFFER_SIZE = 64 << 10;
+  private final InterfaceCalendarModels models;
+  private final SessionController controller;
+  private final ReadWriteLock calendarLock;
+  private final BinaryCodec.Decoder decoder;
+  private final BinaryCodec.Encoder encoder;
+
+  BinarySession(InterfaceCalendarModels sessionModels, SessionController controller,
+                ReadWriteLock calendarLock) {
+    this.models = sessionModels;
+    this.controller = controller;
+    this.calendarLock = calendarLock;
+    this.decoder = new BinaryCodec.Decoder();
+    this.encoder = new BinaryCodec.Encoder();
+  }
+
+  /**
+   * Answers requests until the client disconnects.
+   */
+  void run(InputStream rawInput, OutputStream rawOutput) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(rawInput, BUFFER_SIZE);
+    DataInputStream input = new DataInputStream(buffered);
+    OutputStream output = new BufferedOutputStream(rawOutput, BUFFER_SIZE);
+
+    while (decoder.readFrame(input)) {
+      BinaryRequest request;
+      try {
+        request = BinaryRequest.decode(decoder);
+      } catch (IOException | DateTimeException e) {
+        // A malformed frame leaves the string dictionaries out of sync, so the session ends.
+        BinaryResponse.error(e.getMessage()).encode(encoder);
+        encoder.writeFrame(output);
+        output.flush();
+        return;
+      }
+      respond(request).encode(encoder);
+      encoder.writeFrame(output);
+      if (buffered.available() == 0) {
+        output.flush();
+      }
+    }
+    output.flush();
+  }
+
+  private BinaryResponse respond(BinaryRequest request) {
+    int opcode = request.getOpcode();
+    if (opcode != BinaryRequest.EVENTS_BETWEEN && opcode != BinaryRequest.BUSY_AT) {
+      String result = controller.runCommand(request.toTokens());
+      if (result.startsWith("Error: ")) {
+        return BinaryResponse.error(result.substring("Error: ".length()));
+      }
+      if (result.startsWith("Invalid command")) {
+        return BinaryResponse.error(result);
+      }
+      return BinaryResponse.ok(result);
+    }
+
+    Lock lock = calendarLock.readLock();
+    lock.lock();
+    try {
+      InterfaceCalendar calendar = models.getActiveCalendar();
+      if (calendar == null) {
+        return BinaryResponse.error("Calendar not selected. Use 'use calendar' command.");
+      }
+      if (opcode == BinaryRequest.BUSY_AT) {
+        return BinaryResponse.busy(calendar.isBusyAt(request.getStart()));
+      }
+      return BinaryResponse.events(calendar.getTimeZone(),
+          calendar.filter(new FilterByDateTime(request.getStart(), request.getEnd())));
+    } catch (RuntimeException e) {
+      return BinaryResponse.error(e.getMessage());
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package calendar.controller.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client of a CommandServer session that sends one command at a time and waits for its
+ * response.
+ */
+public class CommandClient implements Closeable {
+  private final SocketChannel channel;
+  private final BufferedReader in;
+  private final BufferedWriter out;
+
+  /**
+   * Opens a session on the server.
+   *
+   * @param address Address the server listens on.
+   * @throws IOException if the server cannot be reached.
+   */
+  public CommandClient(SocketAddress address) throws IOException {
+    this.channel = CommandServer.connect(address);
+    this.in = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(channel), StandardCharsets.UTF_8));
+    this.out = new BufferedWriter(new OutputStreamWriter(
+        Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Sends a command and waits for its response.
+   *
+   * @param command Command line, e.g. "use calendar --name work".
+   * @return Response of the server, with its lines separated by \n; empty if there was none.
+   * @throws IOException if the server cannot be reached or closed the session.
+   */
+  public String send(String command) throws IOException {
+    if (command.indexOf('\n') >= 0 || command.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("A command must be a single line.");
+    }
+    out.write(command);
+    out.write('\n');
+    out.flush();
+
+    String count = readLine();
+    int lines;
+    try {
+      lines = Integer.parseInt(count);
+    } catch (NumberFormatException e) {
+      throw new IOException("Unexpected response from server: " + count);
+    }
+    StringBuilder response = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      if (i > 0) {
+        response.append('\n');
+      }
+      response.append(readLine());
+    }
+    return response.toString();
+  }
+
+  private String readLine() throws IOException {
+    String line = in.readLine();
+    if (line == null) {
+      throw new EOFException("Server closed the session.");
+    }
+    return line;
+  }
+
+  /**
+   * Ends the session with an exit command and closes the connection.
+   *
+   * @throws IOException if the connection cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      send("exit");
+    } catch (IOException e) {
+      // The session is already gone.
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package calendar.controller.server;
+
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.SharedCalendarModels;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Server that accepts command sessions on a local TCP port or a Unix domain socket.
+ * Every connection is a session with its own active calendar that runs the same commands
+ * as the headless mode, one line per command, until it sends exit or disconnects. All
+ * sessions share the calendars. Each response is framed as described in SessionView.
+ */
+public class CommandServer implements Closeable {
+  private final SharedCalendarModels models;
+  private final ServerSocketChannel serverChannel;
+  private final Path socketFile;
+  private final ReadWriteLock calendarLock;
+  private final ExecutorService sessions;
+  private ReplicationLog replicationLog;
+  private boolean readOnly;
+
+  /**
+   * Starts listening on the given address.
+   *
+   * @param models  Calendars shared by all sessions.
+   * @param address Address to listen on, see {@link #parseAddress(String)}.
+   * @throws IOException if the address cannot be bound.
+   */
+  public CommandServer(SharedCalendarModels models, SocketAddress address) throws IOException {
+    this(models, models.getCalendarLock(), address);
+  }
+
+  /**
+   * Starts listening on the given address for a subclass that keeps its own calendars and
+   * overrides {@link #runSession(SocketChannel)}.
+   *
+   * @param address Address to listen on, see {@link #parseAddress(String)}.
+   * @throws IOException if the address cannot be bound.
+   */
+  protected CommandServer(SocketAddress address) throws IOException {
+    this(null, null, address);
+  }
+
+  private CommandServer(SharedCalendarModels models, ReadWriteLock calendarLock,
+                        SocketAddress address) throws IOException {
+    this.models = models;
+    this.serverChannel = bind(address);
+    this.socketFile = socketFile(address);
+    this.calendarLock = calendarLock;
+
+    AtomicInteger sessionCount = new AtomicInteger();
+    this.sessions = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "calendar-session-" + sessionCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Opens a server channel bound to a TCP address or a Unix domain socket, replacing a socket
+   * file left behind by a previous run.
+   */
+  static ServerSocketChannel bind(SocketAddress address) throws IOException {
+    ServerSocketChannel channel;
+    if (UnixSockets.isUnix(address)) {
+      Files.deleteIfExists(socketFile(address));
+      channel = UnixSockets.openServer();
+    } else {
+      channel = ServerSocketChannel.open();
+    }
+    channel.bind(address);
+    return channel;
+  }
+
+  /**
+   * Gets the socket file of a Unix domain socket address.
+   *
+   * @return The socket file, or null for TCP addresses.
+   */
+  static Path socketFile(SocketAddress address) {
+    return UnixSockets.isUnix(address) ? UnixSockets.path(address) : null;
+  }
+
+  /**
+   * Opens a client connection to a TCP address or a Unix domain socket.
+   */
+  static SocketChannel connect(SocketAddress address) throws IOException {
+    SocketChannel channel = UnixSockets.isUnix(address)
+        ? UnixSockets.openClient() : SocketChannel.open();
+    try {
+      channel.connect(address);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel;
+  }
+
+  /**
+   * Parses a server address: "unix:" followed by a socket file path, or a TCP port that is
+   * bound on the loopback interface only. Unix domain sockets need Java 16 or later.
+   *
+   * @param address Address to parse, e.g. 7070 or unix:/tmp/calendar.sock.
+   * @return The socket address.
+   */
+  public static SocketAddress parseAddress(String address) {
+    if (address.startsWith("unix:")) {
+      return UnixSockets.address(address.substring("unix:".length()));
+    }
+    try {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid server address: " + address);
+    }
+  }
+
+  /**
+   * Appends the commands of every session that may change the calendars to a replication
+   * log, so followers can apply them too. Must be called before {@link #serve()}.
+   *
+   * @param replicationLog Log to append to.
+   */
+  public void replicateTo(ReplicationLog replicationLog) {
+    this.replicationLog = replicationLog;
+  }
+
+  /**
+   * Makes every session reject commands that may change the calendars, e.g. on a follower
+   * whose calendars only change through replication. Must be called before {@link #serve()}.
+   */
+  public void setReadOnly() {
+    this.readOnly = true;
+  }
+
+  /**
+   * Gets the address the server listens on.
+   *
+   * @return Bound address, with the actual port if port 0 was requested.
+   * @throws IOException if the address cannot be read.
+   */
+  public SocketAddress getAddress() throws IOException {
+    return serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Accepts sessions until the server is closed.
+   *
+   * @throws IOException if accepting a connection fails.
+   */
+  public void serve() throws IOException {
+    try {
+      while (true) {
+        SocketChannel channel = serverChannel.accept();
+        sessions.execute(() -> runSession(channel));
+      }
+    } catch (ClosedChannelException e) {
+      // The server was closed.
+    }
+  }
+
+  /**
+   * Gets the calendars shared by all sessions.
+   *
+   * @return The shared calendars, or null if a subclass keeps its own.
+   */
+  protected SharedCalendarModels getModels() {
+    return models;
+  }
+
+  /**
+   * Runs one session on an accepted connection until the client disconnects.
+   *
+   * @param channel Connection of the session, closed when the session ends.
+   */
+  protected void runSession(SocketChannel channel) {
+    try (channel) {
+      InputStreamReader input = new InputStreamReader(
+          Channels.newInputStream(channel), StandardCharsets.UTF_8);
+      BufferedWriter output = new BufferedWriter(new OutputStreamWriter(
+          Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+      InterfaceCalendarModels sessionModels = models.newSession();
+      SessionController controller =
+          new SessionController(sessionModels, input, new SessionView(output), calendarLock);
+      runController(sessionModels, controller, controller::run);
+    } catch (IOException e) {
+      // The client disconnected; the session ends with it.
+    }
+  }
+
+  /**
+   * Runs a session whose commands go through the given controller. The controller gets the
+   * read-only flag of the server and, if there is a replication log, logs its commands there
+   * for as long as the session runs.
+   *
+   * @param sessionModels Calendars of the session.
+   * @param controller    Controller the session runs its commands on.
+   * @param session       The session itself.
+   * @throws IOException if the session fails with one.
+   */
+  void runController(InterfaceCalendarModels sessionModels, SessionController controller,
+                     Session session) throws IOException {
+    if (readOnly) {
+      controller.setReadOnly();
+    }
+    if (replicationLog == null) {
+      session.run();
+      return;
+    }
+
+    long sessionId = replicationLog.sessionOpened(sessionModels);
+    controller.replicateTo(replicationLog, sessionId);
+    try {
+      session.run();
+    } finally {
+      replicationLog.sessionClosed(sessionId);
+    }
+  }
+
+  /**
+   * Body of a session run by {@link #runController}.
+   */
+  interface Session {
+    void run() throws IOException;
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverChannel.close();
+    sessions.shutdownNow();
+    if (socketFile != null) {
+      Files.deleteIfExists(socketFile);
+    }
+  }
+}
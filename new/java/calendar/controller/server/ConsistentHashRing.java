@@ -0,0 +1,73 @@
+package calendar.controller.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring that assigns keys to a fixed number of nodes. Every node is placed on
+ * the ring at VIRTUAL_NODES points, and a key belongs to the first point at or after its own
+ * hash. Adding a node only moves the keys that land on the new node's points, and the
+ * assignment only depends on the key and the node count, so it is the same in every process.
+ */
+public class ConsistentHashRing {
+  public static final int VIRTUAL_NODES = 128;
+  private final TreeMap<Long, Integer> ring;
+  private final int nodes;
+
+  /**
+   * Builds a ring over the given number of nodes.
+   *
+   * @param nodes Number of nodes, numbered from 0.
+   */
+  public ConsistentHashRing(int nodes) {
+    if (nodes < 1) {
+      throw new IllegalArgumentException("A hash ring needs at least one node.");
+    }
+    this.nodes = nodes;
+    this.ring = new TreeMap<>();
+    for (int node = 0; node < nodes; node++) {
+      for (int point = 0; point < VIRTUAL_NODES; point++) {
+        ring.put(hash("node-" + node + "#" + point), node);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of nodes of the ring.
+   *
+   * @return Number of nodes.
+   */
+  public int getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Finds the node a key belongs to.
+   *
+   * @param key Key to look up, e.g. a calendar name.
+   * @return Node number, from 0 to the number of nodes - 1.
+   */
+  public int nodeFor(String key) {
+    Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(key));
+    return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+  }
+
+  /**
+   * 64-bit FNV-1a over the UTF-8 bytes, followed by the MurmurHash3 finalizer so that
+   * similar keys spread over the whole ring.
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
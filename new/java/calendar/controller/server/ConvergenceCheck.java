@@ -0,0 +1,307 @@
+package calendar.controller.server;
+
+import calendar.model.SharedCalendarModels;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Check that replication followers end up with the calendars of their leader. Every client
+ * opens its own session and calendar on the leader and sends a seeded mix of writes: single
+ * events, recurring events, edits of single events and whole series, and start edits that
+ * split a series into one without a pattern. If the leader has a binary protocol address,
+ * every other client writes over it. One follower runs in this process from the start and a
+ * second one joins once every client sent half of its writes, so it is seeded from a
+ * snapshot that already holds split series. Once both caught up, every calendar is printed
+ * on the leader and on both followers, and the report counts the calendars that differ.
+ */
+public class ConvergenceCheck {
+  private static final long CATCH_UP_MILLIS = 10_000;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+  private static final String PRINT_ALL =
+      "print events from 2029-12-01T00:00 to 2030-04-01T00:00";
+
+  private final SocketAddress leader;
+  private final SocketAddress binary;
+  private final SocketAddress replication;
+  private final int clients;
+  private final int writesPerClient;
+  private final long seed;
+  private int differing;
+
+  /**
+   * Initializes a convergence check.
+   *
+   * @param leader          Address of the leader's command server.
+   * @param binary          Address of the leader's binary protocol, or null to write over
+   *                        command lines only.
+   * @param replication     Address of the leader's replication log.
+   * @param clients         Number of concurrent sessions.
+   * @param writesPerClient Number of writes every session sends.
+   * @param seed            Seed of the writes.
+   */
+  public ConvergenceCheck(SocketAddress leader, SocketAddress binary, SocketAddress replication,
+                          int clients, int writesPerClient, long seed) {
+    if (clients < 1 || writesPerClient < 1) {
+      throw new IllegalArgumentException("Clients and writes must be positive.");
+    }
+    this.leader = leader;
+    this.binary = binary;
+    this.replication = replication;
+    this.clients = clients;
+    this.writesPerClient = writesPerClient;
+    this.seed = seed;
+  }
+
+  /**
+   * Runs the writes, waits for both followers to catch up and compares the calendars.
+   *
+   * @return Report of the writes sent and the calendars that differ.
+   * @throws IOException if the leader or a follower cannot be reached.
+   */
+  public String run() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    CountDownLatch halfway = new CountDownLatch(clients);
+    List<Future<String>> calendars = new ArrayList<>();
+    try (Follower early = new Follower(replication)) {
+      for (int i = 0; i < clients; i++) {
+        int client = i;
+        calendars.add(executor.submit(() -> runClient(client, halfway)));
+      }
+      halfway.await();
+      try (Follower late = new Follower(replication)) {
+        List<String> names = new ArrayList<>();
+        for (Future<String> calendar : calendars) {
+          names.add(calendar.get());
+        }
+        waitForCatchUp(early, late);
+        return compare(names, early, late);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Convergence check was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Convergence check client failed: " + e.getCause().getMessage(),
+          e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends the writes of one client.
+   *
+   * @return Name of the calendar of the client.
+   */
+  private String runClient(int client, CountDownLatch halfway) throws IOException {
+    Random random = new Random(seed + client);
+    String calendar = "converge-" + client + "-" + System.nanoTime();
+    List<BinaryRequest> requests = new ArrayList<>();
+    requests.add(BinaryRequest.createCalendar(calendar, "America/New_York"));
+    requests.add(BinaryRequest.useCalendar(calendar));
+    List<String> singleSubjects = new ArrayList<>();
+    List<LocalDateTime> singleStarts = new ArrayList<>();
+    List<String> seriesSubjects = new ArrayList<>();
+    List<LocalDateTime> seriesStarts = new ArrayList<>();
+
+    for (int i = 0; i < writesPerClient; i++) {
+      int kind = random.nextInt(10);
+      LocalDateTime start = FIRST_DAY.plusDays(random.nextInt(42))
+          .atTime(8 + random.nextInt(8), 0);
+      if (kind < 3 || (kind == 9 && singleSubjects.isEmpty())) {
+        requests.add(BinaryRequest.createEvent("Event " + i, start, start.plusMinutes(30)));
+        singleSubjects.add("Event " + i);
+        singleStarts.add(start);
+      } else if (kind < 5 || seriesSubjects.isEmpty()) {
+        requests.add(BinaryRequest.createSeries("Series " + i, start, start.plusMinutes(45),
+            "MWF", "6"));
+        seriesSubjects.add("Series " + i);
+        seriesStarts.add(start);
+      } else if (kind == 9) {
+        int target = random.nextInt(singleSubjects.size());
+        LocalDateTime single = singleStarts.get(target);
+        requests.add(BinaryRequest.editEvent("location", singleSubjects.get(target), single,
+            single.plusMinutes(30), "Desk " + i));
+      } else {
+        int target = random.nextInt(seriesSubjects.size());
+        String subject = seriesSubjects.get(target);
+        LocalDateTime first = seriesStarts.get(target);
+        if (kind < 7) {
+          // Splits the series from a later occurrence on, which then starts 15 minutes early.
+          LocalDateTime from = occurrence(first, 1 + random.nextInt(5));
+          LocalDateTime moved = from.minusMinutes(15);
+          requests.add(BinaryRequest.editEvents("start", subject, from, moved.toString()));
+          seriesSubjects.add(subject);
+          seriesStarts.add(moved);
+        } else {
+          requests.add(BinaryRequest.editSeries(kind == 7 ? "location" : "description",
+              subject, first, "Room " + i));
+        }
+      }
+    }
+
+    boolean overBinary = binary != null && client % 2 == 1;
+    boolean counted = false;
+    try (BinaryClient binaryClient = overBinary ? new BinaryClient(binary) : null;
+         CommandClient textClient = overBinary ? null : new CommandClient(leader)) {
+      for (int i = 0; i < requests.size(); i++) {
+        if (i == requests.size() / 2) {
+          halfway.countDown();
+          counted = true;
+        }
+        if (overBinary) {
+          binaryClient.send(requests.get(i));
+        } else {
+          textClient.send(ReplicationLog.joinTokens(requests.get(i).toTokens()));
+        }
+      }
+    } finally {
+      if (!counted) {
+        // A failed client must not keep the late follower from starting.
+        halfway.countDown();
+      }
+    }
+    return calendar;
+  }
+
+  /**
+   * Gets the start of an occurrence of a series that repeats on MWF.
+   *
+   * @param first Start of the first occurrence.
+   * @param index Index of the occurrence, 0 for the first.
+   */
+  private static LocalDateTime occurrence(LocalDateTime first, int index) {
+    LocalDateTime start = first;
+    for (int found = 0; found < index; ) {
+      start = start.plusDays(1);
+      DayOfWeek day = start.getDayOfWeek();
+      if (day == DayOfWeek.MONDAY || day == DayOfWeek.WEDNESDAY || day == DayOfWeek.FRIDAY) {
+        found++;
+      }
+    }
+    return start;
+  }
+
+  /**
+   * Waits until both followers heard of no entry they did not apply yet. The leader only
+   * sends its sequence number in heartbeats once it is idle, so the followers are polled
+   * for a few heartbeats.
+   */
+  private void waitForCatchUp(Follower early, Follower late)
+      throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + CATCH_UP_MILLIS;
+    int caughtUp = 0;
+    while (caughtUp < 3) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new IOException("Followers did not catch up: " + early.follower.getStatus()
+            + " / " + late.follower.getStatus());
+      }
+      Thread.sleep(ReplicationLog.HEARTBEAT_MILLIS);
+      boolean bothIdle = early.follower.getLagEntries() == 0
+          && late.follower.getLagEntries() == 0
+          && early.follower.getAppliedSeq() == late.follower.getAppliedSeq();
+      caughtUp = bothIdle ? caughtUp + 1 : 0;
+    }
+  }
+
+  /**
+   * Gets the number of calendars that differed in the last run.
+   *
+   * @return Calendars that differ between the leader and a follower.
+   */
+  public int getDifferingCalendars() {
+    return differing;
+  }
+
+  private String compare(List<String> names, Follower early, Follower late) throws IOException {
+    differing = 0;
+    String firstDifference = null;
+    try (CommandClient leaderClient = new CommandClient(leader);
+         CommandClient earlyClient = new CommandClient(early.server.getAddress());
+         CommandClient lateClient = new CommandClient(late.server.getAddress())) {
+      for (String name : names) {
+        String expected = print(leaderClient, name);
+        String fromEarly = print(earlyClient, name);
+        String fromLate = print(lateClient, name);
+        if (!expected.equals(fromEarly) || !expected.equals(fromLate)) {
+          differing++;
+          if (firstDifference == null) {
+            firstDifference = name + (expected.equals(fromEarly)
+                ? " differs on the follower seeded mid-run"
+                : " differs on the follower that started first");
+          }
+        }
+      }
+    }
+
+    String report = String.format(Locale.ROOT,
+        "%d clients sent %d writes (%s).%n"
+            + "Followers applied %d entries; %d of %d calendars differ from the leader.",
+        clients, clients * writesPerClient,
+        binary == null ? "command lines only" : "every other client over the binary protocol",
+        early.follower.getAppliedSeq(), differing, names.size());
+    if (firstDifference != null) {
+      report += String.format("%nFirst difference: calendar %s.", firstDifference);
+    }
+    return report;
+  }
+
+  private static String print(CommandClient client, String calendar) throws IOException {
+    client.send("use calendar --name " + calendar);
+    return client.send(PRINT_ALL);
+  }
+
+  /**
+   * A follower of the leader in this process, with a read-only server on its calendars.
+   */
+  private static class Follower implements Closeable {
+    private final ReplicationFollower follower;
+    private final CommandServer server;
+
+    private Follower(SocketAddress replication) throws IOException {
+      SharedCalendarModels models = new SharedCalendarModels();
+      this.follower = new ReplicationFollower(models, replication);
+      this.server = new CommandServer(models,
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      server.setReadOnly();
+      startDaemon("convergence-follower", follower::run);
+      startDaemon("convergence-reads", server::serve);
+    }
+
+    private static void startDaemon(String name, Task task) {
+      Thread thread = new Thread(() -> {
+        try {
+          task.run();
+        } catch (IOException e) {
+          // Closing the follower ends the task.
+        }
+      }, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+      follower.close();
+      server.close();
+    }
+  }
+
+  private interface Task {
+    void run() throws IOException;
+  }
+}
@@ -0,0 +1,139 @@
+package calendar.controller.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the HttpQueryApi of a running server. Every client sends, in turn, a month of
+ * events, a busy check and a full export that repeats the ETag it last received, so unchanged
+ * calendars are answered with 304 Not Modified. The report gives the throughput, latency
+ * percentiles and how many exports were not modified.
+ */
+public class HttpBenchmark {
+  private final URI base;
+  private final int clients;
+  private final int requestsPerClient;
+  private final AtomicLong notModified;
+
+  /**
+   * Initializes a benchmark against a calendar.
+   *
+   * @param port              Port of the HTTP API.
+   * @param calendar          Name of the calendar to query.
+   * @param clients           Number of concurrent clients.
+   * @param requestsPerClient Number of requests every client sends.
+   */
+  public HttpBenchmark(int port, String calendar, int clients, int requestsPerClient) {
+    if (clients < 1 || requestsPerClient < 1) {
+      throw new IllegalArgumentException("Clients and requests must be positive.");
+    }
+    this.base = URI.create("http://127.0.0.1:" + port + "/calendars/"
+        + URLEncoder.encode(calendar, StandardCharsets.UTF_8).replace("+", "%20") + "/");
+    this.clients = clients;
+    this.requestsPerClient = requestsPerClient;
+    this.notModified = new AtomicLong();
+  }
+
+  /**
+   * Runs the benchmark and waits for every client to finish.
+   *
+   * @return Report with throughput and latency percentiles.
+   * @throws IOException if a request fails.
+   */
+  public String run() throws IOException {
+    HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<long[]>> results = new ArrayList<>();
+    long start = System.nanoTime();
+    try {
+      for (int i = 0; i < clients; i++) {
+        results.add(executor.submit(() -> runClient(http)));
+      }
+      long[] latencies = new long[clients * requestsPerClient];
+      for (int i = 0; i < clients; i++) {
+        System.arraycopy(results.get(i).get(), 0, latencies, i * requestsPerClient,
+            requestsPerClient);
+      }
+      return report(latencies, System.nanoTime() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Benchmark was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Benchmark client failed: " + e.getCause().getMessage(),
+          e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long[] runClient(HttpClient http) throws IOException, InterruptedException {
+    long[] latencies = new long[requestsPerClient];
+    LocalDate month = LocalDate.of(2025, 1, 1);
+    String etag = null;
+
+    for (int i = 0; i < requestsPerClient; i++) {
+      HttpRequest.Builder request;
+      switch (i % 3) {
+        case 0:
+          request = HttpRequest.newBuilder(base.resolve("events?from=" + month
+              + "&to=" + month.plusMonths(1).minusDays(1)));
+          break;
+        case 1:
+          request = HttpRequest.newBuilder(base.resolve("busy?at=" + month + "T09:30"));
+          break;
+        default:
+          request = HttpRequest.newBuilder(base.resolve("export?format=csv"));
+          if (etag != null) {
+            request.header("If-None-Match", etag);
+          }
+      }
+
+      long start = System.nanoTime();
+      HttpResponse<byte[]> response =
+          http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+      latencies[i] = System.nanoTime() - start;
+
+      if (response.statusCode() == 304) {
+        notModified.incrementAndGet();
+      } else if (response.statusCode() != 200) {
+        throw new IOException("Request failed with status " + response.statusCode() + ": "
+            + new String(response.body(), StandardCharsets.UTF_8).trim());
+      }
+      if (i % 3 == 2) {
+        etag = response.headers().firstValue("ETag").orElse(null);
+      }
+    }
+    return latencies;
+  }
+
+  private String report(long[] latencies, long elapsedNanos) {
+    Arrays.sort(latencies);
+    double seconds = elapsedNanos / 1e9;
+    return String.format(Locale.ROOT,
+        "%d clients sent %d requests in %.3f s: %.0f requests/s, %d exports not modified.%n"
+            + "Latency p50 %.3f ms, p99 %.3f ms, max %.3f ms.",
+        clients, latencies.length, seconds, latencies.length / seconds, notModified.get(),
+        percentile(latencies, 0.50), percentile(latencies, 0.99),
+        latencies[latencies.length - 1] / 1e6);
+  }
+
+  private static double percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+}
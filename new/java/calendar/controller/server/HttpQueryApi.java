@@ -0,0 +1,262 @@
+package calendar.controller.server;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.SharedCalendarModels;
+import calendar.model.export.ExportFormatBinary;
+import calendar.model.export.ExportFormatCsv;
+import calendar.model.export.ExportFormatiCal;
+import calendar.model.export.ExportFreeBusy;
+import calendar.model.export.InterfaceExportFormat;
+import calendar.model.filter.FilterByDateRange;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Read-only HTTP API over the shared calendars, bound to the loopback interface.
+ * GET /calendars                                      names of the calendars, one per line
+ * GET /calendars/{name}/events?from=DATE&amp;to=DATE  CSV of the events overlapping the dates
+ * GET /calendars/{name}/busy?at=DATETIME              "busy" or "free"
+ * GET /calendars/{name}/freebusy?from=DATE&amp;to=DATE  VFREEBUSY of the busy time in the dates
+ * GET /calendars/{name}/export?format=csv|ical|bin    the whole calendar in the given format
+ * Calendar responses carry an ETag made of the calendar's version, and a request whose
+ * If-None-Match matches it gets 304 Not Modified without a body. Responses are formatted
+ * under the read lock of the calendars and streamed in chunks after it is released, so slow
+ * clients do not hold up commands that change calendars.
+ * Chunked responses stall on delayed ACKs unless the JDK server disables Nagle's algorithm,
+ * so the process should set the system property sun.net.httpserver.nodelay to true before
+ * the first API starts, as CalendarRunner does.
+ */
+public class HttpQueryApi implements Closeable {
+  private static final String PREFIX = "/calendars";
+  private static final int STOP_DELAY_SECONDS = 1;
+
+  private final SharedCalendarModels models;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * Starts the API on a loopback port.
+   *
+   * @param models Calendars to serve.
+   * @param port   Port to listen on, or 0 for any free port.
+   * @throws IOException if the port cannot be bound.
+   */
+  public HttpQueryApi(SharedCalendarModels models, int port) throws IOException {
+    this.models = models;
+    this.server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+
+    AtomicInteger requestThreads = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "calendar-http-" + requestThreads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server.setExecutor(executor);
+    this.server.createContext(PREFIX, this::handle);
+    this.server.start();
+  }
+
+  /**
+   * Gets the port the API listens on.
+   *
+   * @return Bound port.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        sendError(exchange, 405, "Only GET is supported.");
+        return;
+      }
+
+      String[] path = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+      try {
+        if (path.length <= 1) {
+          sendBody(exchange, "text/plain", StandardCharsets.UTF_8, null,
+              new ArrayList<>(models.getCalendarNames()));
+        } else if (path.length == 3) {
+          handleCalendar(exchange, path[1], path[2],
+              parseQuery(exchange.getRequestURI().getRawQuery()));
+        } else {
+          sendError(exchange, 404, "Unknown resource.");
+        }
+      } catch (DateTimeParseException e) {
+        sendError(exchange, 400, "Invalid date or time: " + e.getParsedString());
+      } catch (IllegalArgumentException e) {
+        sendError(exchange, 400, e.getMessage());
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleCalendar(HttpExchange exchange, String name, String resource,
+                              Map<String, String> query) throws IOException {
+    if (!models.getCalendarNames().contains(name)) {
+      sendError(exchange, 404, "Calendar '" + name + "' does not exist.");
+      return;
+    }
+
+    List<String> body;
+    String contentType = "text/plain";
+    Charset charset = StandardCharsets.UTF_8;
+    String etag;
+    Lock lock = models.getCalendarLock().readLock();
+    lock.lock();
+    try {
+      InterfaceCalendar calendar = models.get(name);
+      etag = "\"" + calendar.getVersion() + "-"
+          + Integer.toHexString(System.identityHashCode(calendar)) + "\"";
+      if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        // The JDK server drops the connection after a response without a body, so tell the
+        // client up front instead of letting it reuse a dead connection.
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(304, -1);
+        return;
+      }
+
+      switch (resource) {
+        case "events":
+          LocalDate from = LocalDate.parse(required(query, "from"));
+          LocalDate to = LocalDate.parse(required(query, "to"));
+          ExportFormatCsv csv = new ExportFormatCsv();
+          body = new ArrayList<>();
+          body.add(csv.start());
+          for (InterfaceEvent event : calendar.filter(new FilterByDateRange(from, to))) {
+            body.add(event.export(csv));
+          }
+          contentType = "text/csv";
+          break;
+        case "busy":
+          LocalDateTime at = LocalDateTime.parse(required(query, "at"));
+          body = List.of(calendar.isBusyAt(at) ? "busy" : "free");
+          break;
+        case "freebusy":
+          LocalDate first = LocalDate.parse(required(query, "from"));
+          LocalDate last = LocalDate.parse(required(query, "to"));
+          if (last.isBefore(first)) {
+            throw new IllegalArgumentException("End date must not be before start date.");
+          }
+          ZoneId zone = calendar.getTimeZone().toZoneId();
+          body = new ExportFreeBusy(List.of(calendar)).export(
+              first.atStartOfDay(zone).toInstant(),
+              last.plusDays(1).atStartOfDay(zone).toInstant());
+          contentType = "text/calendar";
+          break;
+        case "export":
+          String format = query.getOrDefault("format", "csv");
+          body = calendar.export(exportFormat(format, calendar));
+          contentType = format.equals("csv") ? "text/csv"
+              : format.equals("ical") ? "text/calendar" : "application/octet-stream";
+          charset = format.equals("bin") ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+          break;
+        default:
+          sendError(exchange, 404, "Unknown resource: " + resource);
+          return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    sendBody(exchange, contentType, charset, etag, body);
+  }
+
+  private InterfaceExportFormat exportFormat(String format, InterfaceCalendar calendar) {
+    switch (format) {
+      case "csv":
+        return new ExportFormatCsv();
+      case "ical":
+        return new ExportFormatiCal(calendar.getName(), calendar.getTimeZone());
+      case "bin":
+        return new ExportFormatBinary();
+      default:
+        throw new IllegalArgumentException("Unknown export format: " + format);
+    }
+  }
+
+  /**
+   * Streams the body in chunks. Binary bodies are written as they are, text bodies with one
+   * line per entry.
+   */
+  private void sendBody(HttpExchange exchange, String contentType, Charset charset,
+                        String etag, List<String> body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=" + charset);
+    if (etag != null) {
+      exchange.getResponseHeaders().set("ETag", etag);
+    }
+    exchange.sendResponseHeaders(200, 0);
+    boolean binary = charset.equals(StandardCharsets.ISO_8859_1);
+    try (Writer out = new BufferedWriter(
+        new OutputStreamWriter(exchange.getResponseBody(), charset), 1 << 16)) {
+      for (String entry : body) {
+        out.write(entry);
+        if (!binary) {
+          out.write('\n');
+        }
+      }
+    }
+  }
+
+  private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+    byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return query;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int equals = pair.indexOf('=');
+      String key = equals < 0 ? pair : pair.substring(0, equals);
+      String value = equals < 0 ? "" : pair.substring(equals + 1);
+      query.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return query;
+  }
+
+  private static String required(Map<String, String> query, String parameter) {
+    String value = query.get(parameter);
+    if (value == null || value.isEmpty()) {
+      throw new IllegalArgumentException("Missing query parameter: " + parameter);
+    }
+    return value;
+  }
+
+  @Override
+  public void close() {
+    server.stop(STOP_DELAY_SECONDS);
+    executor.shutdownNow();
+  }
+}
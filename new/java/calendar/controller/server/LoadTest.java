@@ -0,0 +1,111 @@
+package calendar.controller.server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for a CommandServer. Every client opens its own session and calendar, then sends
+ * a mix of event creations and day prints, one command at a time. The report gives the
+ * throughput over all clients and the latency percentiles of single requests.
+ */
+public class LoadTest {
+  private final SocketAddress address;
+  private final int clients;
+  private final int requestsPerClient;
+
+  /**
+   * Initializes a load test.
+   *
+   * @param address           Address of the server.
+   * @param clients           Number of concurrent sessions.
+   * @param requestsPerClient Number of requests every session sends.
+   */
+  public LoadTest(SocketAddress address, int clients, int requestsPerClient) {
+    if (clients < 1 || requestsPerClient < 1) {
+      throw new IllegalArgumentException("Clients and requests must be positive.");
+    }
+    this.address = address;
+    this.clients = clients;
+    this.requestsPerClient = requestsPerClient;
+  }
+
+  /**
+   * Runs the load test and waits for every client to finish.
+   *
+   * @return Report with throughput and latency percentiles.
+   * @throws IOException if a client cannot talk to the server.
+   */
+  public String run() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<long[]>> results = new ArrayList<>();
+    long start = System.nanoTime();
+    try {
+      for (int i = 0; i < clients; i++) {
+        int client = i;
+        results.add(executor.submit(() -> runClient(client)));
+      }
+      long[] latencies = new long[clients * requestsPerClient];
+      for (int i = 0; i < clients; i++) {
+        System.arraycopy(results.get(i).get(), 0, latencies, i * requestsPerClient,
+            requestsPerClient);
+      }
+      return report(latencies, System.nanoTime() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Load test was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Load test client failed: " + e.getCause().getMessage(),
+          e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long[] runClient(int client) throws IOException {
+    long[] latencies = new long[requestsPerClient];
+    String calendar = "load-" + client + "-" + System.nanoTime();
+    LocalDate firstDay = LocalDate.of(2030, 1, 1);
+
+    try (CommandClient session = new CommandClient(address)) {
+      session.send("create calendar --name " + calendar + " --timezone America/New_York");
+      session.send("use calendar --name " + calendar);
+
+      for (int i = 0; i < requestsPerClient; i++) {
+        LocalDate day = firstDay.plusDays(i / 8);
+        String command = i % 4 == 3
+            ? "print events on " + day
+            : "create event Load" + i + " from " + day + "T" + String.format("%02d", 8 + i % 8)
+                + ":00 to " + day + "T" + String.format("%02d", 8 + i % 8) + ":30";
+        long start = System.nanoTime();
+        session.send(command);
+        latencies[i] = System.nanoTime() - start;
+      }
+    }
+    return latencies;
+  }
+
+  private String report(long[] latencies, long elapsedNanos) {
+    Arrays.sort(latencies);
+    double seconds = elapsedNanos / 1e9;
+    return String.format(Locale.ROOT,
+        "%d clients sent %d requests in %.3f s: %.0f requests/s.%n"
+            + "Latency p50 %.3f ms, p99 %.3f ms, max %.3f ms.",
+        clients, latencies.length, seconds, latencies.length / seconds,
+        percentile(latencies, 0.50), percentile(latencies, 0.99),
+        latencies[latencies.length - 1] / 1e6);
+  }
+
+  private static double percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+}
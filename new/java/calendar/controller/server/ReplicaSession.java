@@ -0,0 +1,45 @@
+package calendar.controller.server;
+
+import calendar.controller.CommandLexer;
+import calendar.controller.CommandTrie;
+import calendar.controller.MultiCalendarController;
+import calendar.model.InterfaceCalendarModels;
+import java.io.StringReader;
+
+/**
+ * Replays command lines against calendars outside of a client session, e.g. the logged
+ * commands of one leader session on a follower. It keeps its own active calendar, so every
+ * command runs against the same calendar it ran against where it was first executed.
+ */
+class ReplicaSession extends MultiCalendarController {
+  private final InterfaceCalendarModels sessionModels;
+  private final CommandTrie commandTrie;
+  private final CommandLexer lexer;
+
+  ReplicaSession(InterfaceCalendarModels sessionModels) {
+    super(sessionModels, new StringReader(""), message -> { });
+    this.sessionModels = sessionModels;
+    this.commandTrie = compileCommands();
+    this.lexer = new CommandLexer();
+  }
+
+  /**
+   * Makes the calendar registered under the given name the active calendar, if it exists.
+   */
+  void use(String calendarName) {
+    try {
+      sessionModels.setActiveCalendar(calendarName);
+    } catch (IllegalArgumentException e) {
+      // The calendar is gone; commands that need one fail like they did on the leader.
+    }
+  }
+
+  /**
+   * Runs a command line.
+   *
+   * @return Message the command line produced.
+   */
+  String replay(String command) {
+    return apply(commandTrie, lexer.tokenize(command));
+  }
+}
@@ -0,0 +1,168 @@
+package calendar.controller.server;
+
+import calendar.model.ModelsSnapshot;
+import calendar.model.SharedCalendarModels;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Follower side of a ReplicationLog. It loads the leader's snapshot into calendars that must
+ * still be empty, then applies every logged command in order under the write lock of the
+ * calendars, so a read-only server on the same calendars always sees a state the leader had.
+ * The follower measures its lag from the timestamps of the leader: how many entries it is
+ * behind the last sequence number it heard of, and how long after being logged on the leader
+ * the last entry was applied.
+ */
+public class ReplicationFollower implements Closeable {
+  private final SharedCalendarModels models;
+  private final SocketChannel channel;
+  private final BufferedReader in;
+  private final Map<Long, ReplicaSession> sessions;
+  private volatile long appliedSeq;
+  private volatile long leaderSeq;
+  private volatile long lastDelayMicros;
+  private volatile long maxDelayMicros;
+
+  /**
+   * Connects to the replication log of a leader.
+   *
+   * @param models  Empty calendars to replicate into.
+   * @param address Address of the leader's replication log.
+   * @throws IOException if the leader cannot be reached.
+   */
+  public ReplicationFollower(SharedCalendarModels models, SocketAddress address)
+      throws IOException {
+    if (!models.getCalendarNames().isEmpty()) {
+      throw new IllegalArgumentException("A follower must start without calendars.");
+    }
+    this.models = models;
+    this.channel = CommandServer.connect(address);
+    this.in = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(channel), StandardCharsets.UTF_8), 64 << 10);
+    this.sessions = new HashMap<>();
+  }
+
+  /**
+   * Loads the snapshot and applies entries until the leader goes away or the follower is
+   * closed.
+   *
+   * @throws IOException if the connection fails or the leader sends something unexpected.
+   */
+  public void run() throws IOException {
+    for (String line = in.readLine(); line != null; line = in.readLine()) {
+      String[] fields = line.split(ReplicationLog.SEPARATOR, 5);
+      switch (fields[0]) {
+        case "snapshot":
+          loadSnapshot(Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+          break;
+        case "active":
+          session(Long.parseLong(fields[1])).use(fields[2]);
+          break;
+        case "entry":
+          applyEntry(fields);
+          break;
+        case "close":
+          sessions.remove(Long.parseLong(fields[3]));
+          applied(Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+          break;
+        case "heartbeat":
+          leaderSeq = Math.max(leaderSeq, Long.parseLong(fields[1]));
+          break;
+        default:
+          throw new IOException("Unexpected replication line: " + line);
+      }
+    }
+  }
+
+  private void loadSnapshot(long seq, int length) throws IOException {
+    char[] snapshot = new char[length];
+    int read = 0;
+    while (read < length) {
+      int count = in.read(snapshot, read, length - read);
+      if (count < 0) {
+        throw new EOFException("Leader closed the connection during the snapshot.");
+      }
+      read += count;
+    }
+    Lock lock = models.getCalendarLock().writeLock();
+    lock.lock();
+    try {
+      ModelsSnapshot.read(new BufferedReader(new StringReader(new String(snapshot))), models);
+    } finally {
+      lock.unlock();
+    }
+    appliedSeq = seq;
+    leaderSeq = Math.max(leaderSeq, seq);
+  }
+
+  private void applyEntry(String[] fields) {
+    ReplicaSession session = session(Long.parseLong(fields[3]));
+    Lock lock = models.getCalendarLock().writeLock();
+    lock.lock();
+    try {
+      session.replay(fields[4]);
+    } finally {
+      lock.unlock();
+    }
+    applied(Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+  }
+
+  private void applied(long seq, long loggedMicros) {
+    long delay = Math.max(ReplicationLog.nowMicros() - loggedMicros, 0);
+    lastDelayMicros = delay;
+    maxDelayMicros = Math.max(maxDelayMicros, delay);
+    appliedSeq = seq;
+    leaderSeq = Math.max(leaderSeq, seq);
+  }
+
+  private ReplicaSession session(long sessionId) {
+    return sessions.computeIfAbsent(sessionId, id -> new ReplicaSession(models.newSession()));
+  }
+
+  /**
+   * Gets the sequence number of the last applied entry.
+   *
+   * @return Number of entries of the leader's log that were applied.
+   */
+  public long getAppliedSeq() {
+    return appliedSeq;
+  }
+
+  /**
+   * Gets how many entries the follower is behind the leader, as far as it knows.
+   *
+   * @return Number of entries the leader logged that were not applied yet.
+   */
+  public long getLagEntries() {
+    return leaderSeq - appliedSeq;
+  }
+
+  /**
+   * Describes the replication lag.
+   *
+   * @return Applied entries, entries behind, and the delay of the last and slowest entry.
+   */
+  public String getStatus() {
+    return String.format(Locale.ROOT,
+        "Applied %d entries, %d behind; last entry applied %.3f ms after the leader logged it "
+            + "(max %.3f ms).",
+        appliedSeq, getLagEntries(), lastDelayMicros / 1e3, maxDelayMicros / 1e3);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,277 @@
+package calendar.controller.server;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.ModelsSnapshot;
+import calendar.model.SharedCalendarModels;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Mutation log of a leader server that is streamed to follower processes.
+ * Every command of a session that may change the calendars is logged with the session it
+ * came from, in the order the commands held the write lock. Commands are replicated rather
+ * than the events they produce, so a follower that replays the log session by session ends up
+ * with the same calendars, including the active calendar each command ran against.
+ * A follower first receives a snapshot of the calendars and the active calendar of every
+ * open session, then every entry logged after the snapshot. Lines sent to a follower:
+ * - snapshot TAB seq TAB length, followed by length chars of a ModelsSnapshot
+ * - active TAB session TAB calendar name, for every open session with an active calendar
+ * - entry TAB seq TAB micros TAB session TAB command, for a logged command
+ * - close TAB seq TAB micros TAB session, when a session ended
+ * - heartbeat TAB seq TAB micros, when no entry was logged for HEARTBEAT_MILLIS
+ * where micros is the leader's wall clock in microseconds since the epoch, which lets a
+ * follower on the same machine measure its lag. A follower that falls MAX_BACKLOG lines
+ * behind is disconnected instead of holding up the leader.
+ */
+public class ReplicationLog implements Closeable {
+  public static final int MAX_BACKLOG = 1 << 16;
+  public static final long HEARTBEAT_MILLIS = 100;
+  static final String SEPARATOR = "\t";
+
+  private final SharedCalendarModels models;
+  private final ServerSocketChannel serverChannel;
+  private final Path socketFile;
+  private final Map<Long, InterfaceCalendarModels> sessions;
+  private final List<Follower> followers;
+  private volatile long seq;
+  private long lastSessionId;
+
+  /**
+   * Starts listening for followers on the given address.
+   *
+   * @param models  Calendars of the leader.
+   * @param address Address to listen on, see {@link CommandServer#parseAddress(String)}.
+   * @throws IOException if the address cannot be bound.
+   */
+  public ReplicationLog(SharedCalendarModels models, SocketAddress address) throws IOException {
+    this.models = models;
+    this.serverChannel = CommandServer.bind(address);
+    this.socketFile = CommandServer.socketFile(address);
+    this.sessions = new HashMap<>();
+    this.followers = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Gets the address followers connect to.
+   *
+   * @return Bound address, with the actual port if port 0 was requested.
+   * @throws IOException if the address cannot be read.
+   */
+  public SocketAddress getAddress() throws IOException {
+    return serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Gets the number of entries logged so far.
+   *
+   * @return Sequence number of the last entry.
+   */
+  public long getSeq() {
+    return seq;
+  }
+
+  /**
+   * Accepts followers until the log is closed. Every follower is served by its own thread.
+   *
+   * @throws IOException if accepting a connection fails.
+   */
+  public void serve() throws IOException {
+    try {
+      while (true) {
+        SocketChannel channel = serverChannel.accept();
+        try {
+          Follower follower = new Follower(channel);
+          Thread thread = new Thread(follower, "calendar-replication-" + follower.hashCode());
+          thread.setDaemon(true);
+          thread.start();
+        } catch (IOException e) {
+          channel.close();
+        }
+      }
+    } catch (ClosedChannelException e) {
+      // The log was closed.
+    }
+  }
+
+  /**
+   * Registers a session whose commands are logged. Ids are handed out by the log, so that
+   * sessions of every server logging to it, e.g. a CommandServer and a BinaryCommandServer,
+   * never share one.
+   *
+   * @return Id to log the commands of the session with.
+   */
+  synchronized long sessionOpened(InterfaceCalendarModels sessionModels) {
+    long sessionId = ++lastSessionId;
+    sessions.put(sessionId, sessionModels);
+    return sessionId;
+  }
+
+  synchronized void sessionClosed(long sessionId) {
+    sessions.remove(sessionId);
+    publish("close" + SEPARATOR + (++seq) + SEPARATOR + nowMicros() + SEPARATOR + sessionId);
+  }
+
+  /**
+   * Logs a command of a session. Must be called while holding the write lock of the
+   * calendars, right after the command ran.
+   */
+  synchronized void append(long sessionId, List<String> tokens) {
+    publish("entry" + SEPARATOR + (++seq) + SEPARATOR + nowMicros() + SEPARATOR + sessionId
+        + SEPARATOR + joinTokens(tokens));
+  }
+
+  private void publish(String line) {
+    for (Follower follower : followers) {
+      if (!follower.backlog.offer(line)) {
+        followers.remove(follower);
+        follower.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Takes a snapshot of the calendars and open sessions and registers the follower for the
+   * entries that come after it. The read lock keeps commands from running in between.
+   */
+  private String register(Follower follower) throws IOException {
+    Lock lock = models.getCalendarLock().readLock();
+    lock.lock();
+    try {
+      synchronized (this) {
+        StringWriter snapshot = new StringWriter();
+        ModelsSnapshot.write(models, snapshot);
+        StringBuilder header = new StringBuilder()
+            .append("snapshot").append(SEPARATOR).append(seq).append(SEPARATOR)
+            .append(snapshot.getBuffer().length()).append('\n')
+            .append(snapshot.getBuffer());
+        for (Map.Entry<Long, InterfaceCalendarModels> session : sessions.entrySet()) {
+          InterfaceCalendar active = session.getValue().getActiveCalendar();
+          if (active != null) {
+            header.append("active").append(SEPARATOR).append(session.getKey())
+                .append(SEPARATOR).append(active.getName()).append('\n');
+          }
+        }
+        followers.add(follower);
+        return header.toString();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Joins tokens into a command line that CommandLexer splits into the same tokens again.
+   */
+  static String joinTokens(List<String> tokens) {
+    StringBuilder line = new StringBuilder();
+    for (String token : tokens) {
+      if (line.length() > 0) {
+        line.append(' ');
+      }
+      boolean quote = token.isEmpty();
+      for (int i = 0; i < token.length() && !quote; i++) {
+        quote = token.charAt(i) <= ' ';
+      }
+      if (quote) {
+        line.append('"').append(token).append('"');
+      } else {
+        line.append(token);
+      }
+    }
+    return line.toString();
+  }
+
+  static long nowMicros() {
+    Instant now = Instant.now();
+    return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverChannel.close();
+    for (Follower follower : followers) {
+      follower.disconnect();
+    }
+    followers.clear();
+    if (socketFile != null) {
+      Files.deleteIfExists(socketFile);
+    }
+  }
+
+  /**
+   * Connection to one follower, with the lines that still have to be sent to it.
+   */
+  private class Follower implements Runnable {
+    private final SocketChannel channel;
+    private final Writer out;
+    private final BlockingQueue<String> backlog;
+
+    private Follower(SocketChannel channel) throws IOException {
+      this.channel = channel;
+      this.out = new BufferedWriter(new OutputStreamWriter(
+          Channels.newOutputStream(channel), StandardCharsets.UTF_8), 64 << 10);
+      this.backlog = new ArrayBlockingQueue<>(MAX_BACKLOG);
+    }
+
+    @Override
+    public void run() {
+      try (channel) {
+        out.write(register(this));
+        out.flush();
+        List<String> batch = new ArrayList<>();
+        while (channel.isOpen()) {
+          String line = backlog.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+          if (line == null) {
+            out.write("heartbeat" + SEPARATOR + seq + SEPARATOR + nowMicros() + "\n");
+          } else {
+            batch.add(line);
+            backlog.drainTo(batch);
+            for (String entry : batch) {
+              out.write(entry);
+              out.write('\n');
+            }
+            batch.clear();
+          }
+          out.flush();
+        }
+      } catch (IOException e) {
+        // The follower disconnected.
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        followers.remove(this);
+      }
+    }
+
+    private void disconnect() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Already closed.
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package calendar.controller.server;
+
+import calendar.controller.CommandTrie;
+import calendar.controller.MultiCalendarController;
+import calendar.model.InterfaceCalendarModels;
+import calendar.view.simple.InterfaceView;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Controller of a single server session. Commands that only read calendars run under the
+ * read lock of the shared calendars, so sessions can print and export at the same time,
+ * while every other command runs under the write lock. Commands run under the write lock are
+ * appended to the replication log, if there is one, while the lock is still held, so the log
+ * has the order in which they changed the calendars.
+ */
+class SessionController extends MultiCalendarController {
+  private static final Set<String> READ_ONLY_COMMANDS = Set.of("print", "show", "export");
+  private static final String READ_ONLY_ERROR =
+      "Error: This server is a read-only replica; send changes to the leader.";
+  private final ReadWriteLock calendarLock;
+  private ReplicationLog replicationLog;
+  private long sessionId;
+  private boolean readOnly;
+  private CommandTrie commandTrie;
+
+  SessionController(InterfaceCalendarModels sessionModels, Readable input, InterfaceView view,
+                    ReadWriteLock calendarLock) {
+    super(sessionModels, input, view);
+    this.calendarLock = calendarLock;
+  }
+
+  /**
+   * Appends every command that may change the calendars to the given log.
+   */
+  void replicateTo(ReplicationLog replicationLog, long sessionId) {
+    this.replicationLog = replicationLog;
+    this.sessionId = sessionId;
+  }
+
+  /**
+   * Rejects every command that may change the calendars, except for "use calendar".
+   */
+  void setReadOnly() {
+    this.readOnly = true;
+  }
+
+  /**
+   * Runs a single command that did not come from the input of the session, e.g. a request of
+   * the binary protocol, like a command line read by {@link #run()}.
+   *
+   * @param tokens Tokens of the command line.
+   * @return Message of the command, starting with "Error" or "Invalid command" if it failed.
+   */
+  String runCommand(List<String> tokens) {
+    if (commandTrie == null) {
+      commandTrie = compileCommands();
+    }
+    return apply(commandTrie, tokens);
+  }
+
+  @Override
+  protected String apply(CommandTrie commandTrie, List<String> tokens) {
+    boolean reads = READ_ONLY_COMMANDS.contains(tokens.get(0));
+    if (readOnly && !reads && !tokens.get(0).equals("use")) {
+      return READ_ONLY_ERROR;
+    }
+    Lock lock = reads ? calendarLock.readLock() : calendarLock.writeLock();
+    lock.lock();
+    try {
+      String result = super.apply(commandTrie, tokens);
+      if (!reads && replicationLog != null) {
+        replicationLog.append(sessionId, tokens);
+      }
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package calendar.controller.server;
+
+import calendar.view.simple.InterfaceView;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * View that sends every result of a session to its client. A response is the number of
+ * lines of the message on a line of its own, followed by those lines, so clients know where
+ * each response ends even if it is empty or spans several lines.
+ * Once the client is gone, messages are dropped.
+ */
+class SessionView implements InterfaceView {
+  private final Writer out;
+  private boolean closed;
+
+  SessionView(Writer out) {
+    this.out = out;
+    this.closed = false;
+  }
+
+  @Override
+  public void renderMessage(String message) {
+    if (closed) {
+      return;
+    }
+    String text = message == null ? "" : message.stripTrailing();
+    try {
+      if (text.isEmpty()) {
+        out.write("0\n");
+      } else {
+        String[] lines = text.split("\r?\n", -1);
+        out.write(lines.length + "\n");
+        for (String line : lines) {
+          out.write(line);
+          out.write('\n');
+        }
+      }
+      out.flush();
+    } catch (IOException e) {
+      closed = true;
+    }
+  }
+}
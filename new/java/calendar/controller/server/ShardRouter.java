@@ -0,0 +1,432 @@
+package calendar.controller.server;
+
+import calendar.controller.CommandLexer;
+import calendar.controller.LineReader;
+import calendar.model.CalendarModel;
+import calendar.model.CalendarModelsImpl;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.export.ExportFormatiCal;
+import calendar.model.importer.ImportFormatiCal;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Front-end that spreads calendars over several CommandServer processes, called shards.
+ * Clients talk to the router exactly like to a CommandServer. Calendar commands are sent to
+ * the shard that owns the named calendar, and every other command to the shard of the
+ * session's active calendar. A calendar belongs to the shard the ConsistentHashRing assigns
+ * its name to, except for renamed calendars, which stay where they are; the router keeps
+ * those placements in memory.
+ * A copy whose target calendar is on another shard runs in two phases. Prepare: both
+ * calendars are exported by their shards and the copy command runs on local copies of them,
+ * which produces the exact result and error a single process would. Commit: if the copy added
+ * events, the target calendar is imported back into its shard, which only adds the new
+ * events. Cross-shard copies and calendar commands hold the router's write lock and every
+ * other command its read lock, so no command reaches the shards between the two phases.
+ * Shards must run on the same machine, since calendars move between phases as files.
+ */
+public class ShardRouter implements Closeable {
+  private static final Set<String> COPY_COMMANDS = Set.of("event", "events");
+  private static final Pattern USING_TIME_ZONE = Pattern.compile("\\(([^()]+)\\)$");
+
+  private final List<SocketAddress> shards;
+  private final ConsistentHashRing ring;
+  private final Map<String, Integer> placements;
+  private final ReadWriteLock routingLock;
+  private final ServerSocketChannel serverChannel;
+  private final Path socketFile;
+  private final Path transferDirectory;
+  private final Map<Integer, CommandClient> transferClients;
+  private final AtomicLong transfers;
+  private final ExecutorService sessions;
+
+  /**
+   * Starts listening on the given address.
+   *
+   * @param address Address to listen on, see {@link CommandServer#parseAddress(String)}.
+   * @param shards  Addresses of the shard servers. The order decides which calendars each
+   *                shard owns, so it must stay the same for as long as the shards keep their
+   *                calendars.
+   * @throws IOException if the address cannot be bound.
+   */
+  public ShardRouter(SocketAddress address, List<SocketAddress> shards) throws IOException {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("The router needs at least one shard.");
+    }
+    this.shards = List.copyOf(shards);
+    this.ring = new ConsistentHashRing(shards.size());
+    this.placements = new ConcurrentHashMap<>();
+    this.routingLock = new ReentrantReadWriteLock();
+    this.transferDirectory = Files.createTempDirectory("calendar-router");
+    this.transferClients = new HashMap<>();
+    this.transfers = new AtomicLong();
+    this.serverChannel = CommandServer.bind(address);
+    this.socketFile = CommandServer.socketFile(address);
+
+    AtomicInteger sessionCount = new AtomicInteger();
+    this.sessions = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "calendar-router-session-" + sessionCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Gets the address the router listens on.
+   *
+   * @return Bound address, with the actual port if port 0 was requested.
+   * @throws IOException if the address cannot be read.
+   */
+  public SocketAddress getAddress() throws IOException {
+    return serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Finds the shard that owns a calendar name.
+   *
+   * @param calendarName Name of the calendar.
+   * @return Index of the shard in the list given to the constructor.
+   */
+  public int shardFor(String calendarName) {
+    Integer placed = placements.get(calendarName);
+    return placed != null ? placed : ring.nodeFor(calendarName);
+  }
+
+  /**
+   * Accepts sessions until the router is closed.
+   *
+   * @throws IOException if accepting a connection fails.
+   */
+  public void serve() throws IOException {
+    try {
+      while (true) {
+        SocketChannel channel = serverChannel.accept();
+        sessions.execute(() -> runSession(channel));
+      }
+    } catch (ClosedChannelException e) {
+      // The router was closed.
+    }
+  }
+
+  private void runSession(SocketChannel channel) {
+    try (channel; RouterSession session = new RouterSession()) {
+      LineReader input = new LineReader(new InputStreamReader(
+          Channels.newInputStream(channel), StandardCharsets.UTF_8));
+      SessionView view = new SessionView(new BufferedWriter(new OutputStreamWriter(
+          Channels.newOutputStream(channel), StandardCharsets.UTF_8)));
+      CommandLexer lexer = new CommandLexer();
+
+      for (String line = input.readLine(); line != null; line = input.readLine()) {
+        List<String> tokens = lexer.tokenize(line.trim());
+        if (tokens.isEmpty()) {
+          continue;
+        }
+        if (tokens.get(0).equals("exit")) {
+          view.renderMessage("Exited calendar.");
+          return;
+        }
+        view.renderMessage(session.route(tokens));
+      }
+    } catch (IOException e) {
+      // The client disconnected; the session ends with it.
+    }
+  }
+
+  /**
+   * Connections of one client session to the shards, opened when first needed.
+   */
+  private class RouterSession implements Closeable {
+    private final Map<Integer, CommandClient> clients = new HashMap<>();
+    private String activeName;
+    private int activeShard = -1;
+
+    private String route(List<String> tokens) {
+      String first = tokens.get(0);
+      String second = tokens.size() > 1 ? tokens.get(1) : "";
+      String line = ReplicationLog.joinTokens(tokens);
+
+      if (second.equals("calendar")
+          && (first.equals("create") || first.equals("use") || first.equals("edit"))) {
+        return routeCalendarCommand(first, tokens, line);
+      }
+      if (first.equals("copy") && COPY_COMMANDS.contains(second.toLowerCase())
+          && activeShard >= 0) {
+        String target = valueAfter(tokens, "--target");
+        if (target != null && shardFor(target) != activeShard) {
+          return copyAcrossShards(target, line);
+        }
+      }
+
+      Lock lock = routingLock.readLock();
+      lock.lock();
+      try {
+        // Without an active calendar, any shard gives the same error as a single process.
+        return send(activeShard >= 0 ? activeShard : 0, line);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private String routeCalendarCommand(String first, List<String> tokens, String line) {
+      String name = valueAfter(tokens, "--name");
+      if (name == null) {
+        return send(0, line);
+      }
+      Lock lock = routingLock.writeLock();
+      lock.lock();
+      try {
+        int shard = shardFor(name);
+        int property = tokens.indexOf("--property");
+        String newName = first.equals("edit") && property >= 0 && property + 2 < tokens.size()
+            && tokens.get(property + 1).equals("name") ? tokens.get(property + 2) : null;
+        if (newName != null && shardFor(newName) != shard
+            && exists(shardFor(newName), newName) && exists(shard, name)) {
+          // The shard that holds the name cannot see it, so the router reports the clash.
+          return "Error: Calendar '" + newName + "' already exists.";
+        }
+
+        String result = send(shard, line);
+        if (result.startsWith("Error") || first.equals("create")) {
+          return result;
+        }
+        if (first.equals("use")) {
+          activeName = name;
+          activeShard = shard;
+        } else if (newName != null) {
+          placements.remove(name);
+          if (ring.nodeFor(newName) != shard) {
+            placements.put(newName, shard);
+          }
+          if (name.equals(activeName)) {
+            activeName = newName;
+          }
+        }
+        return result;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Copies events from the active calendar to a calendar on another shard in two phases.
+     */
+    private String copyAcrossShards(String targetName, String line) {
+      Lock lock = routingLock.writeLock();
+      lock.lock();
+      long transfer = transfers.incrementAndGet();
+      Path sourceFile = transferDirectory.resolve("transfer-" + transfer + "-source.ics");
+      Path targetFile = transferDirectory.resolve("transfer-" + transfer + "-target.ics");
+      Path resultFile = transferDirectory.resolve("transfer-" + transfer + "-result.ics");
+      try {
+        // Prepare: read both calendars; nothing changes on the shards.
+        int targetShard = shardFor(targetName);
+        TimeZone targetZone = exportCalendar(targetShard, targetName, targetFile);
+        if (targetZone == null) {
+          // The target does not exist: the source shard reports the same error as ever.
+          return send(activeShard, line);
+        }
+        TimeZone sourceZone = exportCalendar(activeShard, activeName, sourceFile);
+        if (sourceZone == null) {
+          return send(activeShard, line);
+        }
+
+        InterfaceCalendarModels local = new CalendarModelsImpl();
+        loadCalendar(local, activeName, sourceZone, sourceFile);
+        InterfaceCalendar target = loadCalendar(local, targetName, targetZone, targetFile);
+        long version = target.getVersion();
+        ReplicaSession copy = new ReplicaSession(local);
+        copy.use(activeName);
+        String result = copy.replay(line);
+        if (target.getVersion() == version) {
+          return result;
+        }
+
+        // Commit: the shard only adds the events it does not have yet, i.e. the copied ones.
+        writeCalendar(target, targetName, targetZone, resultFile);
+        CommandClient client = transferClient(targetShard);
+        client.send("use calendar --name " + ReplicationLog.joinTokens(List.of(targetName)));
+        String imported = client.send("import cal "
+            + ReplicationLog.joinTokens(List.of(resultFile.toString())));
+        if (!imported.startsWith("Imported")) {
+          return "Error: Copy to calendar '" + targetName + "' failed: " + imported;
+        }
+        return result;
+      } catch (IOException e) {
+        return "Error: Copy to calendar '" + targetName + "' failed: " + e.getMessage();
+      } finally {
+        lock.unlock();
+        deleteQuietly(sourceFile);
+        deleteQuietly(targetFile);
+        deleteQuietly(resultFile);
+      }
+    }
+
+    private String send(int shard, String line) {
+      try {
+        CommandClient client = clients.get(shard);
+        if (client == null) {
+          client = new CommandClient(shards.get(shard));
+          clients.put(shard, client);
+        }
+        return client.send(line);
+      } catch (IOException e) {
+        closeQuietly(clients.remove(shard));
+        return "Error: Shard " + shards.get(shard) + " is unavailable: " + e.getMessage();
+      }
+    }
+
+    @Override
+    public void close() {
+      for (CommandClient client : clients.values()) {
+        closeQuietly(client);
+      }
+      clients.clear();
+    }
+  }
+
+  /**
+   * Has a shard export a calendar in the iCal format through the router's own connection.
+   *
+   * @return Time zone of the calendar, or null if the shard does not have it.
+   */
+  private TimeZone exportCalendar(int shard, String name, Path file) throws IOException {
+    CommandClient client = transferClient(shard);
+    Matcher zone = USING_TIME_ZONE.matcher(
+        client.send("use calendar --name " + ReplicationLog.joinTokens(List.of(name))));
+    if (!zone.find()) {
+      return null;
+    }
+    String fileName = file.toString();
+    String exported = client.send("export cal " + ReplicationLog.joinTokens(
+        List.of(fileName.substring(0, fileName.length() - ".ics".length()) + ".ical")));
+    if (exported.startsWith("Error")) {
+      throw new IOException(exported);
+    }
+    return TimeZone.getTimeZone(zone.group(1));
+  }
+
+  /**
+   * Checks whether a shard has a calendar, through the router's own connection.
+   */
+  private boolean exists(int shard, String name) {
+    try {
+      return !transferClient(shard)
+          .send("use calendar --name " + ReplicationLog.joinTokens(List.of(name)))
+          .startsWith("Error");
+    } catch (IOException e) {
+      closeQuietly(transferClients.remove(shard));
+      return false;
+    }
+  }
+
+  private static InterfaceCalendar loadCalendar(InterfaceCalendarModels models, String name,
+                                                TimeZone timeZone, Path file)
+      throws IOException {
+    InterfaceCalendar calendar =
+        new CalendarModel.CalendarBuilder().name(name).timeZone(timeZone).build();
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      new ImportFormatiCal().importInto(reader, calendar);
+    }
+    models.add(name, calendar, timeZone);
+    return calendar;
+  }
+
+  private static void writeCalendar(InterfaceCalendar calendar, String name,
+                                    TimeZone timeZone, Path file) throws IOException {
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (String entry : calendar.export(new ExportFormatiCal(name, timeZone))) {
+        out.write(entry);
+        out.write("\n");
+      }
+    }
+  }
+
+  /**
+   * Gets the router's own connection to a shard, used for transfers while holding the write
+   * lock, so the active calendars of client sessions stay untouched.
+   */
+  private CommandClient transferClient(int shard) throws IOException {
+    CommandClient client = transferClients.get(shard);
+    if (client == null) {
+      client = new CommandClient(shards.get(shard));
+      transferClients.put(shard, client);
+    }
+    return client;
+  }
+
+  private static String valueAfter(List<String> tokens, String keyword) {
+    int index = tokens.indexOf(keyword);
+    return index >= 0 && index + 1 < tokens.size() ? tokens.get(index + 1) : null;
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // Already closed.
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // Left in the temporary directory.
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverChannel.close();
+    sessions.shutdownNow();
+    routingLock.writeLock().lock();
+    try {
+      for (CommandClient client : transferClients.values()) {
+        closeQuietly(client);
+      }
+      transferClients.clear();
+    } finally {
+      routingLock.writeLock().unlock();
+    }
+    if (socketFile != null) {
+      Files.deleteIfExists(socketFile);
+    }
+    try (Stream<Path> files = Files.list(transferDirectory)) {
+      files.forEach(ShardRouter::deleteQuietly);
+    }
+    Files.deleteIfExists(transferDirectory);
+  }
+}
@@ -0,0 +1,52 @@
+package calendar.controller.server;
+
+import calendar.model.ShardedCalendarModels;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CommandServer whose calendars are pinned to the shards of ShardedCalendarModels instead of
+ * being guarded by one read-write lock, so sessions on calendars of different shards run in
+ * parallel. Sessions speak the same protocol as on CommandServer.
+ */
+public class ShardedCommandServer extends CommandServer {
+  private final ShardedCalendarModels models;
+
+  /**
+   * Starts listening on the given address.
+   *
+   * @param models  Calendars shared by all sessions.
+   * @param address Address to listen on, see {@link CommandServer#parseAddress(String)}.
+   * @throws IOException if the address cannot be bound.
+   */
+  public ShardedCommandServer(ShardedCalendarModels models, SocketAddress address)
+      throws IOException {
+    super(address);
+    this.models = models;
+  }
+
+  @Override
+  protected void runSession(SocketChannel channel) {
+    try (channel) {
+      InputStreamReader input = new InputStreamReader(
+          Channels.newInputStream(channel), StandardCharsets.UTF_8);
+      BufferedWriter output = new BufferedWriter(new OutputStreamWriter(
+          Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+      new ShardedSessionController(models, input, new SessionView(output)).run();
+    } catch (IOException e) {
+      // The client disconnected; the session ends with it.
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    models.close();
+  }
+}
@@ -0,0 +1,49 @@
+package calendar.controller.server;
+
+import calendar.controller.CommandTrie;
+import calendar.controller.MultiCalendarController;
+import calendar.controller.TokenReader;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.ShardedCalendarModels;
+import calendar.view.simple.InterfaceView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controller of a single session on ShardedCalendarModels. A command on the active calendar
+ * runs as a whole on that calendar's shard, so it needs no lock and only waits for commands
+ * on calendars of the same shard. Commands that use several calendars or replace one, i.e.
+ * copies, "edit calendar", "export busy" and "print overlay", run while every shard is
+ * parked. Creating and selecting calendars only touches the calendar registry and runs on
+ * the session thread.
+ */
+class ShardedSessionController extends MultiCalendarController {
+  private final ShardedCalendarModels shardedModels;
+
+  ShardedSessionController(ShardedCalendarModels shardedModels, Readable input,
+                           InterfaceView view) {
+    this(shardedModels, shardedModels.newSession(), input, view);
+  }
+
+  private ShardedSessionController(ShardedCalendarModels shardedModels,
+                                   InterfaceCalendarModels sessionModels, Readable input,
+                                   InterfaceView view) {
+    super(sessionModels, input, view);
+    this.shardedModels = shardedModels;
+  }
+
+  @Override
+  protected String apply(CommandTrie commandTrie, List<String> tokens) {
+    TokenReader tokenReader = new TokenReader(new ArrayList<>(tokens));
+    CommandTrie.CompiledCommand command = commandTrie.match(tokenReader.next(), tokenReader);
+    if (command != null && CROSS_CALENDAR_COMMANDS.contains(command.getKey())) {
+      return shardedModels.exclusive(() -> super.apply(commandTrie, tokens));
+    }
+    InterfaceCalendar active = getActiveCalendar();
+    if (command == null || !command.requiresCalendar() || active == null) {
+      return super.apply(commandTrie, tokens);
+    }
+    return shardedModels.onShardOf(active, () -> super.apply(commandTrie, tokens));
+  }
+}
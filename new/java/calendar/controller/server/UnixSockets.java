@@ -0,0 +1,85 @@
+package calendar.controller.server;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Package-protected access to Unix domain sockets. They only exist from Java 16 on, while the
+ * project targets Java 11, so they are reached through reflection and are simply unavailable
+ * on older runtimes.
+ */
+final class UnixSockets {
+  private static final String ADDRESS_CLASS = "java.net.UnixDomainSocketAddress";
+
+  private UnixSockets() {
+  }
+
+  /**
+   * Whether an address is a Unix domain socket address.
+   */
+  static boolean isUnix(SocketAddress address) {
+    return address != null && address.getClass().getName().equals(ADDRESS_CLASS);
+  }
+
+  /**
+   * Creates the address of a socket file.
+   *
+   * @throws IllegalArgumentException if the runtime has no Unix domain sockets.
+   */
+  static SocketAddress address(String path) {
+    try {
+      return (SocketAddress) Class.forName(ADDRESS_CLASS).getMethod("of", String.class)
+          .invoke(null, path);
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      throw new IllegalArgumentException("Unix domain sockets need Java 16 or later.");
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalArgumentException("Invalid socket file: " + path);
+    }
+  }
+
+  /**
+   * Gets the socket file of a Unix domain socket address.
+   */
+  static Path path(SocketAddress address) {
+    try {
+      return (Path) address.getClass().getMethod("getPath").invoke(address);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot read socket file of " + address, e);
+    }
+  }
+
+  /**
+   * Opens an unbound server channel for Unix domain sockets.
+   */
+  static ServerSocketChannel openServer() throws IOException {
+    return (ServerSocketChannel) open(ServerSocketChannel.class);
+  }
+
+  /**
+   * Opens an unconnected channel for Unix domain sockets.
+   */
+  static SocketChannel openClient() throws IOException {
+    return (SocketChannel) open(SocketChannel.class);
+  }
+
+  private static Object open(Class<?> channelClass) throws IOException {
+    try {
+      Method open = channelClass.getMethod("open", ProtocolFamily.class);
+      return open.invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+    } catch (ReflectiveOperationException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unix domain sockets need Java 16 or later.");
+    }
+  }
+}
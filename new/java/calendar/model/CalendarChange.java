@@ -0,0 +1,166 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single change to an event of a calendar, as reported to an InterfaceChangeListener.
+ * Keeps the identity (subject, start, end) the event had before and after the change, since
+ * the event itself may be changed again later.
+ * The model cannot delete events, so an event that is moved or renamed is reported as
+ * modified, with the span it was removed from as its old span.
+ */
+public class CalendarChange {
+
+  /**
+   * Kind of change made to an event.
+   */
+  public enum Kind {
+    ADDED,
+    MODIFIED
+  }
+
+  private final Kind kind;
+  private final InterfaceEvent event;
+  private final String oldSubject;
+  private final LocalDateTime oldStart;
+  private final LocalDateTime oldEnd;
+  private final String newSubject;
+  private final LocalDateTime newStart;
+  private final LocalDateTime newEnd;
+
+  private CalendarChange(Kind kind, InterfaceEvent event, String oldSubject,
+                         LocalDateTime oldStart, LocalDateTime oldEnd) {
+    this(kind, event, oldSubject, oldStart, oldEnd, event.getSubject(),
+        event.getStartDateTime(), event.getEndDateTime());
+  }
+
+  private CalendarChange(Kind kind, InterfaceEvent event, String oldSubject,
+                         LocalDateTime oldStart, LocalDateTime oldEnd, String newSubject,
+                         LocalDateTime newStart, LocalDateTime newEnd) {
+    this.kind = kind;
+    this.event = event;
+    this.oldSubject = oldSubject;
+    this.oldStart = oldStart;
+    this.oldEnd = oldEnd;
+    this.newSubject = newSubject;
+    this.newStart = newStart;
+    this.newEnd = newEnd;
+  }
+
+  /**
+   * Describes an event that was added to a calendar.
+   *
+   * @param event Event that was added.
+   * @return The change.
+   */
+  static CalendarChange added(InterfaceEvent event) {
+    return new CalendarChange(Kind.ADDED, event, null, null, null);
+  }
+
+  /**
+   * Describes an event that was edited.
+   *
+   * @param event      Event after the edit.
+   * @param oldSubject Subject of the event before the edit.
+   * @param oldStart   Start of the event before the edit.
+   * @param oldEnd     End of the event before the edit.
+   * @return The change.
+   */
+  static CalendarChange modified(InterfaceEvent event, String oldSubject,
+                                 LocalDateTime oldStart, LocalDateTime oldEnd) {
+    return new CalendarChange(Kind.MODIFIED, event, oldSubject, oldStart, oldEnd);
+  }
+
+  /**
+   * Combines this change with a later change of the same event into a single change, from
+   * the identity before this change to the identity after the later one.
+   *
+   * @param later Later change of the same event.
+   * @return The combined change, added if this change added the event.
+   */
+  CalendarChange followedBy(CalendarChange later) {
+    return new CalendarChange(kind, event, oldSubject, oldStart, oldEnd,
+        later.newSubject, later.newStart, later.newEnd);
+  }
+
+  /**
+   * Gets the kind of change.
+   *
+   * @return Whether the event was added or modified.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the changed event. The event is live, so it reflects later changes as well.
+   *
+   * @return The event that changed.
+   */
+  public InterfaceEvent getEvent() {
+    return event;
+  }
+
+  /**
+   * Gets the subject of the event before the change.
+   *
+   * @return Old subject, null if the event was added.
+   */
+  public String getOldSubject() {
+    return oldSubject;
+  }
+
+  /**
+   * Gets the start of the event before the change.
+   *
+   * @return Old start date and time, null if the event was added.
+   */
+  public LocalDateTime getOldStart() {
+    return oldStart;
+  }
+
+  /**
+   * Gets the end of the event before the change.
+   *
+   * @return Old end date and time, null if the event was added.
+   */
+  public LocalDateTime getOldEnd() {
+    return oldEnd;
+  }
+
+  /**
+   * Gets the subject of the event right after the change.
+   *
+   * @return New subject.
+   */
+  public String getNewSubject() {
+    return newSubject;
+  }
+
+  /**
+   * Gets the start of the event right after the change.
+   *
+   * @return New start date and time.
+   */
+  public LocalDateTime getNewStart() {
+    return newStart;
+  }
+
+  /**
+   * Gets the end of the event right after the change.
+   *
+   * @return New end date and time.
+   */
+  public LocalDateTime getNewEnd() {
+    return newEnd;
+  }
+
+  /**
+   * Whether the change moved the event, i.e. its old span differs from its new span.
+   *
+   * @return True if the event was modified and its start or end changed, false if otherwise.
+   */
+  public boolean isMoved() {
+    return kind == Kind.MODIFIED && (!oldStart.equals(newStart) || !oldEnd.equals(newEnd));
+  }
+}
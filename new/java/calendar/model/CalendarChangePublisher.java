@@ -0,0 +1,194 @@
+package calendar.model;
+
+import calendar.model.filter.FilterByDateTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publisher of the changes made to the events of a calendar within a window of time, both
+ * inclusive like "print events from ... to ...". An event is in the window if its span
+ * overlaps it before or after a change.
+ * The first item a subscriber gets holds every event that was in the window when it
+ * subscribed, as added events, so it never has to query the calendar itself. After that,
+ * every item holds the changes made since the previous one. Changes that arrive while a
+ * subscriber has no outstanding demand are coalesced per event, so a slow subscriber gets one
+ * item with the latest span of every changed event instead of a growing backlog, and a burst
+ * such as an edit of a whole series arrives as a single item.
+ * Subscribers are signalled on the given executor, never on the thread that changed the
+ * calendar. Subscribing reads the calendar, so it must happen where the calendar may be read.
+ */
+public class CalendarChangePublisher implements Flow.Publisher<List<CalendarChange>> {
+  private final InterfaceCalendar calendar;
+  private final LocalDateTime from;
+  private final LocalDateTime to;
+  private final Executor executor;
+
+  /**
+   * Initializes a publisher for a window of a calendar.
+   *
+   * @param calendar Calendar whose changes are published.
+   * @param from     Inclusive start of the window.
+   * @param to       Inclusive end of the window.
+   * @param executor Executor that signals the subscribers.
+   */
+  public CalendarChangePublisher(InterfaceCalendar calendar, LocalDateTime from,
+                                 LocalDateTime to, Executor executor) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("End of the window must not be before its start.");
+    }
+    this.calendar = Objects.requireNonNull(calendar);
+    this.from = from;
+    this.to = to;
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super List<CalendarChange>> subscriber) {
+    ChangeSubscription subscription = new ChangeSubscription(Objects.requireNonNull(subscriber));
+    List<CalendarChange> snapshot = new ArrayList<>();
+    for (InterfaceEvent event : calendar.filter(new FilterByDateTime(from, to))) {
+      snapshot.add(CalendarChange.added(event));
+    }
+    subscription.calendarChanged(calendar, snapshot);
+    calendar.addChangeListener(subscription);
+    subscription.signal();
+  }
+
+  private boolean inWindow(LocalDateTime start, LocalDateTime end) {
+    return start != null && !end.isBefore(from) && !start.isAfter(to);
+  }
+
+  /**
+   * Subscription of a single subscriber. Every signal to the subscriber is made by whichever
+   * executor task wins the work counter, so signals never overlap.
+   */
+  private class ChangeSubscription implements Flow.Subscription, InterfaceChangeListener {
+    private final Flow.Subscriber<? super List<CalendarChange>> subscriber;
+    private final AtomicInteger work;
+    private final List<CalendarChange> pending;
+    private final Map<InterfaceEvent, Integer> pendingIndex;
+    private long demand;
+    private boolean subscribed;
+    private boolean cancelled;
+    private Throwable error;
+
+    private ChangeSubscription(Flow.Subscriber<? super List<CalendarChange>> subscriber) {
+      this.subscriber = subscriber;
+      this.work = new AtomicInteger();
+      this.pending = new ArrayList<>();
+      this.pendingIndex = new IdentityHashMap<>();
+    }
+
+    @Override
+    public void calendarChanged(InterfaceCalendar calendar, List<CalendarChange> changes) {
+      boolean added = false;
+      synchronized (this) {
+        if (cancelled) {
+          return;
+        }
+        for (CalendarChange change : changes) {
+          if (inWindow(change.getNewStart(), change.getNewEnd())
+              || inWindow(change.getOldStart(), change.getOldEnd())) {
+            coalesce(change);
+            added = true;
+          }
+        }
+      }
+      if (added) {
+        signal();
+      }
+    }
+
+    /**
+     * Merges a change into the pending one of the same event, keeping the identity the event
+     * had before the first of them.
+     */
+    private void coalesce(CalendarChange change) {
+      Integer index = pendingIndex.get(change.getEvent());
+      if (index == null) {
+        pendingIndex.put(change.getEvent(), pending.size());
+        pending.add(change);
+      } else {
+        pending.set(index, pending.get(index).followedBy(change));
+      }
+    }
+
+    @Override
+    public void request(long n) {
+      synchronized (this) {
+        if (n <= 0) {
+          error = new IllegalArgumentException("Demand must be positive: " + n);
+        } else {
+          demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+      }
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        cancelled = true;
+        pending.clear();
+        pendingIndex.clear();
+      }
+      calendar.removeChangeListener(this);
+    }
+
+    private void signal() {
+      if (work.getAndIncrement() == 0) {
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      do {
+        if (!subscribed) {
+          subscribed = true;
+          subscriber.onSubscribe(this);
+        }
+
+        while (true) {
+          List<CalendarChange> item;
+          Throwable failure;
+          synchronized (this) {
+            if (cancelled) {
+              return;
+            }
+            failure = error;
+            item = failure == null && demand > 0 && !pending.isEmpty() ? takePending() : null;
+          }
+          if (failure != null) {
+            cancel();
+            subscriber.onError(failure);
+            return;
+          }
+          if (item == null) {
+            break;
+          }
+          subscriber.onNext(item);
+        }
+        missed = work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private List<CalendarChange> takePending() {
+      List<CalendarChange> item = Collections.unmodifiableList(new ArrayList<>(pending));
+      pending.clear();
+      pendingIndex.clear();
+      if (demand != Long.MAX_VALUE) {
+        demand--;
+      }
+      return item;
+    }
+  }
+}
@@ -3,13 +3,22 @@ package calendar.model;
 import calendar.model.export.InterfaceExportFormat;
 import calendar.model.filter.FilterByDateTime;
 import calendar.model.filter.InterfaceFilter;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 /**
  * Implementation of the ICalendar interface that provides core calendar functionality.
@@ -18,27 +27,41 @@ import java.util.TreeSet;
  * The start/end hours of events are limited 8 AM - 5 PM due to the hh:mm format.
  */
 public class CalendarModel implements InterfaceCalendar {
+  /**
+   * Order the events of a calendar are kept in.
+   */
+  static final Comparator<InterfaceEvent> EVENT_ORDER = Comparator
+      .comparing(InterfaceEvent::getStartDateTime)
+      .thenComparing(InterfaceEvent::getEndDateTime)
+      .thenComparing(InterfaceEvent::getSubject);
+
   private final SortedSet<InterfaceEvent> allEvents;
   private final List<InterfaceSeries> allSeries;
 
   private final EventsEditor editor;
   private final EventValidator eventValidator;
+  private final ChangeTracker changeTracker;
 
   private String name;
   private TimeZone timeZone;
+  private Duration longestSpan;
+  private long longestSpanVersion;
 
   /**
    * Constructs a new CalendarModel with empty event storage.
    */
   private CalendarModel(String name, TimeZone timeZone, SortedSet<InterfaceEvent> allEvents,
-                        List<InterfaceSeries> allSeries) {
+                        List<InterfaceSeries> allSeries, ChangeTracker changeTracker) {
     this.name = name;
     this.timeZone = timeZone;
     this.allEvents = allEvents;
     this.allSeries = allSeries;
+    this.changeTracker = changeTracker;
+    this.longestSpan = Duration.ZERO;
+    this.longestSpanVersion = -1;
 
     this.eventValidator = new EventValidator();
-    this.editor = new EventsEditor(allEvents, allSeries, this);
+    this.editor = new EventsEditor(allEvents, allSeries, this, changeTracker);
   }
 
   @Override
@@ -70,6 +93,8 @@ public class CalendarModel implements InterfaceCalendar {
     if (!allEvents.add(event)) {
       throw new IllegalArgumentException("Duplicate event already exists");
     }
+    changeTracker.recordAdded(event);
+    changeTracker.publish(this);
   }
 
   @Override
@@ -96,29 +121,87 @@ public class CalendarModel implements InterfaceCalendar {
         .build();
 
 
-    for (InterfaceEvent e : series.getSeries()) {
-      if (!allEvents.add(e)) {
-        throw new IllegalArgumentException("Duplicate event in series already exists");
+    try {
+      for (InterfaceEvent e : series.getSeries()) {
+        if (!allEvents.add(e)) {
+          throw new IllegalArgumentException("Duplicate event in series already exists");
+        }
+        changeTracker.recordAdded(e);
       }
+    } finally {
+      // Occurrences added before a duplicate stay in the calendar, so they are still reported.
+      changeTracker.publish(this);
     }
 
     allSeries.add(series);
   }
 
+  @Override
+  public int addEvents(List<InterfaceEvent> events) {
+    int added = 0;
+    try {
+      for (InterfaceEvent event : events) {
+        eventValidator.validateEventTimes(event.getStartDateTime(), event.getEndDateTime());
+        if (allEvents.add(event)) {
+          changeTracker.recordAdded(event);
+          added++;
+        }
+      }
+    } finally {
+      changeTracker.publish(this);
+    }
+    return added;
+  }
+
+  @Override
+  public int addSeries(InterfaceSeries series) {
+    int added = 0;
+    try {
+      for (InterfaceEvent event : new ArrayList<>(series.getSeries())) {
+        eventValidator.validateEventTimes(event.getStartDateTime(), event.getEndDateTime());
+        if (allEvents.add(event)) {
+          changeTracker.recordAdded(event);
+          added++;
+        } else {
+          series.removeEvent(event);
+        }
+      }
+    } finally {
+      changeTracker.publish(this);
+    }
+
+    if (!series.getSeries().isEmpty()) {
+      allSeries.add(series);
+    }
+    return added;
+  }
+
   // ========== EDITING ==========
   @Override
   public void editEvent(EventRequest eventRequest) {
-    editor.editEvent(eventRequest);
+    try {
+      editor.editEvent(eventRequest);
+    } finally {
+      changeTracker.publish(this);
+    }
   }
 
   @Override
   public void editEvents(EventRequest eventRequest) {
-    editor.editEvents(eventRequest);
+    try {
+      editor.editEvents(eventRequest);
+    } finally {
+      changeTracker.publish(this);
+    }
   }
 
   @Override
   public void editSeries(EventRequest eventRequest) {
-    editor.editSeries(eventRequest);
+    try {
+      editor.editSeries(eventRequest);
+    } finally {
+      changeTracker.publish(this);
+    }
   }
 
 
@@ -136,17 +219,147 @@ public class CalendarModel implements InterfaceCalendar {
     return events;
   }
 
+  @Override
+  public Iterator<InterfaceEvent> eventsBetween(LocalDateTime from, LocalDateTime to) {
+    // The set is sorted by start, and an event reaching into the window starts no earlier
+    // than the span of the longest event before the window.
+    Duration longest = longestSpan();
+    LocalDateTime earliestStart =
+        longest.compareTo(Duration.between(LocalDateTime.MIN, from)) > 0
+            ? LocalDateTime.MIN : from.minus(longest);
+    if (earliestStart.isAfter(to)) {
+      return Collections.emptyIterator();
+    }
+
+    SortedSet<InterfaceEvent> candidates = to.equals(LocalDateTime.MAX)
+        ? allEvents.tailSet(probe(earliestStart))
+        : allEvents.subSet(probe(earliestStart), probe(to.plusNanos(1)));
+    FilterByDateTime window = new FilterByDateTime(from, to);
+    Iterator<InterfaceEvent> events = candidates.iterator();
+    return new Iterator<>() {
+      private InterfaceEvent next = advance();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public InterfaceEvent next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        InterfaceEvent event = next;
+        next = advance();
+        return event;
+      }
+
+      private InterfaceEvent advance() {
+        while (events.hasNext()) {
+          InterfaceEvent event = events.next();
+          if (window.evaluate(event)) {
+            return event;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Gets the longest span of any event, recomputed only after the calendar changed.
+   */
+  private Duration longestSpan() {
+    long version = changeTracker.getVersion();
+    if (version != longestSpanVersion) {
+      Duration longest = Duration.ZERO;
+      for (InterfaceEvent event : allEvents) {
+        Duration span = Duration.between(event.getStartDateTime(), event.getEndDateTime());
+        if (span.compareTo(longest) > 0) {
+          longest = span;
+        }
+      }
+      longestSpan = longest;
+      longestSpanVersion = version;
+    }
+    return longestSpan;
+  }
+
+  /**
+   * Creates an event that sorts before every event starting at the given time.
+   */
+  private static InterfaceEvent probe(LocalDateTime start) {
+    return new SingleEvent.SingleEventBuilder()
+        .setSubject("")
+        .setStart(start)
+        .setEnd(LocalDateTime.MIN)
+        .build();
+  }
+
   @Override
   public List<String> export(InterfaceExportFormat exportFormat) {
     List<String> result = new ArrayList<>();
     result.add(exportFormat.start());
+
+    Set<InterfaceEvent> exported = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (exportFormat.exportsSeries()) {
+      for (InterfaceSeries series : allSeries) {
+        if (!series.getSeries().isEmpty()) {
+          result.add(series.export(exportFormat));
+          exported.addAll(series.getSeries());
+        }
+      }
+    }
+
+    for (InterfaceEvent event : allEvents) {
+      if (!exported.contains(event)) {
+        result.add(event.export(exportFormat));
+      }
+    }
+    result.add(exportFormat.end());
+    return result;
+  }
+
+  @Override
+  public List<String> exportSince(InterfaceExportFormat exportFormat, long version) {
+    List<String> result = new ArrayList<>();
+    result.add(exportFormat.start());
     for (InterfaceEvent event : allEvents) {
-      result.add(event.export(exportFormat));
+      if (changeTracker.changedSince(event, version)) {
+        result.add(event.export(exportFormat));
+      }
     }
     result.add(exportFormat.end());
     return result;
   }
 
+  @Override
+  public List<InterfaceEvent> removedSince(long version) {
+    return changeTracker.removedSince(version);
+  }
+
+  @Override
+  public long getVersion() {
+    return changeTracker.getVersion();
+  }
+
+  @Override
+  public void addChangeListener(InterfaceChangeListener listener) {
+    changeTracker.addListener(listener);
+  }
+
+  @Override
+  public void removeChangeListener(InterfaceChangeListener listener) {
+    changeTracker.removeListener(listener);
+  }
+
+  @Override
+  public Flow.Publisher<List<CalendarChange>> publishChanges(LocalDateTime from,
+                                                             LocalDateTime to,
+                                                             Executor executor) {
+    return new CalendarChangePublisher(this, from, to, executor);
+  }
+
   @Override
   public boolean isBusyAt(LocalDateTime dateTime) {
     return !this.filter(new FilterByDateTime(dateTime)).isEmpty();
@@ -155,21 +368,29 @@ public class CalendarModel implements InterfaceCalendar {
   // ============== MULTI CALENDAR FUNCTIONS ===============
   @Override
   public InterfaceCalendar adjustedTimeZone(TimeZone newTimeZone) {
-    SortedSet<InterfaceEvent> newEvents = new TreeSet<>(allEvents);
     List<InterfaceSeries> newSeries = new ArrayList<>(allSeries);
+    Map<InterfaceEvent, ChangeTracker.Tombstone> before = changeTracker.snapshot(allEvents);
 
     for (InterfaceSeries series : newSeries) {
       series.adjustTimeZone(newTimeZone);
     }
 
-    for (InterfaceEvent event : newEvents) {
+    for (InterfaceEvent event : allEvents) {
       if (!event.getTimeZone().equals(newTimeZone)) {
         event.adjustTimeZone(newTimeZone);
       }
     }
+    // Adjusting changes the events in place, so they are sorted anew by their adjusted times.
+    SortedSet<InterfaceEvent> newEvents = new TreeSet<>(allEvents.comparator());
+    newEvents.addAll(allEvents);
+
+    changeTracker.recordModified(before);
 
-    return new CalendarModel.CalendarBuilder().name(name).timeZone(newTimeZone)
-        .series(newSeries).events(newEvents).build();
+    InterfaceCalendar adjusted = new CalendarModel.CalendarBuilder().name(name)
+        .timeZone(newTimeZone).series(newSeries).events(newEvents)
+        .changeTracker(changeTracker).build();
+    changeTracker.publish(adjusted);
+    return adjusted;
   }
 
   @Override
@@ -209,6 +430,7 @@ public class CalendarModel implements InterfaceCalendar {
     private TimeZone timeZone;
     private SortedSet<InterfaceEvent> events;
     private List<InterfaceSeries> series;
+    private ChangeTracker changeTracker;
 
     /**
      * Constructor for CalendarBuilder.
@@ -216,11 +438,9 @@ public class CalendarModel implements InterfaceCalendar {
     public CalendarBuilder() {
       this.name = "";
       this.timeZone = TimeZone.getTimeZone("America/New_York");
-      this.events = new TreeSet<>(Comparator
-          .comparing(InterfaceEvent::getStartDateTime)
-          .thenComparing(InterfaceEvent::getEndDateTime)
-          .thenComparing(InterfaceEvent::getSubject));
+      this.events = new TreeSet<>(EVENT_ORDER);
       this.series = new ArrayList<>();
+      this.changeTracker = new ChangeTracker();
     }
 
     /**
@@ -267,13 +487,24 @@ public class CalendarModel implements InterfaceCalendar {
       return this;
     }
 
+    /**
+     * Sets the change tracker for the calendar, so a copy keeps its modification history.
+     *
+     * @param changeTracker The change tracker to use.
+     * @return This builder.
+     */
+    CalendarBuilder changeTracker(ChangeTracker changeTracker) {
+      this.changeTracker = changeTracker;
+      return this;
+    }
+
     /**
      * Builds the calendar instance.
      *
      * @return The built calendar.
      */
     public InterfaceCalendar build() {
-      return new CalendarModel(name, timeZone, events, series);
+      return new CalendarModel(name, timeZone, events, series, changeTracker);
     }
   }
 }
@@ -1,8 +1,10 @@
 package calendar.model;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
@@ -52,6 +54,11 @@ public class CalendarModelsImpl implements InterfaceCalendarModels {
     this.add(newName, calendar, timeZone);
   }
 
+  @Override
+  public Set<String> getCalendarNames() {
+    return Collections.unmodifiableSet(calModels.keySet());
+  }
+
   @Override
   public TimeZone getTimeZone(String calendarName) {
     checkExistingCalendar(calendarName);
@@ -0,0 +1,186 @@
+package calendar.model;
+
+import calendar.model.filter.FilterByDateTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of keeping an integration up to date with a month of a calendar, first by
+ * re-running the query behind "print events from ... to ..." after every edit, then by
+ * subscribing to {@link InterfaceCalendar#publishChanges}. Both runs make the same edits to
+ * a calendar of daily series: every round edits the location of one whole series, and every
+ * other round moves its second occurrence. The report gives the time of each run, the events
+ * the polls read and the items and changes the subscriber received.
+ */
+public class ChangeFeedBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+  private final int seriesCount;
+  private final int occurrences;
+  private final int rounds;
+  private final LocalDateTime windowStart;
+  private final LocalDateTime windowEnd;
+
+  /**
+   * Initializes a benchmark.
+   *
+   * @param seriesCount Number of daily series in the calendar.
+   * @param occurrences Number of occurrences of every series.
+   * @param rounds      Number of edit rounds.
+   */
+  public ChangeFeedBenchmark(int seriesCount, int occurrences, int rounds) {
+    if (seriesCount < 1 || occurrences < 1 || rounds < 1) {
+      throw new IllegalArgumentException("Series, occurrences and rounds must be positive.");
+    }
+    this.seriesCount = seriesCount;
+    this.occurrences = occurrences;
+    this.rounds = rounds;
+    this.windowStart = FIRST_DAY.atStartOfDay();
+    this.windowEnd = FIRST_DAY.plusMonths(1).atStartOfDay().minusMinutes(1);
+  }
+
+  /**
+   * Runs both ways of following the calendar.
+   *
+   * @return Report comparing polling with the subscription.
+   */
+  public String run() {
+    long pollStart = System.nanoTime();
+    long polledEvents = runPolling();
+    long pollNanos = System.nanoTime() - pollStart;
+
+    AtomicLong items = new AtomicLong();
+    AtomicLong changes = new AtomicLong();
+    long subscribeStart = System.nanoTime();
+    runSubscription(items, changes);
+    long subscribeNanos = System.nanoTime() - subscribeStart;
+
+    return String.format(Locale.ROOT,
+        "%d rounds of edits on %d events, following %s to %s.%n"
+            + "Polling: %.3f s, %.1f us per round, %d events read.%n"
+            + "Subscription: %.3f s, %.1f us per round, %d items with %d changes received.",
+        rounds, seriesCount * occurrences, windowStart, windowEnd,
+        pollNanos / 1e9, pollNanos / 1e3 / rounds, polledEvents,
+        subscribeNanos / 1e9, subscribeNanos / 1e3 / rounds, items.get(), changes.get());
+  }
+
+  private long runPolling() {
+    InterfaceCalendar calendar = buildCalendar();
+    boolean[] moved = new boolean[seriesCount];
+    long read = calendar.filter(new FilterByDateTime(windowStart, windowEnd)).size();
+    for (int round = 0; round < rounds; round++) {
+      edit(calendar, round, moved);
+      read += calendar.filter(new FilterByDateTime(windowStart, windowEnd)).size();
+    }
+    return read;
+  }
+
+  private void runSubscription(AtomicLong items, AtomicLong changes) {
+    InterfaceCalendar calendar = buildCalendar();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      calendar.publishChanges(windowStart, windowEnd, executor)
+          .subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+              this.subscription = subscription;
+              subscription.request(1);
+            }
+
+            @Override
+            public void onNext(List<CalendarChange> item) {
+              items.incrementAndGet();
+              changes.addAndGet(item.size());
+              subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+              throw new IllegalStateException(throwable.getMessage(), throwable);
+            }
+
+            @Override
+            public void onComplete() {
+              // Calendars never complete.
+            }
+          });
+
+      boolean[] moved = new boolean[seriesCount];
+      for (int round = 0; round < rounds; round++) {
+        edit(calendar, round, moved);
+      }
+      // The executor runs tasks in order, so once this has run every change was delivered.
+      executor.submit(() -> null).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Benchmark was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+      awaitTermination(executor);
+    }
+  }
+
+  private InterfaceCalendar buildCalendar() {
+    InterfaceCalendar calendar = new CalendarModel.CalendarBuilder().name("benchmark").build();
+    for (int i = 0; i < seriesCount; i++) {
+      LocalDateTime start = seriesStart(i);
+      calendar.addRecurringEvent(new EventRequest.RequestBuilder()
+          .subject("Series " + i)
+          .start(start)
+          .end(start.plusMinutes(30))
+          .pattern("MTWRFSU")
+          .termination(String.valueOf(occurrences))
+          .build());
+    }
+    return calendar;
+  }
+
+  private void edit(InterfaceCalendar calendar, int round, boolean[] moved) {
+    int series = round % seriesCount;
+    LocalDateTime start = seriesStart(series);
+    calendar.editSeries(new EventRequest.RequestBuilder()
+        .subject("Series " + series)
+        .start(start)
+        .property("location")
+        .newValue("Room " + round)
+        .build());
+
+    if (round % 2 == 1 && occurrences > 1) {
+      // Moves the second occurrence out of its series by five minutes, and back next time.
+      LocalDateTime day = start.plusDays(1);
+      LocalDateTime from = moved[series] ? day.plusMinutes(5) : day;
+      calendar.editEvent(new EventRequest.RequestBuilder()
+          .subject("Series " + series)
+          .start(from)
+          .end(day.plusMinutes(30))
+          .property("start")
+          .newValue((moved[series] ? day : day.plusMinutes(5)).toString())
+          .build());
+      moved[series] = !moved[series];
+    }
+  }
+
+  private LocalDateTime seriesStart(int series) {
+    return FIRST_DAY.atTime(8, 0).plusMinutes(10L * (series % 54));
+  }
+
+  private static void awaitTermination(ExecutorService executor) {
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
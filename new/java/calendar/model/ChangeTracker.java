@@ -0,0 +1,182 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Package-protected helper class to be used by CalendarModel.
+ * Keeps a monotonically increasing modification version for every event in a calendar,
+ * along with tombstones for events whose identity (subject, start, end) has changed.
+ * While listeners are registered, it also collects the changes of the current operation so
+ * they can be published together once the operation is done.
+ */
+class ChangeTracker {
+  private long version;
+  private final Map<InterfaceEvent, Long> eventVersions;
+  private final List<Tombstone> tombstones;
+  private final CopyOnWriteArrayList<InterfaceChangeListener> listeners;
+  private List<CalendarChange> pending;
+
+  /**
+   * Initializes an empty tracker starting at version 0.
+   */
+  ChangeTracker() {
+    this.version = 0;
+    this.eventVersions = new IdentityHashMap<>();
+    this.tombstones = new ArrayList<>();
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.pending = new ArrayList<>();
+  }
+
+  /**
+   * Gets the latest modification version of the calendar.
+   *
+   * @return The current high-water mark.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Marks an event as newly added to the calendar.
+   *
+   * @param event Event that was added.
+   */
+  void recordAdded(InterfaceEvent event) {
+    eventVersions.put(event, ++version);
+    if (!listeners.isEmpty()) {
+      pending.add(CalendarChange.added(event));
+    }
+  }
+
+  /**
+   * Captures the identity of the given events before they are edited.
+   *
+   * @param events Events that are about to be edited.
+   * @return Identity of each event before the edit, to be passed to recordModified.
+   */
+  Map<InterfaceEvent, Tombstone> snapshot(Collection<InterfaceEvent> events) {
+    Map<InterfaceEvent, Tombstone> before = new IdentityHashMap<>();
+    for (InterfaceEvent event : events) {
+      before.put(event, new Tombstone(event.getSubject(), event.getStartDateTime(),
+          event.getEndDateTime(), 0));
+    }
+    return before;
+  }
+
+  /**
+   * Bumps the version of every snapshotted event and leaves a tombstone behind for those
+   * whose identity was changed by the edit.
+   *
+   * @param before Identity of the edited events taken before the edit.
+   */
+  void recordModified(Map<InterfaceEvent, Tombstone> before) {
+    for (Map.Entry<InterfaceEvent, Tombstone> entry : before.entrySet()) {
+      InterfaceEvent event = entry.getKey();
+      Tombstone old = entry.getValue();
+      long newVersion = ++version;
+
+      if (!old.subject.equals(event.getSubject())
+          || !old.start.equals(event.getStartDateTime())
+          || !old.end.equals(event.getEndDateTime())) {
+        tombstones.add(new Tombstone(old.subject, old.start, old.end, newVersion));
+      }
+      eventVersions.put(event, newVersion);
+      if (!listeners.isEmpty()) {
+        pending.add(CalendarChange.modified(event, old.subject, old.start, old.end));
+      }
+    }
+  }
+
+  /**
+   * Registers a listener for the changes published from now on. Registering the same
+   * listener twice has no effect.
+   *
+   * @param listener Listener to register.
+   */
+  void addListener(InterfaceChangeListener listener) {
+    listeners.addIfAbsent(listener);
+  }
+
+  /**
+   * Unregisters a listener.
+   *
+   * @param listener Listener to unregister.
+   */
+  void removeListener(InterfaceChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Hands the changes recorded since the last call to every listener as one batch.
+   * Does nothing if there were no changes.
+   *
+   * @param calendar Calendar the changes were made to.
+   */
+  void publish(InterfaceCalendar calendar) {
+    if (pending.isEmpty()) {
+      return;
+    }
+    // Swapped out first, so a listener that changes the calendar starts a batch of its own.
+    List<CalendarChange> changes = Collections.unmodifiableList(pending);
+    pending = new ArrayList<>();
+    for (InterfaceChangeListener listener : listeners) {
+      listener.calendarChanged(calendar, changes);
+    }
+  }
+
+  /**
+   * Determines whether an event was added or modified after the given version.
+   *
+   * @param event   Event to check.
+   * @param since   Version of a previous export.
+   * @return True if the event changed after {@code since}, false if otherwise.
+   */
+  boolean changedSince(InterfaceEvent event, long since) {
+    Long eventVersion = eventVersions.get(event);
+    return eventVersion == null || eventVersion > since;
+  }
+
+  /**
+   * Rebuilds the events whose identity no longer exists in the calendar since the given version.
+   *
+   * @param since Version of a previous export.
+   * @return Events as they were identified before they were changed.
+   */
+  List<InterfaceEvent> removedSince(long since) {
+    List<InterfaceEvent> removed = new ArrayList<>();
+    for (Tombstone tombstone : tombstones) {
+      if (tombstone.version > since) {
+        removed.add(new SingleEvent.SingleEventBuilder()
+            .setSubject(tombstone.subject)
+            .setStart(tombstone.start)
+            .setEnd(tombstone.end)
+            .build());
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Identity of an event at a given version.
+   */
+  static class Tombstone {
+    private final String subject;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final long version;
+
+    private Tombstone(String subject, LocalDateTime start, LocalDateTime end, long version) {
+      this.subject = subject;
+      this.start = start;
+      this.end = end;
+      this.version = version;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package calendar.model;
 
+import calendar.model.export.InterfaceExportFormat;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -116,6 +117,11 @@ public class EventSeries implements InterfaceSeries {
     series.remove(event);
   }
 
+  @Override
+  public String export(InterfaceExportFormat exportFormat) {
+    return exportFormat.formatSeries(this);
+  }
+
   // ====== BUILDER ======
 
   /**
@@ -6,7 +6,7 @@ import java.time.LocalDateTime;
  * Represents a validator to be run once the command is parsed to check if date time inputs
  * are valid once an event is retrieved.
  */
-class EventValidator {
+public class EventValidator {
 
   /**
    * Validates and checks to make sure that the end is not before or equal to the start.
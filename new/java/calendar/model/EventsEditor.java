@@ -3,8 +3,11 @@ package calendar.model;
 import calendar.model.filter.FilterExactEvent;
 import calendar.model.filter.FilterSameStartAndSubject;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
+import java.util.TreeSet;
 import jdk.jfr.Event;
 
 /**
@@ -16,6 +19,7 @@ class EventsEditor {
   private final List<InterfaceSeries> allSeries;
   private final EventValidator eventValidator;
   private final CalendarModel calendarModel;
+  private final ChangeTracker changeTracker;
 
   /**
    * Initialized the event editor by loading in the list of events and series and the model.
@@ -25,12 +29,14 @@ class EventsEditor {
    * @param allEvents     List of all events in the calendar.
    * @param allSeries     List of all the series in the calendar.
    * @param calendarModel Calendar model that is being edited.
+   * @param changeTracker Tracker that records the modification version of edited events.
    */
   public EventsEditor(SortedSet<InterfaceEvent> allEvents, List<InterfaceSeries> allSeries,
-                      CalendarModel calendarModel) {
+                      CalendarModel calendarModel, ChangeTracker changeTracker) {
     this.allEvents = allEvents;
     this.allSeries = allSeries;
     this.calendarModel = calendarModel;
+    this.changeTracker = changeTracker;
     this.eventValidator = new EventValidator();
   }
 
@@ -55,6 +61,7 @@ class EventsEditor {
     }
 
     allEvents.remove(event);
+    Map<InterfaceEvent, ChangeTracker.Tombstone> before = changeTracker.snapshot(List.of(event));
 
     try {
       validateEditForDuplicates(event, property, newValue);
@@ -74,6 +81,7 @@ class EventsEditor {
     }
 
     allEvents.add(event);
+    changeTracker.recordModified(before);
   }
 
   /**
@@ -119,7 +127,10 @@ class EventsEditor {
 
     if (series != null) {
       eventValidator.validateSeriesPropertyEdit(start, property, newValue);
-      series.editSeries(property, newValue);
+      List<InterfaceEvent> affected = new ArrayList<>(series.getSeries());
+      Map<InterfaceEvent, ChangeTracker.Tombstone> before = changeTracker.snapshot(affected);
+      editInPlace(affected, property, newValue, () -> series.editSeries(property, newValue));
+      changeTracker.recordModified(before);
     } else {
       editAllMatchingEvents(subject, start, property, newValue);
     }
@@ -174,12 +185,82 @@ class EventsEditor {
   private void editSeriesFromDate(InterfaceSeries series, LocalDateTime start,
                                   String property, String newValue) {
     eventValidator.validateSeriesPropertyEdit(start, property, newValue);
+
+    List<InterfaceEvent> affected = new ArrayList<>();
+    for (InterfaceEvent event : series.getSeries()) {
+      if (!event.getStartDateTime().isBefore(start)) {
+        affected.add(event);
+      }
+    }
+    Map<InterfaceEvent, ChangeTracker.Tombstone> before = changeTracker.snapshot(affected);
+
     if (property.equals("start")) {
       LocalDateTime newStart = LocalDateTime.parse(newValue);
-      InterfaceSeries newSeries = series.editStartStartingFrom(start, newStart);
-      allSeries.add(newSeries);
+      editInPlace(affected, property, newValue,
+          () -> allSeries.add(series.editStartStartingFrom(start, newStart)));
     } else {
-      series.editStartingFrom(start, property, newValue);
+      editInPlace(affected, property, newValue,
+          () -> series.editStartingFrom(start, property, newValue));
+    }
+    changeTracker.recordModified(before);
+  }
+
+  /**
+   * Runs a series edit that changes the given events in place. The set of all events is
+   * sorted by start, end and subject, so the events are taken out of it before the edit and
+   * put back after it, even if the edit fails part way. An edit that would give one of them
+   * the subject, start and end of another event is rejected before anything changes.
+   */
+  private void editInPlace(List<InterfaceEvent> events, String property, String newValue,
+                           Runnable edit) {
+    List<InterfaceEvent> removed = new ArrayList<>();
+    for (InterfaceEvent event : events) {
+      if (allEvents.remove(event)) {
+        removed.add(event);
+      }
+    }
+
+    try {
+      validateSeriesEditForDuplicates(events, property, newValue);
+      edit.run();
+    } finally {
+      allEvents.addAll(removed);
+    }
+  }
+
+  /**
+   * Validates that a series edit won't create a duplicate event. Start and end edits keep the
+   * date of every event and only change its time, like the series edits themselves.
+   */
+  private void validateSeriesEditForDuplicates(List<InterfaceEvent> events, String property,
+                                               String newValue) {
+    if (!property.equals("start") && !property.equals("end") && !property.equals("subject")) {
+      return;
+    }
+
+    SortedSet<InterfaceEvent> edited = new TreeSet<>(allEvents.comparator());
+    for (InterfaceEvent event : events) {
+      String newSubject = property.equals("subject") ? newValue : event.getSubject();
+      LocalDateTime newStart = event.getStartDateTime();
+      LocalDateTime newEnd = event.getEndDateTime();
+      if (!property.equals("subject")) {
+        LocalDateTime newTime = event.getStartDateTime().toLocalDate()
+            .atTime(LocalDateTime.parse(newValue).toLocalTime());
+        if (property.equals("start")) {
+          newStart = newTime;
+        } else {
+          newEnd = newTime;
+        }
+      }
+
+      InterfaceEvent tempEvent = new SingleEvent.SingleEventBuilder()
+          .setSubject(newSubject)
+          .setStart(newStart)
+          .setEnd(newEnd)
+          .build();
+      if (allEvents.contains(tempEvent) || !edited.add(tempEvent)) {
+        throw new IllegalArgumentException("Cannot edit series: would create duplicate event");
+      }
     }
   }
 
@@ -3,8 +3,11 @@ package calendar.model;
 import calendar.model.export.InterfaceExportFormat;
 import calendar.model.filter.InterfaceFilter;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 /**
  * Interface for calendar operations including event management and querying.
@@ -43,6 +46,24 @@ public interface InterfaceCalendar {
    */
   void addRecurringEvent(EventRequest eventRequest);
 
+  /**
+   * Adds a batch of already built events to the calendar, such as events read from an
+   * imported file. Events that already exist in the calendar are skipped.
+   *
+   * @param events Events to add, expected to be in the time zone of the calendar.
+   * @return Number of events that were added.
+   */
+  int addEvents(List<InterfaceEvent> events);
+
+  /**
+   * Adds an already built series to the calendar, such as a series read from an imported file.
+   * Occurrences that already exist in the calendar are skipped and removed from the series.
+   *
+   * @param series Series to add, expected to be in the time zone of the calendar.
+   * @return Number of occurrences that were added.
+   */
+  int addSeries(InterfaceSeries series);
+
 
   // ============================ EDIT METHODS ============================
 
@@ -80,12 +101,78 @@ public interface InterfaceCalendar {
    */
   List<InterfaceEvent> filter(InterfaceFilter filter);
 
+  /**
+   * Iterates over the events overlapping a window in order of their start, finding each event
+   * only when it is asked for. The iterator reads the live calendar, so it must be used up
+   * before the calendar changes.
+   *
+   * @param from Inclusive start of the window.
+   * @param to   Inclusive end of the window.
+   * @return Iterator over the events that {@code FilterByDateTime(from, to)} accepts.
+   */
+  Iterator<InterfaceEvent> eventsBetween(LocalDateTime from, LocalDateTime to);
+
 
   /**
    * Exports the calendar events as a list of Strings.
    */
   List<String> export(InterfaceExportFormat format);
 
+  /**
+   * Exports only the events that were added or modified after the given version.
+   *
+   * @param format  Format to export each event in.
+   * @param version Version returned by {@link #getVersion()} at the time of a previous export.
+   * @return List of Strings containing the changed events.
+   */
+  List<String> exportSince(InterfaceExportFormat format, long version);
+
+  /**
+   * Gets the events whose identity (subject, start, end) stopped existing after the given
+   * version, because they were edited or moved.
+   *
+   * @param version Version returned by {@link #getVersion()} at the time of a previous export.
+   * @return Events as they were identified before they were changed.
+   */
+  List<InterfaceEvent> removedSince(long version);
+
+  /**
+   * Gets the modification version of the calendar. Increases every time an event is added
+   * or modified.
+   *
+   * @return The latest modification version.
+   */
+  long getVersion();
+
+  /**
+   * Registers a listener that is told about every event added to or modified in the calendar,
+   * so views and caches can update only what changed. The listener stays registered on the
+   * calendar returned by {@link #adjustedTimeZone(TimeZone)}.
+   *
+   * @param listener Listener to register, registering it twice has no effect.
+   */
+  void addChangeListener(InterfaceChangeListener listener);
+
+  /**
+   * Unregisters a listener registered with {@link #addChangeListener(InterfaceChangeListener)}.
+   *
+   * @param listener Listener to unregister.
+   */
+  void removeChangeListener(InterfaceChangeListener listener);
+
+  /**
+   * Publishes the changes made to the events within a window of time, starting with the events
+   * in the window when a subscriber subscribes. Subscribers that fall behind get the changes
+   * coalesced per event. See {@link CalendarChangePublisher}.
+   *
+   * @param from     Inclusive start of the window.
+   * @param to       Inclusive end of the window.
+   * @param executor Executor that signals the subscribers.
+   * @return Publisher of batches of changes.
+   */
+  Flow.Publisher<List<CalendarChange>> publishChanges(LocalDateTime from, LocalDateTime to,
+                                                      Executor executor);
+
   /**
    * Determined whether a user is busy at the specified date and time.
    *
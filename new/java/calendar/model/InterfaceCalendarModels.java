@@ -1,5 +1,10 @@
 package calendar.model;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
@@ -31,6 +36,13 @@ public interface InterfaceCalendarModels {
    */
   void setName(String oldName, String newName);
 
+  /**
+   * Gets the names of all calendars.
+   *
+   * @return names of the calendars.
+   */
+  Set<String> getCalendarNames();
+
   /**
    * Gets the time zone of a calendar.
    *
@@ -60,4 +72,21 @@ public interface InterfaceCalendarModels {
    * @param timeZone time zone of the calendar.
    */
   void setTimeZone(String name, TimeZone timeZone);
+
+  /**
+   * Iterates over the events of several calendars within a window as one timeline in order
+   * of start, with the window and the events in one time zone. The sorted events of the
+   * calendars are merged lazily, see {@link MergedTimeline}.
+   *
+   * @param calendarNames Names of the calendars to show together.
+   * @param from          Inclusive start of the window, in the display time zone.
+   * @param to            Inclusive end of the window, in the display time zone.
+   * @param displayZone   Time zone to show the window and the events in.
+   * @return Iterator over the events of all the calendars.
+   */
+  default Iterator<TimelineEvent> timeline(Collection<String> calendarNames,
+                                           LocalDateTime from, LocalDateTime to,
+                                           ZoneId displayZone) {
+    return new MergedTimeline(this, calendarNames, from, to, displayZone);
+  }
 }
@@ -0,0 +1,20 @@
+package calendar.model;
+
+import java.util.List;
+
+/**
+ * Listener that is told about every change made to the events of a calendar.
+ * Changes are delivered in one batch per call that changed the calendar, e.g. a single batch
+ * for an edit of a whole series, on the thread that made the change and before that call
+ * returns.
+ */
+public interface InterfaceChangeListener {
+
+  /**
+   * Called after events of a calendar were added or modified.
+   *
+   * @param calendar Calendar that changed.
+   * @param changes  Changes in the order they were made, never empty.
+   */
+  void calendarChanged(InterfaceCalendar calendar, List<CalendarChange> changes);
+}
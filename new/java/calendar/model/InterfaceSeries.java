@@ -1,5 +1,6 @@
 package calendar.model;
 
+import calendar.model.export.InterfaceExportFormat;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.TimeZone;
@@ -64,6 +65,14 @@ public interface InterfaceSeries {
    */
   InterfaceEvent findEvent(String subject, LocalDateTime startDateTime);
 
+  /**
+   * Formats the whole series as a single export entry.
+   *
+   * @param exportFormat Format to export the series in.
+   * @return The formatted series.
+   */
+  String export(InterfaceExportFormat exportFormat);
+
   /**
    * Adjusts the time zone of the series.
    *
@@ -0,0 +1,110 @@
+package calendar.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterator over the events of several calendars within a window, in order of their start
+ * across all calendars, with times shown in one time zone. Every calendar already keeps its
+ * events in order of start, so the calendars are merged with a heap holding the next event of
+ * each: every event costs O(log N) for N calendars, and nothing is read before it is asked
+ * for. Events that start at the same instant come in order of end, then in the order the
+ * calendars were given. Like {@link InterfaceCalendar#eventsBetween}, the iterator reads the
+ * live calendars, so it must be used up before any of them changes: server sessions print it
+ * under the read lock, or with every shard parked when the calendars are sharded.
+ */
+public class MergedTimeline implements Iterator<TimelineEvent> {
+  private final ZoneId displayZone;
+  private final PriorityQueue<Cursor> heap;
+
+  /**
+   * Initializes a timeline over the given calendars.
+   *
+   * @param models        Calendars to read.
+   * @param calendarNames Names of the calendars to merge.
+   * @param from          Inclusive start of the window, in the display time zone.
+   * @param to            Inclusive end of the window, in the display time zone.
+   * @param displayZone   Time zone the window and the events are shown in.
+   */
+  public MergedTimeline(InterfaceCalendarModels models, Collection<String> calendarNames,
+                        LocalDateTime from, LocalDateTime to, ZoneId displayZone) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("End of the window must not be before its start.");
+    }
+    this.displayZone = displayZone;
+    this.heap = new PriorityQueue<>(Math.max(1, calendarNames.size()),
+        Comparator.comparing((Cursor cursor) -> cursor.start)
+            .thenComparing(cursor -> cursor.end)
+            .thenComparingInt(cursor -> cursor.order));
+
+    Instant windowStart = from.atZone(displayZone).toInstant();
+    Instant windowEnd = to.atZone(displayZone).toInstant();
+    int order = 0;
+    for (String name : calendarNames) {
+      InterfaceCalendar calendar = models.get(name);
+      ZoneId zone = calendar.getTimeZone().toZoneId();
+      Cursor cursor = new Cursor(name, zone, order++, calendar.eventsBetween(
+          LocalDateTime.ofInstant(windowStart, zone), LocalDateTime.ofInstant(windowEnd, zone)));
+      if (cursor.advance()) {
+        heap.add(cursor);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !heap.isEmpty();
+  }
+
+  @Override
+  public TimelineEvent next() {
+    Cursor cursor = heap.poll();
+    if (cursor == null) {
+      throw new NoSuchElementException();
+    }
+    TimelineEvent next = new TimelineEvent(cursor.name, cursor.event,
+        LocalDateTime.ofInstant(cursor.start, displayZone),
+        LocalDateTime.ofInstant(cursor.end, displayZone));
+    if (cursor.advance()) {
+      heap.add(cursor);
+    }
+    return next;
+  }
+
+  /**
+   * The next event of one calendar, with its span as instants so calendars in different time
+   * zones compare correctly.
+   */
+  private static class Cursor {
+    private final String name;
+    private final ZoneId zone;
+    private final int order;
+    private final Iterator<InterfaceEvent> events;
+    private InterfaceEvent event;
+    private Instant start;
+    private Instant end;
+
+    private Cursor(String name, ZoneId zone, int order, Iterator<InterfaceEvent> events) {
+      this.name = name;
+      this.zone = zone;
+      this.order = order;
+      this.events = events;
+    }
+
+    private boolean advance() {
+      if (!events.hasNext()) {
+        return false;
+      }
+      event = events.next();
+      start = event.getStartDateTime().atZone(zone).toInstant();
+      end = event.getEndDateTime().atZone(zone).toInstant();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package calendar.model;
+
+import calendar.model.export.InterfaceExportFormat;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * Writes every calendar of an InterfaceCalendarModels as text and reads them back, e.g. for
+ * checkpoints of long runs or to seed replication followers. Each calendar is stored with its
+ * name and time zone, followed by its series and its remaining events. A series is stored as
+ * its pattern and the exact list of its events rather than as a recurrence rule, so series
+ * without a pattern, e.g. the ones split off by editing the start of events, and events moved
+ * off their pattern stay in the series they were in. Lines of a snapshot:
+ * - calendar TAB name TAB time zone, starting a calendar
+ * - series TAB pattern TAB count, followed by the count event lines of the series
+ * - event TAB subject TAB start TAB end TAB status TAB location TAB description
+ * - end, ending a calendar
+ * - active TAB name, naming the active calendar
+ * where backslashes, tabs and line breaks in text fields are escaped as in Java literals.
+ * Change versions of the restored calendars start over. A calendar that stopped being
+ * registered while it was active, e.g. after its time zone was changed, is restored as the
+ * calendar registered under its name.
+ */
+public class ModelsSnapshot {
+  private static final String HEADER = "calendar-snapshot 2";
+  private static final String CALENDAR = "calendar";
+  private static final String SERIES = "series";
+  private static final String EVENT = "event";
+  private static final String ACTIVE = "active";
+  private static final String END_OF_CALENDAR = "end";
+  private static final String SEPARATOR = "\t";
+
+  private ModelsSnapshot() {
+  }
+
+  /**
+   * Writes all calendars and the name of the active calendar.
+   *
+   * @param models Calendars to write.
+   * @param out    Writer to write the snapshot to.
+   * @throws IOException if the snapshot cannot be written.
+   */
+  public static void write(InterfaceCalendarModels models, Writer out) throws IOException {
+    out.write(HEADER + "\n");
+    for (String name : models.getCalendarNames()) {
+      InterfaceCalendar calendar = models.get(name);
+      for (String entry : calendar.export(new SnapshotFormat(name, models.getTimeZone(name)))) {
+        out.write(entry);
+        out.write("\n");
+      }
+    }
+
+    InterfaceCalendar active = models.getActiveCalendar();
+    if (active != null) {
+      out.write(ACTIVE + SEPARATOR + escape(active.getName()) + "\n");
+    }
+  }
+
+  /**
+   * Reads a snapshot into calendars that do not contain any of its calendars yet.
+   *
+   * @param in     Reader positioned at the start of a snapshot.
+   * @param models Calendars to add the read calendars to.
+   * @throws IOException if the snapshot cannot be read.
+   */
+  public static void read(BufferedReader in, InterfaceCalendarModels models) throws IOException {
+    if (!HEADER.equals(in.readLine())) {
+      throw new IllegalArgumentException("Not a calendar snapshot.");
+    }
+
+    String line = in.readLine();
+    while (line != null) {
+      String[] fields = line.split(SEPARATOR, -1);
+      if (fields[0].equals(CALENDAR) && fields.length == 3) {
+        readCalendar(in, models, unescape(fields[1]), TimeZone.getTimeZone(fields[2]));
+      } else if (fields[0].equals(ACTIVE) && fields.length == 2) {
+        models.setActiveCalendar(unescape(fields[1]));
+      } else {
+        throw new IllegalArgumentException("Corrupt calendar snapshot: " + line);
+      }
+      line = in.readLine();
+    }
+  }
+
+  private static void readCalendar(BufferedReader in, InterfaceCalendarModels models,
+                                   String name, TimeZone timeZone) throws IOException {
+    SortedSet<InterfaceEvent> events = new TreeSet<>(CalendarModel.EVENT_ORDER);
+    List<InterfaceSeries> series = new ArrayList<>();
+    String line = readCalendarLine(in, name);
+    while (!line.equals(END_OF_CALENDAR)) {
+      String[] fields = line.split(SEPARATOR, -1);
+      if (fields[0].equals(EVENT)) {
+        events.add(readEvent(fields, timeZone, line));
+      } else if (fields[0].equals(SERIES) && fields.length == 3) {
+        InterfaceSeries each = readSeries(in, name, fields, timeZone, line);
+        events.addAll(each.getSeries());
+        series.add(each);
+      } else {
+        throw new IllegalArgumentException("Corrupt calendar snapshot: " + line);
+      }
+      line = readCalendarLine(in, name);
+    }
+
+    // The events are restored as they were, without validating them again.
+    InterfaceCalendar calendar = new CalendarModel.CalendarBuilder().name(name)
+        .timeZone(timeZone).events(events).series(series).build();
+    models.add(name, calendar, timeZone);
+  }
+
+  private static InterfaceSeries readSeries(BufferedReader in, String name, String[] fields,
+                                            TimeZone timeZone, String line) throws IOException {
+    int count;
+    try {
+      count = Integer.parseInt(fields[2]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Corrupt calendar snapshot: " + line);
+    }
+    List<InterfaceEvent> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String eventLine = readCalendarLine(in, name);
+      String[] eventFields = eventLine.split(SEPARATOR, -1);
+      if (!eventFields[0].equals(EVENT)) {
+        throw new IllegalArgumentException("Corrupt calendar snapshot: " + eventLine);
+      }
+      events.add(readEvent(eventFields, timeZone, eventLine));
+    }
+
+    EventSeries.SeriesBuilder builder = new EventSeries.SeriesBuilder().setList(events);
+    String pattern = unescape(fields[1]);
+    if (!pattern.isEmpty()) {
+      builder.setDaysOfWeek(pattern);
+    }
+    return builder.build();
+  }
+
+  private static InterfaceEvent readEvent(String[] fields, TimeZone timeZone, String line) {
+    if (fields.length != 7) {
+      throw new IllegalArgumentException("Corrupt calendar snapshot: " + line);
+    }
+    try {
+      InterfaceEvent event = new SingleEvent.SingleEventBuilder()
+          .setSubject(unescape(fields[1]))
+          .setStart(LocalDateTime.parse(fields[2]))
+          .setEnd(LocalDateTime.parse(fields[3]))
+          .setTimeZone(timeZone)
+          .build();
+      event.setProperty("status", fields[4]);
+      event.setProperty("location", unescape(fields[5]));
+      event.setProperty("description", unescape(fields[6]));
+      return event;
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Corrupt calendar snapshot: " + line);
+    }
+  }
+
+  private static String readCalendarLine(BufferedReader in, String name) throws IOException {
+    String line = in.readLine();
+    if (line == null) {
+      throw new IllegalArgumentException("Corrupt calendar snapshot: calendar '" + name
+          + "' is cut off.");
+    }
+    return line;
+  }
+
+  private static String escape(String text) {
+    StringBuilder escaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+          escaped.append("\\\\");
+          break;
+        case '\t':
+          escaped.append("\\t");
+          break;
+        case '\n':
+          escaped.append("\\n");
+          break;
+        case '\r':
+          escaped.append("\\r");
+          break;
+        default:
+          escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  private static String unescape(String text) {
+    if (text.indexOf('\\') < 0) {
+      return text;
+    }
+    StringBuilder unescaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c != '\\' || i + 1 == text.length()) {
+        unescaped.append(c);
+        continue;
+      }
+      char next = text.charAt(++i);
+      if (next == 't') {
+        unescaped.append('\t');
+      } else if (next == 'n') {
+        unescaped.append('\n');
+      } else if (next == 'r') {
+        unescaped.append('\r');
+      } else {
+        unescaped.append(next);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  /**
+   * Export format of one calendar in a snapshot. Series come first, each with all of its
+   * events, and then the events that are in no series.
+   */
+  private static class SnapshotFormat implements InterfaceExportFormat {
+    private final String name;
+    private final TimeZone timeZone;
+
+    private SnapshotFormat(String name, TimeZone timeZone) {
+      this.name = name;
+      this.timeZone = timeZone;
+    }
+
+    @Override
+    public String start() {
+      return CALENDAR + SEPARATOR + escape(name) + SEPARATOR + timeZone.getID();
+    }
+
+    @Override
+    public String end() {
+      return END_OF_CALENDAR;
+    }
+
+    @Override
+    public boolean exportsSeries() {
+      return true;
+    }
+
+    @Override
+    public String formatSeries(InterfaceSeries series) {
+      String pattern = series.getPattern() == null ? "" : series.getPattern();
+      StringBuilder entry = new StringBuilder()
+          .append(SERIES).append(SEPARATOR).append(escape(pattern))
+          .append(SEPARATOR).append(series.getSeries().size());
+      for (InterfaceEvent event : series.getSeries()) {
+        entry.append('\n').append(format(event));
+      }
+      return entry.toString();
+    }
+
+    @Override
+    public String format(InterfaceEvent event) {
+      return EVENT + SEPARATOR + escape(event.getSubject())
+          + SEPARATOR + event.getStartDateTime()
+          + SEPARATOR + event.getEndDateTime()
+          + SEPARATOR + event.getStatus()
+          + SEPARATOR + escape(event.getLocation())
+          + SEPARATOR + escape(event.getDescription());
+    }
+  }
+}
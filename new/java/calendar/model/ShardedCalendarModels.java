@@ -0,0 +1,299 @@
+package calendar.model;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * InterfaceCalendarModels that pins every calendar to one of several single-threaded
+ * executors, called shards. Everything that touches a calendar runs on its shard through
+ * {@link #onShardOf(InterfaceCalendar, Callable)}, so a calendar is only ever used by one
+ * thread and needs no locks, while calendars on different shards are used in parallel.
+ * Work that spans calendars, e.g. copying events between them, runs through
+ * {@link #exclusive(Callable)}, which parks every shard first.
+ * Looking up calendars by name does not lock; changes to the set of calendars are
+ * serialized. New calendars are spread over the shards round-robin and stay on their shard
+ * when they are renamed or their time zone changes.
+ */
+public class ShardedCalendarModels implements InterfaceCalendarModels, Closeable {
+  private final CalendarModelsImpl registry;
+  private final Map<String, InterfaceCalendar> calendars;
+  private final Map<InterfaceCalendar, Integer> shards;
+  private final ExecutorService[] executors;
+  private final ThreadLocal<Integer> ownShard;
+  private final ThreadLocal<Boolean> holdsExclusive;
+  private final ReentrantLock exclusiveLock;
+  private final AtomicInteger nextShard;
+  private volatile InterfaceCalendar activeCalendar;
+
+  /**
+   * Constructs sharded models without any calendars.
+   *
+   * @param shardCount Number of single-threaded executors.
+   */
+  public ShardedCalendarModels(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Number of shards must be positive.");
+    }
+    this.registry = new CalendarModelsImpl();
+    this.calendars = new ConcurrentHashMap<>();
+    this.shards = new ConcurrentHashMap<>();
+    this.ownShard = new ThreadLocal<>();
+    this.holdsExclusive = ThreadLocal.withInitial(() -> false);
+    this.exclusiveLock = new ReentrantLock();
+    this.nextShard = new AtomicInteger();
+    this.executors = new ExecutorService[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      int shard = i;
+      executors[i] = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(() -> {
+          ownShard.set(shard);
+          r.run();
+        }, "calendar-shard-" + shard);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Gets the number of shards.
+   *
+   * @return Number of single-threaded executors.
+   */
+  public int getShardCount() {
+    return executors.length;
+  }
+
+  /**
+   * Creates a view of the calendars with its own active calendar.
+   *
+   * @return Models for a single session.
+   */
+  public InterfaceCalendarModels newSession() {
+    return new Session();
+  }
+
+  /**
+   * Runs work on the shard of a calendar and waits for its result. Work that already runs on
+   * that shard, or while all shards are parked, runs right away.
+   *
+   * @param calendar Calendar the work uses.
+   * @param work     Work to run.
+   * @param <T>      Type of the result.
+   * @return Result of the work.
+   */
+  public <T> T onShardOf(InterfaceCalendar calendar, Callable<T> work) {
+    Integer shard = calendar == null ? null : shards.get(calendar);
+    if (shard == null || shard.equals(ownShard.get()) || holdsExclusive.get()) {
+      return call(work);
+    }
+    return await(executors[shard].submit(work));
+  }
+
+  /**
+   * Runs work on the calling thread while every shard is parked, so the work may use any
+   * calendar directly. Exclusive work runs one at a time.
+   *
+   * @param work Work to run.
+   * @param <T>  Type of the result.
+   * @return Result of the work.
+   */
+  public <T> T exclusive(Callable<T> work) {
+    if (holdsExclusive.get()) {
+      return call(work);
+    }
+    if (ownShard.get() != null) {
+      throw new IllegalStateException("A shard cannot wait for the other shards.");
+    }
+
+    exclusiveLock.lock();
+    CountDownLatch parked = new CountDownLatch(executors.length);
+    CountDownLatch released = new CountDownLatch(1);
+    try {
+      for (ExecutorService executor : executors) {
+        executor.execute(() -> {
+          parked.countDown();
+          awaitQuietly(released);
+        });
+      }
+      awaitQuietly(parked);
+      holdsExclusive.set(true);
+      return call(work);
+    } finally {
+      holdsExclusive.set(false);
+      released.countDown();
+      exclusiveLock.unlock();
+    }
+  }
+
+  @Override
+  public synchronized void add(String name, InterfaceCalendar model, TimeZone timezone) {
+    registry.add(name, model, timezone);
+    shards.put(model, Math.floorMod(nextShard.getAndIncrement(), executors.length));
+    calendars.put(name, model);
+  }
+
+  @Override
+  public InterfaceCalendar get(String calendarName) {
+    InterfaceCalendar calendar = calendars.get(Objects.requireNonNull(calendarName));
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar '" + calendarName + "' does not exist.");
+    }
+    return calendar;
+  }
+
+  @Override
+  public synchronized void setName(String oldName, String newName) {
+    registry.setName(oldName, newName);
+    InterfaceCalendar calendar = calendars.remove(oldName);
+    calendars.put(newName, calendar);
+  }
+
+  @Override
+  public Set<String> getCalendarNames() {
+    return Set.copyOf(calendars.keySet());
+  }
+
+  @Override
+  public synchronized TimeZone getTimeZone(String calendarName) {
+    return registry.getTimeZone(calendarName);
+  }
+
+  @Override
+  public InterfaceCalendar getActiveCalendar() {
+    return activeCalendar;
+  }
+
+  @Override
+  public void setActiveCalendar(String name) {
+    this.activeCalendar = get(name);
+  }
+
+  @Override
+  public void setTimeZone(String name, TimeZone timeZone) {
+    InterfaceCalendar calendar = get(name);
+    // Adjusting the time zone reads every event, so it runs where the calendar lives. The
+    // monitor is only taken on the shard, so no thread holds it while waiting for a shard.
+    onShardOf(calendar, () -> {
+      synchronized (this) {
+        registry.setTimeZone(name, timeZone);
+        InterfaceCalendar adjusted = registry.get(name);
+        Integer shard = shards.get(calendar);
+        if (shard != null) {
+          shards.put(adjusted, shard);
+        }
+        calendars.put(name, adjusted);
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public void close() {
+    for (ExecutorService executor : executors) {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T> T call(Callable<T> work) {
+    try {
+      return work.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  private static <T> T await(Future<T> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a shard.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause.getMessage(), cause);
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Session view that shares the calendars but keeps its own active calendar.
+   */
+  private class Session implements InterfaceCalendarModels {
+    private volatile InterfaceCalendar sessionCalendar;
+
+    @Override
+    public void add(String name, InterfaceCalendar model, TimeZone timezone) {
+      ShardedCalendarModels.this.add(name, model, timezone);
+    }
+
+    @Override
+    public InterfaceCalendar get(String calendarName) {
+      return ShardedCalendarModels.this.get(calendarName);
+    }
+
+    @Override
+    public void setName(String oldName, String newName) {
+      ShardedCalendarModels.this.setName(oldName, newName);
+    }
+
+    @Override
+    public Set<String> getCalendarNames() {
+      return ShardedCalendarModels.this.getCalendarNames();
+    }
+
+    @Override
+    public TimeZone getTimeZone(String calendarName) {
+      return ShardedCalendarModels.this.getTimeZone(calendarName);
+    }
+
+    @Override
+    public InterfaceCalendar getActiveCalendar() {
+      return sessionCalendar;
+    }
+
+    @Override
+    public void setActiveCalendar(String name) {
+      this.sessionCalendar = get(name);
+    }
+
+    @Override
+    public void setTimeZone(String name, TimeZone timeZone) {
+      ShardedCalendarModels.this.setTimeZone(name, timeZone);
+    }
+  }
+}
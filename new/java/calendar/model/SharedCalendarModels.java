@@ -0,0 +1,132 @@
+package calendar.model;
+
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe InterfaceCalendarModels shared by the sessions of a server.
+ * The calendars are shared, while every session created by {@link #newSession()} has its
+ * own active calendar. The calendars themselves are not thread-safe, so everything that
+ * reads a calendar holds the read lock of {@link #getCalendarLock()}, and everything that
+ * changes one holds its write lock.
+ */
+public class SharedCalendarModels implements InterfaceCalendarModels {
+  private final CalendarModelsImpl calendars;
+  private final ReadWriteLock calendarLock;
+  private volatile InterfaceCalendar activeCalendar;
+
+  /**
+   * Constructs shared models without any calendars.
+   */
+  public SharedCalendarModels() {
+    this.calendars = new CalendarModelsImpl();
+    this.calendarLock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Gets the lock that guards the contents of the calendars.
+   *
+   * @return Lock to read or change calendars with.
+   */
+  public ReadWriteLock getCalendarLock() {
+    return calendarLock;
+  }
+
+  /**
+   * Creates a view of the shared calendars with its own active calendar.
+   *
+   * @return Models for a single session.
+   */
+  public InterfaceCalendarModels newSession() {
+    return new Session();
+  }
+
+  @Override
+  public synchronized void add(String name, InterfaceCalendar model, TimeZone timezone) {
+    calendars.add(name, model, timezone);
+  }
+
+  @Override
+  public synchronized InterfaceCalendar get(String calendarName) {
+    return calendars.get(calendarName);
+  }
+
+  @Override
+  public synchronized void setName(String oldName, String newName) {
+    calendars.setName(oldName, newName);
+  }
+
+  @Override
+  public synchronized Set<String> getCalendarNames() {
+    return Set.copyOf(calendars.getCalendarNames());
+  }
+
+  @Override
+  public synchronized TimeZone getTimeZone(String calendarName) {
+    return calendars.getTimeZone(calendarName);
+  }
+
+  @Override
+  public InterfaceCalendar getActiveCalendar() {
+    return activeCalendar;
+  }
+
+  @Override
+  public void setActiveCalendar(String name) {
+    this.activeCalendar = get(name);
+  }
+
+  @Override
+  public synchronized void setTimeZone(String name, TimeZone timeZone) {
+    calendars.setTimeZone(name, timeZone);
+  }
+
+  /**
+   * Session view that shares the calendars but keeps its own active calendar.
+   */
+  private class Session implements InterfaceCalendarModels {
+    private volatile InterfaceCalendar sessionCalendar;
+
+    @Override
+    public void add(String name, InterfaceCalendar model, TimeZone timezone) {
+      SharedCalendarModels.this.add(name, model, timezone);
+    }
+
+    @Override
+    public InterfaceCalendar get(String calendarName) {
+      return SharedCalendarModels.this.get(calendarName);
+    }
+
+    @Override
+    public void setName(String oldName, String newName) {
+      SharedCalendarModels.this.setName(oldName, newName);
+    }
+
+    @Override
+    public Set<String> getCalendarNames() {
+      return SharedCalendarModels.this.getCalendarNames();
+    }
+
+    @Override
+    public TimeZone getTimeZone(String calendarName) {
+      return SharedCalendarModels.this.getTimeZone(calendarName);
+    }
+
+    @Override
+    public InterfaceCalendar getActiveCalendar() {
+      return sessionCalendar;
+    }
+
+    @Override
+    public void setActiveCalendar(String name) {
+      this.sessionCalendar = get(name);
+    }
+
+    @Override
+    public void setTimeZone(String name, TimeZone timeZone) {
+      SharedCalendarModels.this.setTimeZone(name, timeZone);
+    }
+  }
+}
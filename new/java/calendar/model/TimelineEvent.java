@@ -0,0 +1,84 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * An event on a timeline of several calendars, with its start and end shown in the time zone
+ * of the timeline rather than that of its calendar.
+ */
+public class TimelineEvent {
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+  private final String calendarName;
+  private final InterfaceEvent event;
+  private final LocalDateTime start;
+  private final LocalDateTime end;
+
+  /**
+   * Initializes a timeline event.
+   *
+   * @param calendarName Name of the calendar the event is in.
+   * @param event        The event.
+   * @param start        Start of the event in the time zone of the timeline.
+   * @param end          End of the event in the time zone of the timeline.
+   */
+  TimelineEvent(String calendarName, InterfaceEvent event, LocalDateTime start,
+                LocalDateTime end) {
+    this.calendarName = calendarName;
+    this.event = event;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Gets the name of the calendar the event is in.
+   *
+   * @return Name of the calendar.
+   */
+  public String getCalendarName() {
+    return calendarName;
+  }
+
+  /**
+   * Gets the event as it is in its calendar.
+   *
+   * @return The event, with times in the time zone of its calendar.
+   */
+  public InterfaceEvent getEvent() {
+    return event;
+  }
+
+  /**
+   * Gets the start of the event.
+   *
+   * @return Start in the time zone of the timeline.
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the end of the event.
+   *
+   * @return End in the time zone of the timeline.
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+
+  @Override
+  public String toString() {
+    String loc = "";
+    if (!event.getLocation().isEmpty()) {
+      loc = " in " + event.getLocation();
+    }
+
+    return "[" + calendarName + "] " + event.getSubject()
+        + " starting on " + start.toLocalDate()
+        + " at " + start.toLocalTime().format(TIME_FORMAT)
+        + ", ending on " + end.toLocalDate()
+        + " at " + end.toLocalTime().format(TIME_FORMAT)
+        + loc;
+  }
+}
@@ -0,0 +1,142 @@
+package calendar.model.export;
+
+import calendar.model.EventStatus;
+import calendar.model.InterfaceEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ExportFormatBinary formats events in a compact binary layout meant for transferring
+ * calendars between instances of this application.
+ * Every returned String holds one byte per char and must be written with ISO-8859-1 and no
+ * line separators. The layout is:
+ * - header: the magic "CALB" followed by the format version
+ * - one record per event, in the order the events are given:
+ *   a flags byte (all day, private, has description, has location),
+ *   the start as a zigzag varint of epoch minutes relative to the previous event's start,
+ *   the duration in minutes as a varint (omitted for all-day events),
+ *   then the subject, and the description and location if flagged, as dictionary strings
+ * - footer: a single END byte
+ * A dictionary string is a varint n: 0 introduces a new string (varint length and UTF-8
+ * bytes) that is added to the dictionary, and otherwise refers to entry n - 1.
+ * This format is stateful, so a new instance should be used for every export.
+ */
+public class ExportFormatBinary implements InterfaceExportFormat {
+  public static final String MAGIC = "CALB";
+  public static final int VERSION = 1;
+  public static final int END = 0xFF;
+
+  public static final int FLAG_ALL_DAY = 1;
+  public static final int FLAG_PRIVATE = 1 << 1;
+  public static final int FLAG_DESCRIPTION = 1 << 2;
+  public static final int FLAG_LOCATION = 1 << 3;
+
+  private final Map<String, Integer> dictionary;
+  private long previousStart;
+
+  /**
+   * Constructs an ExportFormatBinary with an empty string dictionary.
+   */
+  public ExportFormatBinary() {
+    this.dictionary = new HashMap<>();
+    this.previousStart = 0;
+  }
+
+  @Override
+  public String start() {
+    dictionary.clear();
+    previousStart = 0;
+    StringBuilder sb = new StringBuilder(MAGIC);
+    sb.append((char) VERSION);
+    return sb.toString();
+  }
+
+  @Override
+  public String end() {
+    return String.valueOf((char) END);
+  }
+
+  @Override
+  public String format(InterfaceEvent event) {
+    boolean isAllDay = event.getStartDateTime().toLocalDate()
+        .equals(event.getEndDateTime().toLocalDate())
+        && event.getStartDateTime().toLocalTime().equals(LocalTime.of(8, 0))
+        && event.getEndDateTime().toLocalTime().equals(LocalTime.of(17, 0));
+
+    int flags = 0;
+    if (isAllDay) {
+      flags |= FLAG_ALL_DAY;
+    }
+    if (event.getStatus() == EventStatus.PRIVATE) {
+      flags |= FLAG_PRIVATE;
+    }
+    if (!event.getDescription().isEmpty()) {
+      flags |= FLAG_DESCRIPTION;
+    }
+    if (!event.getLocation().isEmpty()) {
+      flags |= FLAG_LOCATION;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append((char) flags);
+
+    long start = toEpochMinute(event.getStartDateTime());
+    writeVarLong(sb, zigzag(start - previousStart));
+    previousStart = start;
+
+    if (!isAllDay) {
+      writeVarLong(sb, toEpochMinute(event.getEndDateTime()) - start);
+    }
+
+    writeString(sb, event.getSubject());
+    if ((flags & FLAG_DESCRIPTION) != 0) {
+      writeString(sb, event.getDescription());
+    }
+    if ((flags & FLAG_LOCATION) != 0) {
+      writeString(sb, event.getLocation());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Converts a local date-time into minutes since 1970-01-01T00:00 of the same wall clock.
+   *
+   * @param dateTime Local date-time to convert.
+   * @return Epoch minute of the wall clock time.
+   */
+  public static long toEpochMinute(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+  }
+
+  private void writeString(StringBuilder sb, String value) {
+    Integer index = dictionary.get(value);
+    if (index != null) {
+      writeVarLong(sb, index + 1);
+      return;
+    }
+
+    dictionary.put(value, dictionary.size());
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(sb, 0);
+    writeVarLong(sb, bytes.length);
+    for (byte b : bytes) {
+      sb.append((char) (b & 0xFF));
+    }
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static void writeVarLong(StringBuilder sb, long value) {
+    while ((value & ~0x7FL) != 0) {
+      sb.append((char) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    sb.append((char) value);
+  }
+}
@@ -9,7 +9,7 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * ExportFormatCsv is responsible for formatting calendar events
- * in a CSV (Comma-Separated Values) format.
+ * in a CSV (Comma-Separated Values) format. Text fields are quoted as RFC 4180 describes.
  */
 public class ExportFormatCsv implements InterfaceExportFormat {
   @Override
@@ -30,17 +30,32 @@ public class ExportFormatCsv implements InterfaceExportFormat {
 
     boolean isPrivate = status == EventStatus.PRIVATE;
 
-    return subject
+    return quote(subject)
         + "," + startDate.format(DateTimeFormatter.ISO_LOCAL_DATE)
         + "," + startTime.format(DateTimeFormatter.ofPattern("hh:mm a"))
         + "," + endDate.format(DateTimeFormatter.ISO_LOCAL_DATE)
         + "," + endTime.format(DateTimeFormatter.ofPattern("hh:mm a"))
         + "," + isAllDay
-        + "," + description
-        + "," + location
+        + "," + quote(description)
+        + "," + quote(location)
         + "," + isPrivate;
   }
 
+  /**
+   * Quotes a CSV field as RFC 4180 describes: a field holding a comma, a quote or a line
+   * break is put in quotes, with its quotes doubled. Other fields are left as they are.
+   *
+   * @param field Text of the field.
+   * @return The field as it is written to a CSV row.
+   */
+  public static String quote(String field) {
+    if (field.indexOf(',') < 0 && field.indexOf('"') < 0
+        && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+      return field;
+    }
+    return "\"" + field.replace("\"", "\"\"") + "\"";
+  }
+
   @Override
   public String start() {
     return "Subject,Start Date,Start Time,End Date,End Time,"
@@ -2,16 +2,37 @@ package calendar.model.export;
 
 import calendar.model.EventStatus;
 import calendar.model.InterfaceEvent;
+import calendar.model.InterfaceSeries;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
  * ExportFormatICal formats events to the iCalendar (.ics) standard.
+ * A recurring series is written as one VEVENT with an RRULE, with missing occurrences as
+ * EXDATEs and individually edited occurrences as RECURRENCE-ID overrides.
  */
 public class ExportFormatiCal implements InterfaceExportFormat {
+  private static final DateTimeFormatter DATE_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter UID_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final String PATTERN_DAYS = "MTWRFSU";
+  private static final String[] BYDAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
   private final String calendarName;
   private final ZoneId timeZone;
 
@@ -47,32 +68,91 @@ public class ExportFormatiCal implements InterfaceExportFormat {
 
   @Override
   public String format(InterfaceEvent event) {
-    DateTimeFormatter dtFormat = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
-    DateTimeFormatter dateOnly = DateTimeFormatter.ofPattern("yyyyMMdd");
+    StringBuilder sb = new StringBuilder();
+    sb.append("BEGIN:VEVENT\n");
+    appendEventBody(sb, event);
+    sb.append("END:VEVENT");
+    return sb.toString();
+  }
 
-    ZonedDateTime start = event.getStartDateTime().atZone(timeZone);
-    ZonedDateTime end = event.getEndDateTime().atZone(timeZone);
+  @Override
+  public String formatSeries(InterfaceSeries series) {
+    List<InterfaceEvent> occurrences = new ArrayList<>(series.getSeries());
+    occurrences.sort(Comparator.comparing(InterfaceEvent::getStartDateTime));
+    List<DayOfWeek> days = parseDays(series.getPattern());
 
-    boolean isAllDay = start.toLocalTime().equals(LocalTime.of(8, 0))
-        && end.toLocalTime().equals(LocalTime.of(17, 0))
-        && start.toLocalDate().equals(end.toLocalDate());
+    if (days == null) {
+      return formatEach(occurrences);
+    }
 
-    EventStatus status = event.getStatus();
-    final boolean isPrivate = status == EventStatus.PRIVATE;
+    InterfaceEvent master = occurrences.get(0);
+    LocalDate firstDate = master.getStartDateTime().toLocalDate();
+    LocalDate lastDate = occurrences.get(occurrences.size() - 1).getStartDateTime().toLocalDate();
+
+    // The first occurrence is always part of the series, even if it does not match the pattern.
+    List<LocalDate> expectedDates = new ArrayList<>();
+    expectedDates.add(firstDate);
+    for (LocalDate date = firstDate.plusDays(1); !date.isAfter(lastDate);
+         date = date.plusDays(1)) {
+      if (days.contains(date.getDayOfWeek())) {
+        expectedDates.add(date);
+      }
+    }
+
+    Map<LocalDate, InterfaceEvent> byDate = new HashMap<>();
+    for (InterfaceEvent event : occurrences) {
+      byDate.put(event.getStartDateTime().toLocalDate(), event);
+    }
+
+    String uid = "UID:" + master.getStartDateTime().format(UID_FORMAT) + "-"
+        + Integer.toHexString(master.getSubject().hashCode()) + "@mycalendarapp";
 
     StringBuilder sb = new StringBuilder();
     sb.append("BEGIN:VEVENT\n");
-    sb.append("SUMMARY:").append(event.getSubject()).append("\n");
+    sb.append(uid).append("\n");
+    appendEventBody(sb, master);
+    sb.append("RRULE:FREQ=WEEKLY;BYDAY=").append(formatDays(days))
+        .append(";COUNT=").append(expectedDates.size()).append("\n");
+    for (LocalDate date : expectedDates) {
+      if (!byDate.containsKey(date)) {
+        sb.append("EXDATE").append(formatDateTime(date.atTime(master.getStartDateTime()
+            .toLocalTime()), isAllDay(master))).append("\n");
+      }
+    }
+    sb.append("END:VEVENT");
 
-    if (isAllDay) {
-      sb.append("DTSTART;VALUE=DATE:").append(start.format(dateOnly)).append("\n");
-      sb.append("DTEND;VALUE=DATE:").append(end.format(dateOnly)).append("\n");
-    } else {
-      sb.append("DTSTART;TZID=").append(timeZone.getId()).append(":")
-          .append(start.format(dtFormat)).append("\n");
-      sb.append("DTEND;TZID=").append(timeZone.getId()).append(":")
-          .append(end.format(dtFormat)).append("\n");
+    Set<LocalDate> expected = new HashSet<>(expectedDates);
+    for (InterfaceEvent event : occurrences) {
+      LocalDate date = event.getStartDateTime().toLocalDate();
+      if (!expected.contains(date)) {
+        sb.append("\n").append(format(event));
+      } else if (!matchesMaster(master, event)) {
+        sb.append("\nBEGIN:VEVENT\n");
+        sb.append(uid).append("\n");
+        sb.append("RECURRENCE-ID").append(formatDateTime(date.atTime(master.getStartDateTime()
+            .toLocalTime()), isAllDay(master))).append("\n");
+        appendEventBody(sb, event);
+        sb.append("END:VEVENT");
+      }
     }
+    return sb.toString();
+  }
+
+  @Override
+  public boolean exportsSeries() {
+    return true;
+  }
+
+  /**
+   * Writes the properties shared by standalone events, series masters and overrides.
+   */
+  private void appendEventBody(StringBuilder sb, InterfaceEvent event) {
+    boolean isAllDay = isAllDay(event);
+    final boolean isPrivate = event.getStatus() == EventStatus.PRIVATE;
+
+    sb.append("SUMMARY:").append(event.getSubject()).append("\n");
+    sb.append("DTSTART").append(formatDateTime(event.getStartDateTime(), isAllDay)).append("\n");
+    sb.append("DTEND").append(formatDateTime(event.getEndDateTime(), isAllDay)).append("\n");
 
     if (!event.getDescription().isEmpty()) {
       sb.append("DESCRIPTION:").append(event.getDescription().replace("\n", "\\n")).append("\n");
@@ -84,8 +164,76 @@ public class ExportFormatiCal implements InterfaceExportFormat {
 
     sb.append("CLASS:").append(isPrivate ? "PRIVATE" : "PUBLIC").append("\n");
     sb.append("STATUS:CONFIRMED\n");
-    sb.append("END:VEVENT");
+  }
+
+  /**
+   * Formats the parameters and value of a date-time property, starting after the property name.
+   */
+  private String formatDateTime(LocalDateTime dateTime, boolean isAllDay) {
+    ZonedDateTime zoned = dateTime.atZone(timeZone);
+    if (isAllDay) {
+      return ";VALUE=DATE:" + zoned.format(DATE_FORMAT);
+    }
+    return ";TZID=" + timeZone.getId() + ":" + zoned.format(DATE_TIME_FORMAT);
+  }
 
+  private boolean isAllDay(InterfaceEvent event) {
+    ZonedDateTime start = event.getStartDateTime().atZone(timeZone);
+    ZonedDateTime end = event.getEndDateTime().atZone(timeZone);
+
+    return start.toLocalTime().equals(LocalTime.of(8, 0))
+        && end.toLocalTime().equals(LocalTime.of(17, 0))
+        && start.toLocalDate().equals(end.toLocalDate());
+  }
+
+  private boolean matchesMaster(InterfaceEvent master, InterfaceEvent event) {
+    return master.getSubject().equals(event.getSubject())
+        && master.getStartDateTime().toLocalTime().equals(event.getStartDateTime().toLocalTime())
+        && master.getEndDateTime().toLocalTime().equals(event.getEndDateTime().toLocalTime())
+        && master.getDescription().equals(event.getDescription())
+        && master.getLocation().equals(event.getLocation())
+        && master.getStatus() == event.getStatus();
+  }
+
+  private String formatEach(List<InterfaceEvent> occurrences) {
+    StringBuilder sb = new StringBuilder();
+    for (InterfaceEvent event : occurrences) {
+      if (sb.length() > 0) {
+        sb.append("\n");
+      }
+      sb.append(format(event));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Converts a series pattern like "MWF" into days of the week.
+   *
+   * @return The days of the pattern, or null if the series has no pattern.
+   */
+  private List<DayOfWeek> parseDays(String pattern) {
+    if (pattern == null || pattern.isEmpty()) {
+      return null;
+    }
+    List<DayOfWeek> days = new ArrayList<>();
+    for (char c : pattern.toCharArray()) {
+      int index = PATTERN_DAYS.indexOf(c);
+      if (index < 0) {
+        return null;
+      }
+      days.add(DayOfWeek.of(index + 1));
+    }
+    return days;
+  }
+
+  private String formatDays(List<DayOfWeek> days) {
+    StringBuilder sb = new StringBuilder();
+    for (DayOfWeek day : days) {
+      if (sb.length() > 0) {
+        sb.append(",");
+      }
+      sb.append(BYDAY_CODES[day.getValue() - 1]);
+    }
     return sb.toString();
   }
 }
@@ -0,0 +1,134 @@
+package calendar.model.export;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.filter.FilterByDateTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ExportFreeBusy writes the busy time of one or more calendars as an iCalendar VFREEBUSY.
+ * The events of all calendars are merged into disjoint busy intervals, so the export says
+ * when someone is busy without giving away the subject, description, location or status of
+ * any event. Events that overlap or touch, in the same calendar or in different ones, become
+ * one interval. Times are written in UTC as the standard requires.
+ */
+public class ExportFreeBusy {
+  private static final DateTimeFormatter UTC_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+  private final List<InterfaceCalendar> calendars;
+
+  /**
+   * Constructs an ExportFreeBusy for the given calendars.
+   *
+   * @param calendars Calendars whose busy time is exported together.
+   */
+  public ExportFreeBusy(List<InterfaceCalendar> calendars) {
+    if (calendars.isEmpty()) {
+      throw new IllegalArgumentException("At least one calendar is needed.");
+    }
+    this.calendars = List.copyOf(calendars);
+  }
+
+  /**
+   * Exports the busy time within a window. Events reaching outside the window are cut off at
+   * its edges.
+   *
+   * @param from Start of the window, or null to start with the first event.
+   * @param to   End of the window, or null to end with the last event.
+   * @return Lines of the VCALENDAR holding the VFREEBUSY.
+   */
+  public List<String> export(Instant from, Instant to) {
+    if (from != null && to != null && !from.isBefore(to)) {
+      throw new IllegalArgumentException("End of the window must be after its start.");
+    }
+    List<Instant[]> busy = merge(collect(from, to));
+
+    Instant start = from != null ? from : busy.isEmpty() ? null : busy.get(0)[0];
+    Instant end = to != null ? to : busy.isEmpty() ? null : busy.get(busy.size() - 1)[1];
+    List<String> lines = new ArrayList<>();
+    lines.add("BEGIN:VCALENDAR");
+    lines.add("VERSION:2.0");
+    lines.add("PRODID:-//MyCalendarApp//EN");
+    lines.add("METHOD:PUBLISH");
+    lines.add("BEGIN:VFREEBUSY");
+    lines.add("UID:" + uid(start, end));
+    lines.add("DTSTAMP:" + UTC_FORMAT.format(Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+    if (start != null) {
+      lines.add("DTSTART:" + UTC_FORMAT.format(start));
+      lines.add("DTEND:" + UTC_FORMAT.format(end));
+    }
+    for (Instant[] interval : busy) {
+      lines.add("FREEBUSY;FBTYPE=BUSY:" + UTC_FORMAT.format(interval[0]) + "/"
+          + UTC_FORMAT.format(interval[1]));
+    }
+    lines.add("END:VFREEBUSY");
+    lines.add("END:VCALENDAR");
+    return lines;
+  }
+
+  /**
+   * Collects the time of every event within the window, as UTC instants cut to the window.
+   */
+  private List<Instant[]> collect(Instant from, Instant to) {
+    List<Instant[]> intervals = new ArrayList<>();
+    for (InterfaceCalendar calendar : calendars) {
+      ZoneId zone = calendar.getTimeZone().toZoneId();
+      LocalDateTime localFrom = from == null ? LocalDateTime.MIN
+          : LocalDateTime.ofInstant(from, zone).minusDays(1);
+      LocalDateTime localTo = to == null ? LocalDateTime.MAX
+          : LocalDateTime.ofInstant(to, zone).plusDays(1);
+      for (InterfaceEvent event : calendar.filter(new FilterByDateTime(localFrom, localTo))) {
+        Instant start = event.getStartDateTime().atZone(zone).toInstant();
+        Instant end = event.getEndDateTime().atZone(zone).toInstant();
+        if (from != null && start.isBefore(from)) {
+          start = from;
+        }
+        if (to != null && end.isAfter(to)) {
+          end = to;
+        }
+        if (start.isBefore(end)) {
+          intervals.add(new Instant[] {start, end});
+        }
+      }
+    }
+    return intervals;
+  }
+
+  /**
+   * Sorts the intervals by start and merges overlapping or touching ones in one pass.
+   */
+  private static List<Instant[]> merge(List<Instant[]> intervals) {
+    intervals.sort(Comparator.comparing(interval -> interval[0]));
+    List<Instant[]> merged = new ArrayList<>();
+    Instant[] current = null;
+    for (Instant[] interval : intervals) {
+      if (current != null && !interval[0].isAfter(current[1])) {
+        if (interval[1].isAfter(current[1])) {
+          current[1] = interval[1];
+        }
+      } else {
+        current = interval;
+        merged.add(current);
+      }
+    }
+    return merged;
+  }
+
+  private String uid(Instant start, Instant end) {
+    StringBuilder names = new StringBuilder();
+    for (InterfaceCalendar calendar : calendars) {
+      names.append(calendar.getName()).append('\n');
+    }
+    return (start == null ? "empty" : UTC_FORMAT.format(start) + "-" + UTC_FORMAT.format(end))
+        + "-" + Integer.toHexString(names.toString().hashCode()) + "@mycalendarapp";
+  }
+}
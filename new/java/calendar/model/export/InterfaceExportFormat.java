@@ -1,6 +1,7 @@
 package calendar.model.export;
 
 import calendar.model.InterfaceEvent;
+import calendar.model.InterfaceSeries;
 
 /**
  * Formats an individual event for a particular export file.
@@ -14,6 +15,35 @@ public interface InterfaceExportFormat {
    */
   String format(InterfaceEvent event);
 
+  /**
+   * Formats a whole recurring series for an export file. By default every occurrence is
+   * formatted with {@link #format(InterfaceEvent)}, one per line.
+   *
+   * @param series Series to format.
+   * @return String representation of the formatted series.
+   */
+  default String formatSeries(InterfaceSeries series) {
+    StringBuilder sb = new StringBuilder();
+    for (InterfaceEvent event : series.getSeries()) {
+      if (sb.length() > 0) {
+        sb.append("\n");
+      }
+      sb.append(format(event));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Determines whether a series should be exported as a single entry through
+   * {@link #formatSeries(InterfaceSeries)} instead of one entry per occurrence.
+   *
+   * @return True if series are exported as a single entry, false if otherwise. False by
+   *         default.
+   */
+  default boolean exportsSeries() {
+    return false;
+  }
+
   /**
    * Returns the starting content or header required for the export format.
    *
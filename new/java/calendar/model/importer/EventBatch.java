@@ -0,0 +1,109 @@
+package calendar.model.importer;
+
+import calendar.model.EventValidator;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.InterfaceSeries;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Package-protected helper that collects parsed events and hands them to the calendar
+ * once a batch is full. Events are validated as they are collected, so a batch is never
+ * rejected part way, and the batch always knows how many events the calendar took.
+ */
+class EventBatch {
+  static final int BATCH_SIZE = 1024;
+
+  private final InterfaceCalendar calendar;
+  private final List<InterfaceEvent> events;
+  private final EventValidator validator;
+  private int added;
+
+  /**
+   * Initializes an empty batch for the given calendar.
+   *
+   * @param calendar Calendar the events are added to.
+   */
+  EventBatch(InterfaceCalendar calendar) {
+    this.calendar = calendar;
+    this.events = new ArrayList<>(BATCH_SIZE);
+    this.validator = new EventValidator();
+    this.added = 0;
+  }
+
+  /**
+   * Adds an event to the batch, flushing the batch to the calendar if it is full.
+   *
+   * @param event Parsed event.
+   * @throws IllegalArgumentException if the event ends before it starts.
+   */
+  void add(InterfaceEvent event) {
+    validator.validateEventTimes(event.getStartDateTime(), event.getEndDateTime());
+    events.add(event);
+    if (events.size() >= BATCH_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Adds events that were already validated to the calendar right away, after the events
+   * collected so far.
+   *
+   * @param parsed Parsed and validated events.
+   */
+  void addAll(List<InterfaceEvent> parsed) {
+    flush();
+    added += calendar.addEvents(parsed);
+  }
+
+  /**
+   * Adds a whole series to the calendar right away, after the events collected so far.
+   *
+   * @param series Parsed series.
+   * @throws IllegalArgumentException if an occurrence ends before it starts.
+   */
+  void addSeries(InterfaceSeries series) {
+    for (InterfaceEvent event : series.getSeries()) {
+      validator.validateEventTimes(event.getStartDateTime(), event.getEndDateTime());
+    }
+    flush();
+    added += calendar.addSeries(series);
+  }
+
+  /**
+   * Reports an import that failed after some events were added. Those events stay in the
+   * calendar, so the failure is turned into an error that tells how many there are. Does
+   * nothing if no event was added yet, so the caller rethrows the failure as it is.
+   *
+   * @param cause Failure that stopped the import.
+   * @throws IllegalArgumentException if some events were added before the failure.
+   */
+  void reportPartial(Exception cause) {
+    if (added == 0) {
+      return;
+    }
+    String reason = cause instanceof IOException
+        ? "Failed to read the import file." : cause.getMessage();
+    throw new IllegalArgumentException(reason + " " + added
+        + " events imported before the error stay in the calendar.", cause);
+  }
+
+  /**
+   * Adds the remaining events to the calendar.
+   *
+   * @return Total number of events added to the calendar through this batch.
+   */
+  int finish() {
+    flush();
+    return added;
+  }
+
+  private void flush() {
+    if (!events.isEmpty()) {
+      added += calendar.addEvents(events);
+      events.clear();
+    }
+  }
+}
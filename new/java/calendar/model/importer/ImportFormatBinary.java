@@ -0,0 +1,130 @@
+package calendar.model.importer;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.SingleEvent;
+import calendar.model.export.ExportFormatBinary;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImportFormatBinary reads events written by ExportFormatBinary.
+ * The reader must decode the file with ISO-8859-1, so that every char holds one byte.
+ */
+public class ImportFormatBinary implements InterfaceImportFormat {
+
+  @Override
+  public int importInto(BufferedReader reader, InterfaceCalendar calendar) throws IOException {
+    for (int i = 0; i < ExportFormatBinary.MAGIC.length(); i++) {
+      if (reader.read() != ExportFormatBinary.MAGIC.charAt(i)) {
+        throw new IllegalArgumentException("Not a binary calendar file.");
+      }
+    }
+    int version = reader.read();
+    if (version != ExportFormatBinary.VERSION) {
+      throw new IllegalArgumentException("Unsupported binary calendar version: " + version);
+    }
+
+    EventBatch batch = new EventBatch(calendar);
+    try {
+      return readEvents(reader, calendar, batch);
+    } catch (IOException | RuntimeException e) {
+      batch.reportPartial(e);
+      throw e;
+    }
+  }
+
+  private int readEvents(BufferedReader reader, InterfaceCalendar calendar, EventBatch batch)
+      throws IOException {
+    List<String> dictionary = new ArrayList<>();
+    long previousStart = 0;
+
+    int flags = reader.read();
+    while (flags != -1 && flags != ExportFormatBinary.END) {
+      long start = previousStart + unzigzag(readVarLong(reader));
+      previousStart = start;
+
+      LocalDateTime startDateTime = fromEpochMinute(start);
+      LocalDateTime endDateTime;
+      if ((flags & ExportFormatBinary.FLAG_ALL_DAY) != 0) {
+        startDateTime = startDateTime.toLocalDate().atTime(8, 0);
+        endDateTime = startDateTime.toLocalDate().atTime(17, 0);
+      } else {
+        endDateTime = fromEpochMinute(start + readVarLong(reader));
+      }
+
+      InterfaceEvent event = new SingleEvent.SingleEventBuilder()
+          .setSubject(readString(reader, dictionary))
+          .setStart(startDateTime)
+          .setEnd(endDateTime)
+          .setTimeZone(calendar.getTimeZone())
+          .build();
+
+      if ((flags & ExportFormatBinary.FLAG_DESCRIPTION) != 0) {
+        event.setProperty("description", readString(reader, dictionary));
+      }
+      if ((flags & ExportFormatBinary.FLAG_LOCATION) != 0) {
+        event.setProperty("location", readString(reader, dictionary));
+      }
+      if ((flags & ExportFormatBinary.FLAG_PRIVATE) != 0) {
+        event.setProperty("status", "PRIVATE");
+      }
+
+      batch.add(event);
+      flags = reader.read();
+    }
+    return batch.finish();
+  }
+
+  private String readString(BufferedReader reader, List<String> dictionary) throws IOException {
+    long index = readVarLong(reader);
+    if (index > 0) {
+      if (index > dictionary.size()) {
+        throw new IllegalArgumentException("Corrupt binary calendar file: unknown string.");
+      }
+      return dictionary.get((int) index - 1);
+    }
+
+    int length = (int) readVarLong(reader);
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) readByte(reader);
+    }
+    String value = new String(bytes, StandardCharsets.UTF_8);
+    dictionary.add(value);
+    return value;
+  }
+
+  private long readVarLong(BufferedReader reader) throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte(reader);
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  private int readByte(BufferedReader reader) throws IOException {
+    int b = reader.read();
+    if (b < 0 || b > 0xFF) {
+      throw new IllegalArgumentException("Corrupt binary calendar file: unexpected end.");
+    }
+    return b;
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static LocalDateTime fromEpochMinute(long epochMinute) {
+    return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,115 @@
+package calendar.model.importer;
+
+import calendar.model.EventValidator;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.SingleEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImportFormatCsv parses the rows of calendar events written by ExportFormatCsv, for
+ * ParallelImportCsv, which reads the file.
+ * Expects the columns: Subject, Start Date, Start Time, End Date, End Time,
+ * All Day Event, Description, Location, Private. Fields may be quoted as RFC 4180 describes,
+ * so a quoted field can hold commas, doubled quotes and line breaks.
+ */
+public class ImportFormatCsv {
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a");
+  private static final int COLUMNS = 9;
+  private final EventValidator validator = new EventValidator();
+
+  /**
+   * Rebuilds a single event from a CSV row, checking that it could be added to a calendar.
+   *
+   * @param line     CSV row without its line terminator.
+   * @param where    Position of the row in the file, used in error messages.
+   * @param calendar Calendar whose time zone the event is created in.
+   * @return The parsed event.
+   */
+  InterfaceEvent parseLine(String line, String where, InterfaceCalendar calendar) {
+    List<String> fields = splitFields(line, where);
+    if (fields.size() != COLUMNS) {
+      throw new IllegalArgumentException("Malformed CSV " + where + ": expected "
+          + COLUMNS + " columns but found " + fields.size() + ".");
+    }
+
+    LocalDateTime start;
+    LocalDateTime end;
+    try {
+      start = LocalDate.parse(fields.get(1)).atTime(LocalTime.parse(fields.get(2), TIME_FORMAT));
+      end = LocalDate.parse(fields.get(3)).atTime(LocalTime.parse(fields.get(4), TIME_FORMAT));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date or time in CSV " + where + ".");
+    }
+    try {
+      validator.validateEventTimes(start, end);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid event in CSV " + where + ": "
+          + e.getMessage() + ".");
+    }
+
+    InterfaceEvent event = new SingleEvent.SingleEventBuilder()
+        .setSubject(fields.get(0))
+        .setStart(start)
+        .setEnd(end)
+        .setTimeZone(calendar.getTimeZone())
+        .build();
+
+    event.setProperty("description", fields.get(6));
+    event.setProperty("location", fields.get(7));
+    event.setProperty("status", Boolean.parseBoolean(fields.get(8)) ? "PRIVATE" : "PUBLIC");
+    return event;
+  }
+
+  /**
+   * Splits a CSV row into its fields. A field that starts with a quote runs to the next
+   * single quote, and a doubled quote inside it stands for one quote.
+   */
+  private static List<String> splitFields(String line, String where) {
+    List<String> fields = new ArrayList<>(COLUMNS);
+    StringBuilder field = new StringBuilder();
+    int i = 0;
+    while (true) {
+      if (i < line.length() && line.charAt(i) == '"') {
+        i++;
+        while (true) {
+          if (i >= line.length()) {
+            throw new IllegalArgumentException("Malformed CSV " + where
+                + ": a quoted field is not closed.");
+          }
+          char c = line.charAt(i++);
+          if (c != '"') {
+            field.append(c);
+          } else if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            break;
+          }
+        }
+        if (i < line.length() && line.charAt(i) != ',') {
+          throw new IllegalArgumentException("Malformed CSV " + where
+              + ": expected a comma after a quoted field.");
+        }
+      } else {
+        int comma = line.indexOf(',', i);
+        int fieldEnd = comma < 0 ? line.length() : comma;
+        field.append(line, i, fieldEnd);
+        i = fieldEnd;
+      }
+
+      fields.add(field.toString());
+      field.setLength(0);
+      if (i >= line.length()) {
+        return fields;
+      }
+      i++;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package calendar.model.importer;
+
+import calendar.model.EventSeries;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import calendar.model.InterfaceSeries;
+import calendar.model.SingleEvent;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ImportFormatiCal reads VEVENTs from an iCalendar (.ics) file.
+ * Single events are added to the calendar in batches as they are read. VEVENTs with an RRULE
+ * are rebuilt as event series, with EXDATEs removed and RECURRENCE-ID overrides applied, and
+ * are added once the whole file has been read since overrides may come after their series.
+ */
+public class ImportFormatiCal implements InterfaceImportFormat {
+  private static final DateTimeFormatter DATE_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final LocalTime ALL_DAY_START = LocalTime.of(8, 0);
+  private static final LocalTime ALL_DAY_END = LocalTime.of(17, 0);
+  private static final String PATTERN_DAYS = "MTWRFSU";
+  private static final List<String> BYDAY_CODES =
+      List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+  @Override
+  public int importInto(BufferedReader reader, InterfaceCalendar calendar) throws IOException {
+    EventBatch batch = new EventBatch(calendar);
+    try {
+      return readEvents(reader, calendar, batch);
+    } catch (IOException | RuntimeException e) {
+      batch.reportPartial(e);
+      throw e;
+    }
+  }
+
+  private int readEvents(BufferedReader reader, InterfaceCalendar calendar, EventBatch batch)
+      throws IOException {
+    Map<String, InterfaceSeries> pendingSeries = new LinkedHashMap<>();
+    ZoneId calendarZone = calendar.getTimeZone().toZoneId();
+
+    VEvent current = null;
+    String line = reader.readLine();
+    while (line != null) {
+      // Unfold continuation lines, which start with a single space or tab.
+      StringBuilder unfolded = new StringBuilder(line);
+      String next = reader.readLine();
+      while (next != null && !next.isEmpty()
+          && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+        unfolded.append(next, 1, next.length());
+        next = reader.readLine();
+      }
+
+      String property = unfolded.toString();
+      if (property.equals("BEGIN:VEVENT")) {
+        current = new VEvent();
+      } else if (property.equals("END:VEVENT") && current != null) {
+        handleEvent(current, calendar, calendarZone, batch, pendingSeries);
+        current = null;
+      } else if (current != null) {
+        current.addProperty(property);
+      }
+      line = next;
+    }
+
+    for (InterfaceSeries series : pendingSeries.values()) {
+      batch.addSeries(series);
+    }
+    return batch.finish();
+  }
+
+  /**
+   * Turns a fully read VEVENT into a single event, a series, or an override of a series.
+   */
+  private void handleEvent(VEvent vevent, InterfaceCalendar calendar, ZoneId calendarZone,
+                           EventBatch batch, Map<String, InterfaceSeries> pendingSeries) {
+    InterfaceEvent event = buildEvent(vevent, calendar, calendarZone);
+    String uid = vevent.value("UID");
+
+    if (vevent.has("RECURRENCE-ID")) {
+      InterfaceSeries series = pendingSeries.get(uid);
+      LocalDate date = parseDateTime(vevent.params("RECURRENCE-ID"),
+          vevent.value("RECURRENCE-ID"), ALL_DAY_START, calendarZone).toLocalDate();
+      InterfaceEvent occurrence = series == null ? null : findOnDate(series, date);
+
+      if (occurrence == null) {
+        batch.add(event);
+      } else {
+        occurrence.setProperty("subject", event.getSubject());
+        occurrence.setProperty("start", event.getStartDateTime().toString());
+        occurrence.setProperty("end", event.getEndDateTime().toString());
+        copyOptionalFields(event, occurrence);
+      }
+    } else if (vevent.has("RRULE")) {
+      InterfaceSeries series = buildSeries(vevent, event, calendar);
+      for (int i = 0; i < vevent.exdates.size(); i++) {
+        LocalDate date = parseDateTime(vevent.exdateParams.get(i), vevent.exdates.get(i),
+            ALL_DAY_START, calendarZone).toLocalDate();
+        InterfaceEvent excluded = findOnDate(series, date);
+        if (excluded != null) {
+          series.removeEvent(excluded);
+        }
+      }
+      pendingSeries.put(uid == null ? "#" + pendingSeries.size() : uid, series);
+    } else {
+      batch.add(event);
+    }
+  }
+
+  private InterfaceEvent buildEvent(VEvent vevent, InterfaceCalendar calendar,
+                                    ZoneId calendarZone) {
+    if (!vevent.has("DTSTART") || !vevent.has("DTEND")) {
+      throw new IllegalArgumentException("VEVENT is missing DTSTART or DTEND.");
+    }
+    String subject = vevent.has("SUMMARY") ? vevent.value("SUMMARY") : "";
+    LocalDateTime start = parseDateTime(vevent.params("DTSTART"), vevent.value("DTSTART"),
+        ALL_DAY_START, calendarZone);
+    LocalDateTime end = parseDateTime(vevent.params("DTEND"), vevent.value("DTEND"),
+        ALL_DAY_END, calendarZone);
+
+    InterfaceEvent event = new SingleEvent.SingleEventBuilder()
+        .setSubject(subject)
+        .setStart(start)
+        .setEnd(end)
+        .setTimeZone(calendar.getTimeZone())
+        .build();
+
+    if (vevent.has("DESCRIPTION")) {
+      event.setProperty("description", vevent.value("DESCRIPTION").replace("\\n", "\n"));
+    }
+    if (vevent.has("LOCATION")) {
+      event.setProperty("location", vevent.value("LOCATION"));
+    }
+    if (vevent.has("CLASS")) {
+      event.setProperty("status",
+          vevent.value("CLASS").equalsIgnoreCase("PRIVATE") ? "PRIVATE" : "PUBLIC");
+    }
+    return event;
+  }
+
+  /**
+   * Rebuilds a series from the RRULE of a VEVENT, using the VEVENT itself as the first occurrence.
+   */
+  private InterfaceSeries buildSeries(VEvent vevent, InterfaceEvent master,
+                                      InterfaceCalendar calendar) {
+    Map<String, String> rule = new HashMap<>();
+    for (String part : vevent.value("RRULE").split(";")) {
+      int equals = part.indexOf('=');
+      if (equals > 0) {
+        rule.put(part.substring(0, equals).toUpperCase(), part.substring(equals + 1));
+      }
+    }
+
+    String frequency = rule.getOrDefault("FREQ", "");
+    String pattern;
+    if (frequency.equals("DAILY")) {
+      pattern = PATTERN_DAYS;
+    } else if (frequency.equals("WEEKLY")) {
+      pattern = rule.containsKey("BYDAY")
+          ? parseDays(rule.get("BYDAY"))
+          : String.valueOf(PATTERN_DAYS.charAt(
+              master.getStartDateTime().getDayOfWeek().getValue() - 1));
+    } else {
+      throw new IllegalArgumentException("Unsupported RRULE frequency: " + frequency);
+    }
+
+    String termination;
+    if (rule.containsKey("COUNT")) {
+      termination = rule.get("COUNT");
+    } else if (rule.containsKey("UNTIL")) {
+      termination = LocalDate.parse(rule.get("UNTIL").substring(0, 8), DATE_FORMAT).toString();
+    } else {
+      throw new IllegalArgumentException("RRULE must have a COUNT or UNTIL.");
+    }
+
+    InterfaceSeries series = new EventSeries.SeriesBuilder()
+        .setSubject(master.getSubject())
+        .setTimes(master.getStartDateTime().toLocalTime(), master.getEndDateTime().toLocalTime())
+        .setStartDate(master.getStartDateTime().toLocalDate())
+        .setDaysOfWeek(pattern)
+        .setTermination(termination)
+        .setTimeZone(calendar.getTimeZone())
+        .build();
+
+    for (InterfaceEvent occurrence : series.getSeries()) {
+      copyOptionalFields(master, occurrence);
+    }
+    return series;
+  }
+
+  private void copyOptionalFields(InterfaceEvent from, InterfaceEvent to) {
+    to.setProperty("description", from.getDescription());
+    to.setProperty("location", from.getLocation());
+    to.setProperty("status", from.getStatus().toString());
+  }
+
+  private InterfaceEvent findOnDate(InterfaceSeries series, LocalDate date) {
+    for (InterfaceEvent event : series.getSeries()) {
+      if (event.getStartDateTime().toLocalDate().equals(date)) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  private String parseDays(String byDay) {
+    StringBuilder pattern = new StringBuilder();
+    for (String code : byDay.split(",")) {
+      int index = BYDAY_CODES.indexOf(code.trim().toUpperCase());
+      if (index < 0) {
+        throw new IllegalArgumentException("Unsupported BYDAY value: " + code);
+      }
+      pattern.append(PATTERN_DAYS.charAt(index));
+    }
+    return pattern.toString();
+  }
+
+  /**
+   * Parses a date or date-time property into the time zone of the calendar.
+   * Dates without a time are treated as all-day and given the provided time of day.
+   */
+  private LocalDateTime parseDateTime(String params, String value, LocalTime allDayTime,
+                                      ZoneId calendarZone) {
+    try {
+      if (params.contains("VALUE=DATE") && !params.contains("VALUE=DATE-TIME")) {
+        return LocalDate.parse(value.substring(0, 8), DATE_FORMAT).atTime(allDayTime);
+      }
+
+      boolean utc = value.endsWith("Z");
+      LocalDateTime local = LocalDateTime.parse(utc ? value.substring(0, value.length() - 1)
+          : value, DATE_TIME_FORMAT);
+
+      int tzid = params.indexOf("TZID=");
+      if (tzid >= 0) {
+        int endOfTzid = params.indexOf(';', tzid);
+        String zone = params.substring(tzid + 5, endOfTzid < 0 ? params.length() : endOfTzid);
+        return local.atZone(ZoneId.of(zone)).withZoneSameInstant(calendarZone).toLocalDateTime();
+      } else if (utc) {
+        return local.atZone(ZoneOffset.UTC).withZoneSameInstant(calendarZone).toLocalDateTime();
+      }
+      return local;
+    } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid iCal date: " + value);
+    }
+  }
+
+  /**
+   * Properties of a VEVENT that is being read.
+   */
+  private static class VEvent {
+    private final Map<String, String> params = new HashMap<>();
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> exdates = new ArrayList<>();
+    private final List<String> exdateParams = new ArrayList<>();
+
+    private void addProperty(String line) {
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        return;
+      }
+      int semicolon = line.indexOf(';');
+      int endOfName = semicolon >= 0 && semicolon < colon ? semicolon : colon;
+      String name = line.substring(0, endOfName).toUpperCase();
+      String paramString = line.substring(endOfName, colon);
+      String value = line.substring(colon + 1);
+
+      if (name.equals("EXDATE")) {
+        for (String date : value.split(",")) {
+          exdates.add(date);
+          exdateParams.add(paramString);
+        }
+      } else {
+        params.put(name, paramString);
+        values.put(name, value);
+      }
+    }
+
+    private boolean has(String name) {
+      return values.containsKey(name);
+    }
+
+    private String value(String name) {
+      return values.get(name);
+    }
+
+    private String params(String name) {
+      return params.get(name);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package calendar.model.importer;
+
+import calendar.model.InterfaceCalendar;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads events of a particular file format and adds them to a calendar.
+ */
+public interface InterfaceImportFormat {
+
+  /**
+   * Reads the file line by line and adds its events to the calendar in batches,
+   * so that memory stays bounded regardless of the size of the file. If the import stops
+   * part way, the events added before stay in the calendar and the error says how many.
+   *
+   * @param reader   Reader over the file to import.
+   * @param calendar Calendar to add the imported events to.
+   * @return Number of events that were added to the calendar.
+   * @throws IOException if the file cannot be read.
+   */
+  int importInto(BufferedReader reader, InterfaceCalendar calendar) throws IOException;
+}
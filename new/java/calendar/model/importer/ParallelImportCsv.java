@@ -0,0 +1,221 @@
+package calendar.model.importer;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports a CSV file written by ExportFormatCsv using every available core.
+ * The file is split into row-aligned byte ranges that are memory-mapped and parsed in
+ * parallel. A quoted field may hold line breaks, so the ranges are found by one sequential
+ * scan that keeps track of quotes. The calling thread is the only writer: it adds the parsed
+ * batches to the calendar in file order, so duplicates are detected as if the rows were
+ * added one by one. If a row is invalid, the ranges before it stay in the calendar, and the
+ * error tells how many events they added.
+ */
+public class ParallelImportCsv {
+  private static final int CHUNK_SIZE = 8 << 20;
+  private static final int SCAN_BUFFER_SIZE = 1 << 16;
+  private final ImportFormatCsv rowParser;
+  private final int threads;
+
+  /**
+   * Initializes the importer with one parsing thread per available core.
+   */
+  public ParallelImportCsv() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Initializes the importer with a fixed number of parsing threads.
+   *
+   * @param threads Number of threads that parse chunks of the file.
+   */
+  public ParallelImportCsv(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive.");
+    }
+    this.rowParser = new ImportFormatCsv();
+    this.threads = threads;
+  }
+
+  /**
+   * Reads the CSV file and adds its events to the calendar.
+   *
+   * @param path     CSV file to import.
+   * @param calendar Calendar to add the imported events to.
+   * @return Number of events that were added to the calendar.
+   * @throws IOException              if the file cannot be read before any event was added.
+   * @throws IllegalArgumentException if a row is invalid, or the file cannot be read after
+   *                                  some events were added.
+   */
+  public int importFile(Path path, InterfaceCalendar calendar) throws IOException {
+    EventBatch batch = new EventBatch(calendar);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      List<long[]> ranges = splitIntoRanges(channel);
+
+      if (ranges.size() == 1 || threads == 1) {
+        for (long[] range : ranges) {
+          batch.addAll(parseRange(channel, range[0], range[1], calendar));
+        }
+        return batch.finish();
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        parseInParallel(executor, channel, ranges, calendar, batch);
+        return batch.finish();
+      } finally {
+        executor.shutdownNow();
+      }
+    } catch (IOException | RuntimeException e) {
+      batch.reportPartial(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Parses ranges on the executor while adding finished ranges to the calendar in order.
+   * At most twice as many ranges as threads are in flight, so memory stays bounded.
+   */
+  private void parseInParallel(ExecutorService executor, FileChannel channel,
+                               List<long[]> ranges, InterfaceCalendar calendar, EventBatch batch)
+      throws IOException {
+    Deque<Future<List<InterfaceEvent>>> inFlight = new ArrayDeque<>();
+    int nextRange = 0;
+
+    while (nextRange < ranges.size() || !inFlight.isEmpty()) {
+      while (nextRange < ranges.size() && inFlight.size() < threads * 2) {
+        long[] range = ranges.get(nextRange++);
+        inFlight.add(executor.submit(() -> parseRange(channel, range[0], range[1], calendar)));
+      }
+
+      try {
+        batch.addAll(inFlight.poll().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Import was interrupted.", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  /**
+   * Splits the file into ranges of about CHUNK_SIZE bytes that each end right after a newline
+   * outside quotes. Quotes and newlines are single bytes in UTF-8, so the bytes are scanned
+   * without decoding them.
+   */
+  private List<long[]> splitIntoRanges(FileChannel channel) throws IOException {
+    long size = channel.size();
+    List<long[]> ranges = new ArrayList<>();
+    ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+    long start = 0;
+    long position = 0;
+    boolean quoted = false;
+    while (position < size) {
+      scan.clear();
+      int read = channel.read(scan, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        byte b = scan.get(i);
+        if (b == '"') {
+          quoted = !quoted;
+        } else if (b == '\n' && !quoted && position + i + 1 - start >= CHUNK_SIZE) {
+          ranges.add(new long[] {start, position + i + 1});
+          start = position + i + 1;
+        }
+      }
+      position += read;
+    }
+    if (start < size) {
+      ranges.add(new long[] {start, size});
+    }
+    return ranges;
+  }
+
+  /**
+   * Memory-maps a range of the file, decodes it and parses each of its rows.
+   */
+  private List<InterfaceEvent> parseRange(FileChannel channel, long start, long end,
+                                          InterfaceCalendar calendar) throws IOException {
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    CharBuffer chars;
+    try {
+      chars = StandardCharsets.UTF_8.newDecoder().decode(mapped);
+    } catch (CharacterCodingException e) {
+      throw new IllegalArgumentException("CSV file is not valid UTF-8 near byte " + start + ".");
+    }
+
+    List<InterfaceEvent> events = new ArrayList<>();
+    int lineStart = 0;
+    int length = chars.length();
+    boolean first = start == 0;
+    // Byte offsets in the file, counted as the decoded chars are scanned.
+    long position = start;
+    long lineStartByte = start;
+
+    boolean quoted = false;
+
+    for (int i = 0; i <= length; i++) {
+      if (i < length) {
+        char c = chars.charAt(i);
+        position += utf8Length(c);
+        if (c == '"') {
+          quoted = !quoted;
+        }
+        if (c != '\n' || quoted) {
+          continue;
+        }
+      }
+      int lineEnd = i > lineStart && chars.charAt(i - 1) == '\r' ? i - 1 : i;
+      String line = chars.subSequence(lineStart, lineEnd).toString();
+      boolean header = first && line.startsWith("Subject,");
+      first = false;
+
+      if (!header && !line.isBlank()) {
+        events.add(rowParser.parseLine(line, "row at byte " + lineStartByte, calendar));
+      }
+      lineStart = i + 1;
+      lineStartByte = position;
+    }
+    return events;
+  }
+
+  /**
+   * Gets the number of bytes a char takes in UTF-8. Each half of a surrogate pair counts
+   * half of the four bytes of the pair.
+   */
+  private static int utf8Length(char c) {
+    if (c < 0x80) {
+      return 1;
+    }
+    if (c < 0x800 || Character.isSurrogate(c)) {
+      return 2;
+    }
+    return 3;
+  }
+}
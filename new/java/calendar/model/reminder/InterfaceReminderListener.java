@@ -0,0 +1,26 @@
+package calendar.model.reminder;
+
+/**
+ * Listener that is handed the reminders of a ReminderScheduler as they fall due.
+ */
+public interface InterfaceReminderListener {
+
+  /**
+   * Called on the thread advancing the scheduler when a reminder falls due.
+   *
+   * @param reminder Reminder that fell due.
+   */
+  void remind(Reminder reminder);
+
+  /**
+   * Called on the thread advancing the scheduler when handing out a reminder, or advancing
+   * the scheduler itself, failed. The scheduler goes on with the other reminders. By default
+   * the failure is ignored.
+   *
+   * @param reminder Reminder that could not be handed out, or null if the scheduler failed
+   *                 before handing out reminders.
+   * @param cause    Exception that made it fail.
+   */
+  default void reminderFailed(Reminder reminder, RuntimeException cause) {
+  }
+}
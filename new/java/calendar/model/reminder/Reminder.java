@@ -0,0 +1,75 @@
+package calendar.model.reminder;
+
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceEvent;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A reminder that an event of a calendar is about to start.
+ */
+public class Reminder {
+  private final InterfaceCalendar calendar;
+  private final InterfaceEvent event;
+  private final LocalDateTime start;
+  private final Instant dueAt;
+
+  /**
+   * Initializes a reminder.
+   *
+   * @param calendar Calendar of the event.
+   * @param event    Event to remind of.
+   * @param start    Start of the event when the reminder was scheduled.
+   * @param dueAt    Instant the reminder is due at.
+   */
+  Reminder(InterfaceCalendar calendar, InterfaceEvent event, LocalDateTime start,
+           Instant dueAt) {
+    this.calendar = calendar;
+    this.event = event;
+    this.start = start;
+    this.dueAt = dueAt;
+  }
+
+  /**
+   * Gets the calendar of the event.
+   *
+   * @return Calendar the event is in.
+   */
+  public InterfaceCalendar getCalendar() {
+    return calendar;
+  }
+
+  /**
+   * Gets the event to remind of.
+   *
+   * @return The event, which is live and may have changed since.
+   */
+  public InterfaceEvent getEvent() {
+    return event;
+  }
+
+  /**
+   * Gets the start of the event in the time zone of its calendar.
+   *
+   * @return Start the reminder was scheduled for.
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the instant the reminder was due at.
+   *
+   * @return Start of the event minus the lead time, or the instant the reminder was
+   *         scheduled if that was later.
+   */
+  public Instant getDueAt() {
+    return dueAt;
+  }
+
+  @Override
+  public String toString() {
+    return "Reminder: " + event.getSubject() + " starts at " + start + " in "
+        + calendar.getName();
+  }
+}
@@ -0,0 +1,177 @@
+package calendar.model.reminder;
+
+import calendar.model.CalendarChange;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.InterfaceChangeListener;
+import calendar.model.InterfaceEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Drives a {@link ReminderScheduler} over the calendars of a model with a
+ * {@link SimulatedClock} and checks every reminder it hands out. The clock moves from one
+ * instant to another in fixed steps, running edits at the instants they were given for. A
+ * reminder must not fire before it is due nor more than a step and a tick after, must be for
+ * the start its event has when it fires, and must fire once. Every event that starts after the
+ * clock started and after its last edit, with a reminder due by the end, must get one.
+ */
+public class ReminderHarness {
+  private final InterfaceCalendarModels models;
+  private final Duration leadTime;
+  private final Duration tick;
+  private final Duration step;
+  private final TreeMap<Instant, List<Runnable>> edits;
+
+  /**
+   * Initializes a harness.
+   *
+   * @param models   Calendars to remind of.
+   * @param leadTime Time before the start of an event its reminder is due.
+   * @param tick     Tick of the scheduler.
+   * @param step     Time the clock moves at once.
+   */
+  public ReminderHarness(InterfaceCalendarModels models, Duration leadTime, Duration tick,
+                         Duration step) {
+    if (step.isNegative() || step.isZero()) {
+      throw new IllegalArgumentException("Step must be positive.");
+    }
+    this.models = models;
+    this.leadTime = leadTime;
+    this.tick = tick;
+    this.step = step;
+    this.edits = new TreeMap<>();
+  }
+
+  /**
+   * Runs an edit of the calendars once the clock reaches an instant.
+   *
+   * @param instant Instant to run the edit at.
+   * @param edit    Edit to run.
+   */
+  public void editAt(Instant instant, Runnable edit) {
+    edits.computeIfAbsent(instant, key -> new ArrayList<>()).add(edit);
+  }
+
+  /**
+   * Runs the scheduler from one instant to another.
+   *
+   * @param from Instant the clock starts at.
+   * @param to   Instant the clock stops at.
+   * @return Report of the reminders and the problems found.
+   */
+  public String run(Instant from, Instant to) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("The run cannot end before it starts.");
+    }
+    SimulatedClock clock = new SimulatedClock(from, ZoneOffset.UTC);
+    Map<InterfaceEvent, Instant> lastEdits = new IdentityHashMap<>();
+    InterfaceChangeListener editRecorder = (calendar, changes) -> {
+      for (CalendarChange change : changes) {
+        lastEdits.put(change.getEvent(), clock.instant());
+      }
+    };
+    Map<InterfaceEvent, List<Reminder>> fired = new IdentityHashMap<>();
+    List<String> problems = new ArrayList<>();
+    long[] counts = new long[3];
+
+    ReminderScheduler scheduler = new ReminderScheduler(leadTime, tick, clock, reminder -> {
+      Instant now = clock.instant();
+      if (now.isBefore(reminder.getDueAt())) {
+        counts[0]++;
+        problems.add("Early at " + now + ": " + reminder);
+      } else if (now.isAfter(reminder.getDueAt().plus(step).plus(tick))) {
+        counts[1]++;
+        problems.add("Late at " + now + ": " + reminder);
+      }
+      if (!reminder.getStart().equals(reminder.getEvent().getStartDateTime())) {
+        counts[2]++;
+        problems.add("Stale at " + now + ": " + reminder + ", event now starts at "
+            + reminder.getEvent().getStartDateTime());
+      }
+      fired.computeIfAbsent(reminder.getEvent(), event -> new ArrayList<>()).add(reminder);
+    });
+
+    List<InterfaceCalendar> calendars = new ArrayList<>();
+    for (String name : models.getCalendarNames()) {
+      calendars.add(models.get(name));
+    }
+    for (InterfaceCalendar calendar : calendars) {
+      calendar.addChangeListener(editRecorder);
+    }
+    long startNanos = System.nanoTime();
+    long fires = 0;
+    int peakPending;
+    try {
+      scheduler.watchAll(models);
+      peakPending = scheduler.getPendingCount();
+      fires += scheduler.runDue();
+      while (clock.instant().isBefore(to)) {
+        Instant next = clock.instant().plus(step);
+        clock.setInstant(next.isAfter(to) ? to : next);
+        for (List<Runnable> due : edits.headMap(clock.instant(), true).values()) {
+          for (Runnable edit : due) {
+            edit.run();
+          }
+        }
+        edits.headMap(clock.instant(), true).clear();
+        peakPending = Math.max(peakPending, scheduler.getPendingCount());
+        fires += scheduler.runDue();
+      }
+    } finally {
+      scheduler.close();
+      for (InterfaceCalendar calendar : calendars) {
+        calendar.removeChangeListener(editRecorder);
+      }
+    }
+    long nanos = System.nanoTime() - startNanos;
+
+    long expected = 0;
+    long missed = 0;
+    long duplicated = 0;
+    for (String name : models.getCalendarNames()) {
+      InterfaceCalendar calendar = models.get(name);
+      for (InterfaceEvent event : calendar.filter(e -> true)) {
+        Instant startsAt = event.getStartDateTime()
+            .atZone(calendar.getTimeZone().toZoneId()).toInstant();
+        Instant notBefore = lastEdits.getOrDefault(event, from);
+        if (!startsAt.isAfter(notBefore) || startsAt.minus(leadTime).isAfter(to)) {
+          continue;
+        }
+        expected++;
+        List<Reminder> reminders = fired.get(event);
+        if (reminders == null) {
+          missed++;
+          problems.add("Missed: " + event.getSubject() + " at " + event.getStartDateTime()
+              + " in " + name);
+          continue;
+        }
+        LocalDateTime start = event.getStartDateTime();
+        long forStart = reminders.stream().filter(r -> r.getStart().equals(start)).count();
+        if (forStart > 1) {
+          duplicated++;
+          problems.add("Duplicated " + forStart + " times: " + reminders.get(0));
+        }
+      }
+    }
+
+    StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+        "Simulated %s to %s in steps of %s with a lead time of %s.%n"
+            + "%d reminders fired for %d expected, at most %d pending, in %.3f s.%n"
+            + "%d early, %d late, %d stale, %d missed, %d duplicated.",
+        from, to, step, leadTime, fires, expected, peakPending, nanos / 1e9,
+        counts[0], counts[1], counts[2], missed, duplicated));
+    for (String problem : problems.subList(0, Math.min(problems.size(), 20))) {
+      report.append(System.lineSeparator()).append(problem);
+    }
+    return report.toString();
+  }
+}
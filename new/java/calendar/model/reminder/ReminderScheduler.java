@@ -0,0 +1,322 @@
+package calendar.model.reminder;
+
+import calendar.model.CalendarChange;
+import calendar.model.InterfaceCalendar;
+import calendar.model.InterfaceCalendarModels;
+import calendar.model.InterfaceChangeListener;
+import calendar.model.InterfaceEvent;
+import calendar.model.filter.FilterByDateTime;
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Schedules a reminder a fixed lead time before the start of every upcoming event of the
+ * calendars it watches. Reminders wait in a {@link TimingWheel}, so scheduling, moving and
+ * cancelling one is O(1) however many are pending. The scheduler listens to the changes of
+ * its calendars and moves a reminder whenever its event is moved, so reminders never fire for
+ * a start an event no longer has. Reminders fire when {@link #runDue()} is called, either by
+ * the thread of {@link #start()} or by whoever drives the clock, with the precision of one
+ * tick. A scheduler that watches the calendars of a model through
+ * {@link #watchAll(InterfaceCalendarModels)} catches up with the model every time reminders
+ * fall due, so calendars created later are watched as well.
+ */
+public class ReminderScheduler implements InterfaceChangeListener, Closeable {
+  /**
+   * Tick the scheduler uses unless told otherwise.
+   */
+  public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+
+  private final Duration leadTime;
+  private final long tickMillis;
+  private final Clock clock;
+  private final InterfaceReminderListener listener;
+  private final TimingWheel<Reminder> wheel;
+  private final Map<InterfaceEvent, TimingWheel.Timer<Reminder>> timers;
+  private final Set<InterfaceCalendar> watched;
+  private final Object firing;
+  private volatile InterfaceCalendarModels models;
+  private volatile Lock readLock;
+  private Thread thread;
+
+  /**
+   * Initializes a scheduler that watches no calendars yet.
+   *
+   * @param leadTime Time before the start of an event its reminder is due.
+   * @param tick     Precision of the scheduler, at least a millisecond.
+   * @param clock    Clock telling the scheduler the time.
+   * @param listener Listener handed the reminders as they fall due.
+   */
+  public ReminderScheduler(Duration leadTime, Duration tick, Clock clock,
+                           InterfaceReminderListener listener) {
+    if (leadTime.isNegative()) {
+      throw new IllegalArgumentException("Lead time cannot be negative.");
+    }
+    if (tick.toMillis() < 1) {
+      throw new IllegalArgumentException("Tick must be at least a millisecond.");
+    }
+    this.leadTime = leadTime;
+    this.tickMillis = tick.toMillis();
+    this.clock = Objects.requireNonNull(clock);
+    this.listener = Objects.requireNonNull(listener);
+    this.wheel = new TimingWheel<>(Math.floorDiv(clock.millis(), tickMillis));
+    this.timers = new IdentityHashMap<>();
+    this.watched = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.firing = new Object();
+  }
+
+  /**
+   * Starts watching a calendar, scheduling reminders for its events that have not started
+   * yet. An event whose reminder is already overdue gets one right away.
+   *
+   * @param calendar Calendar to watch.
+   */
+  public void watch(InterfaceCalendar calendar) {
+    synchronized (this) {
+      if (!watched.add(calendar)) {
+        return;
+      }
+    }
+    Lock lock = readLock;
+    if (lock != null) {
+      lock.lock();
+    }
+    try {
+      // The calendar is read without holding the scheduler, as it calls into the scheduler
+      // while holding its own locks. Changes made meanwhile are already heard, and scheduling
+      // an event twice replaces its first reminder.
+      calendar.addChangeListener(this);
+      ZoneId zone = calendar.getTimeZone().toZoneId();
+      LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), zone);
+      List<InterfaceEvent> upcoming =
+          calendar.filter(new FilterByDateTime(now, LocalDateTime.MAX));
+      synchronized (this) {
+        for (InterfaceEvent event : upcoming) {
+          schedule(calendar, event);
+        }
+      }
+    } finally {
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Starts watching every calendar of a model, and keeps following the model: calendars
+   * created later are watched once reminders next fall due, and calendars the model no
+   * longer holds, e.g. because changing their time zone replaced them, are no longer watched.
+   *
+   * @param models Calendars to watch.
+   */
+  public void watchAll(InterfaceCalendarModels models) {
+    this.models = Objects.requireNonNull(models);
+    followModels();
+  }
+
+  /**
+   * Makes the scheduler hold a lock whenever it reads a calendar, for calendars that other
+   * threads change while holding the matching write lock.
+   *
+   * @param readLock Lock to hold while reading calendars.
+   */
+  public void setReadLock(Lock readLock) {
+    this.readLock = Objects.requireNonNull(readLock);
+  }
+
+  /**
+   * Gets the number of reminders waiting to fall due.
+   *
+   * @return Number of pending reminders.
+   */
+  public synchronized int getPendingCount() {
+    return wheel.size();
+  }
+
+  /**
+   * Moves the reminders of the changed events. Events that were added or moved get a reminder
+   * for their new start, which replaces the one for their old start.
+   *
+   * @param calendar Calendar the events changed in, as of the changes.
+   * @param changes  Changes in the order they were made.
+   */
+  @Override
+  public synchronized void calendarChanged(InterfaceCalendar calendar,
+                                           List<CalendarChange> changes) {
+    for (CalendarChange change : changes) {
+      if (change.getKind() == CalendarChange.Kind.ADDED
+          || !change.getOldStart().equals(change.getNewStart())) {
+        schedule(calendar, change.getEvent());
+      }
+    }
+  }
+
+  /**
+   * Hands the listener every reminder that fell due by now, in the order they fell due. A
+   * reminder the listener fails on is handed to
+   * {@link InterfaceReminderListener#reminderFailed(Reminder, RuntimeException)}.
+   *
+   * @return Number of reminders handed out.
+   */
+  public int runDue() {
+    synchronized (firing) {
+      followModels();
+      List<Reminder> due = new ArrayList<>();
+      synchronized (this) {
+        wheel.advanceTo(Math.floorDiv(clock.millis(), tickMillis), due);
+        for (Reminder reminder : due) {
+          timers.remove(reminder.getEvent());
+        }
+      }
+      // The listener is called without holding the scheduler, so it may edit the calendars.
+      for (Reminder reminder : due) {
+        try {
+          listener.remind(reminder);
+        } catch (RuntimeException e) {
+          listener.reminderFailed(reminder, e);
+        }
+      }
+      return due.size();
+    }
+  }
+
+  /**
+   * Starts a daemon thread that hands out the reminders as they fall due on the clock.
+   */
+  public synchronized void start() {
+    if (thread != null) {
+      throw new IllegalStateException("Reminders are already running.");
+    }
+    thread = new Thread(this::runLoop, "calendar-reminders");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops the thread of {@link #start()}, stops watching the calendars and drops the pending
+   * reminders.
+   */
+  @Override
+  public void close() {
+    Thread running;
+    synchronized (this) {
+      running = thread;
+      thread = null;
+      for (InterfaceCalendar calendar : watched) {
+        calendar.removeChangeListener(this);
+      }
+      watched.clear();
+      models = null;
+      for (TimingWheel.Timer<Reminder> timer : timers.values()) {
+        wheel.cancel(timer);
+      }
+      timers.clear();
+    }
+    if (running != null) {
+      running.interrupt();
+      try {
+        running.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void runLoop() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        runDue();
+      } catch (RuntimeException e) {
+        listener.reminderFailed(null, e);
+      }
+      long now = clock.millis();
+      long nextTick = (Math.floorDiv(now, tickMillis) + 1) * tickMillis;
+      try {
+        Thread.sleep(nextTick - now);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Watches the calendars of the model of {@link #watchAll(InterfaceCalendarModels)} that are
+   * not watched yet, and stops watching the ones it no longer holds.
+   */
+  private void followModels() {
+    InterfaceCalendarModels followed = models;
+    if (followed == null) {
+      return;
+    }
+    Set<InterfaceCalendar> current = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (String name : followed.getCalendarNames()) {
+      try {
+        current.add(followed.get(name));
+      } catch (IllegalArgumentException e) {
+        // Renamed since the names were read; the new name is seen next time.
+      }
+    }
+    List<InterfaceCalendar> gone = new ArrayList<>();
+    synchronized (this) {
+      for (InterfaceCalendar calendar : watched) {
+        if (!current.contains(calendar)) {
+          gone.add(calendar);
+        }
+      }
+    }
+    for (InterfaceCalendar calendar : gone) {
+      unwatch(calendar);
+    }
+    for (InterfaceCalendar calendar : current) {
+      watch(calendar);
+    }
+  }
+
+  /**
+   * Stops watching a calendar and drops the pending reminders of its events.
+   */
+  private synchronized void unwatch(InterfaceCalendar calendar) {
+    if (!watched.remove(calendar)) {
+      return;
+    }
+    calendar.removeChangeListener(this);
+    timers.values().removeIf(timer -> {
+      if (timer.getPayload().getCalendar() != calendar) {
+        return false;
+      }
+      wheel.cancel(timer);
+      return true;
+    });
+  }
+
+  private void schedule(InterfaceCalendar calendar, InterfaceEvent event) {
+    TimingWheel.Timer<Reminder> previous = timers.remove(event);
+    if (previous != null) {
+      wheel.cancel(previous);
+    }
+
+    LocalDateTime start = event.getStartDateTime();
+    Instant startsAt = start.atZone(calendar.getTimeZone().toZoneId()).toInstant();
+    Instant now = clock.instant();
+    if (startsAt.isBefore(now)) {
+      return;
+    }
+    Instant dueAt = startsAt.minus(leadTime);
+    if (dueAt.isBefore(now)) {
+      dueAt = now;
+    }
+    long deadline = Math.floorDiv(dueAt.toEpochMilli() + tickMillis - 1, tickMillis);
+    timers.put(event, wheel.schedule(deadline, new Reminder(calendar, event, start, dueAt)));
+  }
+}
@@ -0,0 +1,79 @@
+package calendar.model.reminder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clock that only moves when told to, so a ReminderScheduler can be driven through days of
+ * reminders in an instant and with the same result every time.
+ */
+public class SimulatedClock extends Clock {
+  private final ZoneId zone;
+  private final AtomicReference<Instant> now;
+
+  /**
+   * Initializes a clock standing at the given instant.
+   *
+   * @param start Instant the clock shows until it is moved.
+   * @param zone  Time zone of the clock.
+   */
+  public SimulatedClock(Instant start, ZoneId zone) {
+    this(new AtomicReference<>(Objects.requireNonNull(start)), zone);
+  }
+
+  private SimulatedClock(AtomicReference<Instant> now, ZoneId zone) {
+    this.now = now;
+    this.zone = Objects.requireNonNull(zone);
+  }
+
+  /**
+   * Moves the clock forward.
+   *
+   * @param duration Time to move forward by, must not be negative.
+   */
+  public void advance(Duration duration) {
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("A clock cannot move backwards.");
+    }
+    now.updateAndGet(instant -> instant.plus(duration));
+  }
+
+  /**
+   * Moves the clock to an instant.
+   *
+   * @param instant Instant to move to, must not be before the current one.
+   */
+  public void setInstant(Instant instant) {
+    now.updateAndGet(current -> {
+      if (instant.isBefore(current)) {
+        throw new IllegalArgumentException("A clock cannot move backwards.");
+      }
+      return instant;
+    });
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Gets the same clock in another time zone. Both move together.
+   *
+   * @param zone Time zone of the returned clock.
+   * @return Clock sharing the instant of this one.
+   */
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return new SimulatedClock(now, zone);
+  }
+
+  @Override
+  public Instant instant() {
+    return now.get();
+  }
+}
@@ -0,0 +1,255 @@
+package calendar.model.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel that keeps timers by the tick they are due at.
+ * Level 0 has a slot for each of the next 64 ticks, level 1 a slot for each of the next 64
+ * blocks of 64 ticks, and so on, so seven levels cover 2^42 ticks. Every slot is a doubly
+ * linked list, which makes scheduling and cancelling a timer O(1) no matter how many timers
+ * are pending. When level 0 comes around, the next slot of level 1 is spread over level 0,
+ * and likewise for the levels above. Advancing skips straight over stretches in which the
+ * lower levels are empty. Not thread-safe.
+ *
+ * @param <T> Type of the payload of a timer.
+ */
+public class TimingWheel<T> {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int MASK = SLOTS - 1;
+  private static final int LEVELS = 7;
+  private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+  private final List<List<Timer<T>>> wheels;
+  private final int[] levelSizes;
+  private long currentTick;
+  private int size;
+
+  /**
+   * Initializes an empty wheel.
+   *
+   * @param startTick First tick that {@link #advanceTo(long, List)} will process.
+   */
+  public TimingWheel(long startTick) {
+    this.currentTick = startTick;
+    this.levelSizes = new int[LEVELS];
+    this.wheels = new ArrayList<>();
+    for (int level = 0; level < LEVELS; level++) {
+      List<Timer<T>> slots = new ArrayList<>();
+      for (int slot = 0; slot < SLOTS; slot++) {
+        slots.add(Timer.sentinel());
+      }
+      wheels.add(slots);
+    }
+  }
+
+  /**
+   * Gets the next tick to be processed.
+   *
+   * @return The tick after the last one processed.
+   */
+  public long getCurrentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Gets the number of pending timers.
+   *
+   * @return Number of timers that were scheduled and have neither fired nor been cancelled.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schedules a timer. A timer due at a tick that was already processed fires with the next
+   * tick that is processed. Timers further ahead than the wheel reaches wait in its top level
+   * until they come within reach.
+   *
+   * @param deadline Tick the timer is due at.
+   * @param payload  Payload handed back when the timer fires.
+   * @return The timer, to cancel it.
+   */
+  public Timer<T> schedule(long deadline, T payload) {
+    Timer<T> timer = new Timer<>(deadline, payload);
+    place(timer);
+    size++;
+    return timer;
+  }
+
+  /**
+   * Cancels a timer.
+   *
+   * @param timer Timer returned by {@link #schedule(long, Object)}.
+   * @return True if the timer was pending, false if it already fired or was cancelled.
+   */
+  public boolean cancel(Timer<T> timer) {
+    if (!timer.isPending()) {
+      return false;
+    }
+    unlink(timer);
+    size--;
+    return true;
+  }
+
+  /**
+   * Processes every tick up to and including the given one, collecting the payloads of the
+   * timers that fell due in the order of their ticks.
+   *
+   * @param tick    Last tick to process.
+   * @param expired List the payloads of the timers that fell due are added to.
+   */
+  public void advanceTo(long tick, List<T> expired) {
+    while (currentTick <= tick) {
+      if (size == 0) {
+        currentTick = tick + 1;
+        return;
+      }
+
+      if (levelSizes[0] == 0) {
+        // Nothing can fire before the next slot of the lowest non-empty level comes around.
+        int level = 1;
+        while (levelSizes[level] == 0) {
+          level++;
+        }
+        int shift = SLOT_BITS * level;
+        long next = ((currentTick + (1L << shift) - 1) >>> shift) << shift;
+        if (next > tick) {
+          currentTick = tick + 1;
+          return;
+        }
+        currentTick = next;
+      }
+      processTick(expired);
+    }
+  }
+
+  private void processTick(List<T> expired) {
+    long tick = currentTick;
+    int index = (int) (tick & MASK);
+    if (index == 0) {
+      for (int level = 1; level < LEVELS; level++) {
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+        cascade(level, slot);
+        if (slot != 0) {
+          break;
+        }
+      }
+    }
+
+    Timer<T> head = wheels.get(0).get(index);
+    if (head.next == head) {
+      currentTick = tick + 1;
+      return;
+    }
+    List<Timer<T>> due = new ArrayList<>();
+    for (Timer<T> timer = head.next; timer != head; timer = timer.next) {
+      due.add(timer);
+    }
+    // Timers scheduled while collecting belong to the ticks after this one.
+    currentTick = tick + 1;
+    for (Timer<T> timer : due) {
+      unlink(timer);
+      size--;
+      expired.add(timer.payload);
+    }
+  }
+
+  private void cascade(int level, int slot) {
+    Timer<T> head = wheels.get(level).get(slot);
+    Timer<T> timer = head.next;
+    while (timer != head) {
+      Timer<T> next = timer.next;
+      unlink(timer);
+      place(timer);
+      timer = next;
+    }
+  }
+
+  private void place(Timer<T> timer) {
+    long delay = timer.deadline - currentTick;
+    int level;
+    int slot;
+    if (delay < 0) {
+      level = 0;
+      slot = (int) (currentTick & MASK);
+    } else {
+      long deadline = delay > MAX_DELAY ? currentTick + MAX_DELAY : timer.deadline;
+      delay = deadline - currentTick;
+      level = 0;
+      while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+        level++;
+      }
+      slot = (int) ((deadline >>> (SLOT_BITS * level)) & MASK);
+    }
+
+    Timer<T> head = wheels.get(level).get(slot);
+    timer.level = level;
+    timer.prev = head.prev;
+    timer.next = head;
+    head.prev.next = timer;
+    head.prev = timer;
+    levelSizes[level]++;
+  }
+
+  private void unlink(Timer<T> timer) {
+    timer.prev.next = timer.next;
+    timer.next.prev = timer.prev;
+    timer.prev = null;
+    timer.next = null;
+    levelSizes[timer.level]--;
+  }
+
+  /**
+   * A timer in the wheel. The sentinel heading every slot is a timer without a payload.
+   *
+   * @param <T> Type of the payload.
+   */
+  public static final class Timer<T> {
+    private final long deadline;
+    private final T payload;
+    private Timer<T> prev;
+    private Timer<T> next;
+    private int level;
+
+    private Timer(long deadline, T payload) {
+      this.deadline = deadline;
+      this.payload = payload;
+    }
+
+    private static <T> Timer<T> sentinel() {
+      Timer<T> head = new Timer<>(0, null);
+      head.prev = head;
+      head.next = head;
+      return head;
+    }
+
+    /**
+     * Gets the tick the timer is due at.
+     *
+     * @return Tick the timer was scheduled for.
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+
+    /**
+     * Gets the payload of the timer.
+     *
+     * @return Payload given when the timer was scheduled.
+     */
+    public T getPayload() {
+      return payload;
+    }
+
+    /**
+     * Whether the timer is still waiting in the wheel.
+     *
+     * @return True if the timer neither fired nor was cancelled, false if otherwise.
+     */
+    public boolean isPending() {
+      return next != null;
+    }
+  }
+}
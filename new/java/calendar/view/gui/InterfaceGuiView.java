@@ -104,6 +104,22 @@ public interface InterfaceGuiView extends InterfaceView {
   void renderDay(LocalDate date, List<InterfaceViewEvent> events,
                  Map<LocalDate, List<InterfaceViewEvent>> monthEvents);
 
+  /**
+   * Re-renders only the given days of the month grid, leaving every other day as it is.
+   * Days that are not part of the grid are ignored.
+   *
+   * @param days map of the changed dates to all of their events, empty if a date has none
+   */
+  void renderDays(Map<LocalDate, List<InterfaceViewEvent>> days);
+
+  /**
+   * Re-renders the events of the day view without switching views or touching the month grid.
+   *
+   * @param date   the date to display
+   * @param events list of events for that day
+   */
+  void renderDayEvents(LocalDate date, List<InterfaceViewEvent> events);
+
   /**
    * Simple data class for calendar information.
    */
@@ -320,14 +320,13 @@ public class MainView extends JFrame implements InterfaceGuiView {
     dayViewContainer.repaint();
   }
 
-  /**
-   * Updates the day view with events for a specific date.
-   * This is used internally to update the day panel without switching views.
-   *
-   * @param date   the date to display
-   * @param events list of events for that day
-   */
-  private void renderDayEvents(LocalDate date, List<InterfaceViewEvent> events) {
+  @Override
+  public void renderDays(Map<LocalDate, List<InterfaceViewEvent>> days) {
+    monthTablePanel.updateDays(days);
+  }
+
+  @Override
+  public void renderDayEvents(LocalDate date, List<InterfaceViewEvent> events) {
     dayViewPanel.setDate(date);
     dayViewPanel.setCalendarName(activeCalendarName);
 
@@ -28,6 +28,14 @@ public interface InterfaceMonthTablePanel {
    */
   void setEvents(Map<LocalDate, List<InterfaceViewEvent>> events);
 
+  /**
+   * Replaces the events of some days and rebuilds only their cells.
+   * Called by MainView when the controller reports changed days.
+   *
+   * @param days map of changed dates to all of their events (from Controller)
+   */
+  void updateDays(Map<LocalDate, List<InterfaceViewEvent>> days);
+
   /**
    * Refreshes the calendar display.
    */
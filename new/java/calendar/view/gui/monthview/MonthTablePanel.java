@@ -87,6 +87,34 @@ public class MonthTablePanel extends JPanel implements InterfaceMonthTablePanel
     refresh();
   }
 
+  @Override
+  public void updateDays(Map<LocalDate, List<InterfaceViewEvent>> days) {
+    LocalDate today = LocalDate.now();
+    boolean changed = false;
+
+    for (Map.Entry<LocalDate, List<InterfaceViewEvent>> entry : days.entrySet()) {
+      LocalDate date = entry.getKey();
+      JPanel oldCell = dateCellPanels.get(date);
+      if (oldCell == null) {
+        continue;
+      }
+
+      eventsMap.put(date, entry.getValue());
+      int index = getComponentZOrder(oldCell);
+      JPanel cell = createDateCell(date, date.equals(today),
+          date.getMonthValue() == currentMonth, entry.getValue());
+      remove(index);
+      add(cell, index);
+      dateCellPanels.put(date, cell);
+      changed = true;
+    }
+
+    if (changed) {
+      revalidate();
+      repaint();
+    }
+  }
+
   private void initializeComponents() {
     setLayout(new GridLayout(CALENDAR_ROWS, CALENDAR_COLS, 1, 1));
     addDayHeaders();
@@ -0,0 +1,140 @@
+package calendar.view.simple;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output sink that collects text in a large buffer and writes it to a stream in one go.
+ * The buffer is written once it reaches its capacity, once the oldest buffered text has
+ * waited for the maximum delay, and on flush or close. Text is written in the order it was
+ * appended, so results and error messages keep their relative order.
+ */
+public class BufferedOutputSink implements Appendable, Flushable, Closeable {
+  public static final int DEFAULT_CAPACITY = 1 << 20;
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 200;
+
+  private final OutputStream out;
+  private final Charset charset;
+  private final int capacity;
+  private final StringBuilder buffer;
+  private final ScheduledExecutorService timer;
+  private IOException timerFailure;
+
+  /**
+   * Initializes a sink with the default capacity and maximum delay.
+   *
+   * @param out     Stream to write to, e.g. the standard output.
+   * @param charset Charset to encode the text with.
+   */
+  public BufferedOutputSink(OutputStream out, Charset charset) {
+    this(out, charset, DEFAULT_CAPACITY, DEFAULT_MAX_DELAY_MILLIS);
+  }
+
+  /**
+   * Initializes a sink.
+   *
+   * @param out            Stream to write to, e.g. the standard output.
+   * @param charset        Charset to encode the text with.
+   * @param capacity       Number of chars buffered before they are written.
+   * @param maxDelayMillis Longest time text stays in the buffer, or 0 to only flush on size.
+   */
+  public BufferedOutputSink(OutputStream out, Charset charset, int capacity,
+                            long maxDelayMillis) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive.");
+    }
+    if (maxDelayMillis < 0) {
+      throw new IllegalArgumentException("Maximum delay cannot be negative.");
+    }
+    this.out = out;
+    this.charset = charset;
+    this.capacity = capacity;
+    this.buffer = new StringBuilder(capacity);
+
+    if (maxDelayMillis > 0) {
+      this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "output-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.timer.scheduleWithFixedDelay(this::flushFromTimer, maxDelayMillis, maxDelayMillis,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.timer = null;
+    }
+  }
+
+  @Override
+  public synchronized Appendable append(CharSequence csq) throws IOException {
+    throwTimerFailure();
+    buffer.append(csq);
+    if (buffer.length() >= capacity) {
+      writeBuffer();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized Appendable append(CharSequence csq, int start, int end)
+      throws IOException {
+    return append(csq.subSequence(start, end));
+  }
+
+  @Override
+  public synchronized Appendable append(char c) throws IOException {
+    return append(String.valueOf(c));
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    throwTimerFailure();
+    writeBuffer();
+    out.flush();
+  }
+
+  /**
+   * Writes the remaining text and stops the flush timer. The stream itself is left open.
+   *
+   * @throws IOException if the remaining text cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (timer != null) {
+      timer.shutdownNow();
+    }
+    flush();
+  }
+
+  private synchronized void flushFromTimer() {
+    if (buffer.length() == 0 || timerFailure != null) {
+      return;
+    }
+    try {
+      writeBuffer();
+      out.flush();
+    } catch (IOException e) {
+      timerFailure = e;
+    }
+  }
+
+  private void writeBuffer() throws IOException {
+    if (buffer.length() == 0) {
+      return;
+    }
+    byte[] bytes = buffer.toString().getBytes(charset);
+    buffer.setLength(0);
+    out.write(bytes);
+  }
+
+  private void throwTimerFailure() throws IOException {
+    if (timerFailure != null) {
+      throw timerFailure;
+    }
+  }
+}
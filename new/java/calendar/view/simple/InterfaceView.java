@@ -10,4 +10,10 @@ public interface InterfaceView {
    * @param message Message to append to output.
    */
   void renderMessage(String message);
+
+  /**
+   * Writes out any messages the view is still holding back, e.g. when the program exits.
+   */
+  default void flush() {
+  }
 }
@@ -1,5 +1,6 @@
 package calendar.view.simple;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.util.Objects;
 
@@ -43,4 +44,18 @@ public class SimpleView implements InterfaceView {
     }
     write(message.stripTrailing() + System.lineSeparator());
   }
+
+  /**
+   * Flushes the output if it buffers its text.
+   */
+  @Override
+  public void flush() {
+    if (out instanceof Flushable) {
+      try {
+        ((Flushable) out).flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot flush appendable.", e);
+      }
+    }
+  }
 }